@@ -22,9 +22,12 @@ package org.sonar.cxx.checks.file;
 import com.sonar.cxx.sslr.api.AstNode;
 import com.sonar.cxx.sslr.api.Grammar;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
@@ -53,13 +56,59 @@ public class FileEncodingCheck extends SquidCheck<Grammar> implements CxxCharset
 
   @Override
   public void visitFile(@Nullable AstNode astNode) {
-    try {
-      Files.readAllLines(getContext().getFile().toPath(), charset);
-    } catch (IOException e) {
+    if (!isDecodedWithoutErrors() && !canDecode()) {
       getContext().createFileViolation(this,
         "Not all characters of the file can be encoded with the predefined charset "
         + charset.name() + ".");
     }
   }
 
+  /**
+   * Malformed or unmappable input is replaced while decoding the content of the input file: a content decoded with the
+   * same charset without replacement characters has no encoding errors, so the file must not be read again. The
+   * content of a file starting with a BOM is decoded with the charset of the BOM instead.
+   */
+  private boolean isDecodedWithoutErrors() {
+    var inputFile = getContext().getInputFile();
+    if (inputFile == null || !charset.equals(inputFile.charset())) {
+      return false;
+    }
+    var bomCharset = bomCharset();
+    return (bomCharset == null || charset.equals(bomCharset))
+      && getContext().getInputFileContent().indexOf('\uFFFD') < 0;
+  }
+
+  @CheckForNull
+  private Charset bomCharset() {
+    var bom = new byte[3];
+    int length;
+    try (var in = Files.newInputStream(getContext().getFile().toPath())) {
+      length = in.readNBytes(bom, 0, bom.length);
+    } catch (IOException e) {
+      return null;
+    }
+    if (length >= 3 && bom[0] == (byte) 0xEF && bom[1] == (byte) 0xBB && bom[2] == (byte) 0xBF) {
+      return StandardCharsets.UTF_8;
+    }
+    if (length >= 2 && bom[0] == (byte) 0xFE && bom[1] == (byte) 0xFF) {
+      return StandardCharsets.UTF_16BE;
+    }
+    if (length >= 2 && bom[0] == (byte) 0xFF && bom[1] == (byte) 0xFE) {
+      return StandardCharsets.UTF_16LE;
+    }
+    return null;
+  }
+
+  private boolean canDecode() {
+    try {
+      charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT)
+        .decode(ByteBuffer.wrap(Files.readAllBytes(getContext().getFile().toPath())));
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
 }
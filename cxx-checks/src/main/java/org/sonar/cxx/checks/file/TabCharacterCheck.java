@@ -25,6 +25,7 @@ import javax.annotation.Nullable;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
+import org.sonar.cxx.squidbridge.FileContent;
 import org.sonar.cxx.squidbridge.annotations.ActivatedByDefault;
 import org.sonar.cxx.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.cxx.squidbridge.checks.SquidCheck;
@@ -56,10 +57,9 @@ public class TabCharacterCheck extends SquidCheck<Grammar> {
 
   @Override
   public void visitFile(@Nullable AstNode astNode) {
-    var nr = 0;
-    for (var line : getContext().getInputFileLines()) {
-      ++nr;
-      if (line.contains("\t")) {
+    var content = getContext().getFileContent();
+    for (int nr = 1; nr <= content.getLineCount(); nr++) {
+      if (containsTab(content, nr)) {
         if (createLineViolation) {
           getContext().createLineViolation(
             this,
@@ -74,4 +74,15 @@ public class TabCharacterCheck extends SquidCheck<Grammar> {
     }
   }
 
+  private static boolean containsTab(FileContent content, int line) {
+    var text = content.getText();
+    int end = content.getLineEnd(line);
+    for (int i = content.getLineStart(line); i < end; i++) {
+      if (text.charAt(i) == '\t') {
+        return true;
+      }
+    }
+    return false;
+  }
+
 }
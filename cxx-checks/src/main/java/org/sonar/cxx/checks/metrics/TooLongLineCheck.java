@@ -66,11 +66,17 @@ public class TooLongLineCheck extends SquidCheck<Grammar> {
 
   @Override
   public void visitFile(@Nullable AstNode astNode) {
-    var nr = 0;
-    for (var line : getContext().getInputFileLines()) {
-      ++nr;
-      long length = line.chars().filter(c -> c == '\t').count();
-      length = line.length() + length * (tabWidth - 1);
+    var content = getContext().getFileContent();
+    var text = content.getText();
+    for (int nr = 1; nr <= content.getLineCount(); nr++) {
+      int start = content.getLineStart(nr);
+      int end = content.getLineEnd(nr);
+      long length = end - start;
+      for (int i = start; i < end; i++) {
+        if (text.charAt(i) == '\t') {
+          length += tabWidth - 1;
+        }
+      }
       if (length > maximumLineLength) {
         getContext().createLineViolation(
           this,
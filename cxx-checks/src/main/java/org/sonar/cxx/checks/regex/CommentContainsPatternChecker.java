@@ -30,6 +30,7 @@ class CommentContainsPatternChecker {
   private final String pattern;
   private final String message;
   private final Pattern p;
+  private RegularExpressionRules rules = null;
 
   /**
    * CommentContainsPatternChecker
@@ -45,27 +46,33 @@ class CommentContainsPatternChecker {
     p = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
   }
 
+  /**
+   * init, to be called from init() of the check
+   */
+  public void init() {
+    rules = RegularExpressionRules.of(check.getContext());
+    rules.addCommentRule(check, p, this::visitComment);
+  }
+
   /**
    * visitToken
    *
    * @param token
    */
   public void visitToken(Token token) {
-    for (var trivia : token.getTrivia()) {
-      if (!trivia.isComment()) {
-        continue;
-      }
-      var triviaToken = trivia.getToken();
-      String comment = triviaToken.getOriginalValue();
-      int line = triviaToken.getLine();
-      if (indexOfIgnoreCase(comment) != -1) {
-        String[] lines = EOL_PATTERN.split(comment);
+    rules.visitToken(token);
+  }
+
+  private void visitComment(Token triviaToken) {
+    String comment = triviaToken.getOriginalValue();
+    int line = triviaToken.getLine();
+    if (indexOfIgnoreCase(comment) != -1) {
+      String[] lines = EOL_PATTERN.split(comment);
 
-        for (var i = 0; i < lines.length; i++) {
-          int start = indexOfIgnoreCase(lines[i]);
-          if (start != -1 && !isLetterAround(lines[i], start)) {
-            check.getContext().createLineViolation(check, message, line + i);
-          }
+      for (var i = 0; i < lines.length; i++) {
+        int start = indexOfIgnoreCase(lines[i]);
+        if (start != -1 && !isLetterAround(lines[i], start)) {
+          check.getContext().createLineViolation(check, message, line + i);
         }
       }
     }
@@ -20,6 +20,7 @@
 package org.sonar.cxx.checks.regex;
 
 import com.sonar.cxx.sslr.api.Grammar;
+import com.sonar.cxx.sslr.api.Token;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
@@ -50,6 +51,8 @@ public class CommentRegularExpressionCheck extends AbstractCommentRegularExpress
     defaultValue = DEFAULT_MESSAGE)
   public String message = DEFAULT_MESSAGE;
 
+  private RegularExpressionRules rules = null;
+
   @Override
   public String getRegularExpression() {
     return regularExpression;
@@ -60,4 +63,23 @@ public class CommentRegularExpressionCheck extends AbstractCommentRegularExpress
     return message;
   }
 
+  @Override
+  public void init() {
+    super.init();
+    rules = RegularExpressionRules.of(getContext());
+    var pattern = getPattern();
+    if (pattern != null) {
+      rules.addCommentRule(this, pattern, (Token comment) -> {
+        if (pattern.matcher(comment.getOriginalValue()).matches()) {
+          getContext().createLineViolation(this, getMessage(), comment);
+        }
+      });
+    }
+  }
+
+  @Override
+  public void visitToken(Token token) {
+    rules.visitToken(token);
+  }
+
 }
@@ -21,14 +21,13 @@ package org.sonar.cxx.checks.regex;
 
 import com.sonar.cxx.sslr.api.AstNode;
 import com.sonar.cxx.sslr.api.Grammar;
-import java.util.Iterator;
-import java.util.List;
 import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 import org.sonar.cxx.checks.utils.CheckUtils;
+import org.sonar.cxx.squidbridge.FileContent;
 import org.sonar.cxx.squidbridge.annotations.ActivatedByDefault;
 import org.sonar.cxx.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.cxx.squidbridge.checks.SquidCheck;
@@ -88,7 +87,7 @@ public class FileHeaderCheck extends SquidCheck<Grammar> {
       String fileContent = getContext().getInputFileContent();
       checkRegularExpression(fileContent);
     } else {
-      if (!matches(expectedLines, getContext().getInputFileLines())) {
+      if (!matches(expectedLines, getContext().getFileContent())) {
         getContext().createFileViolation(this, MESSAGE);
       }
     }
@@ -109,23 +108,16 @@ public class FileHeaderCheck extends SquidCheck<Grammar> {
     }
   }
 
-  private static boolean matches(String[] expectedLines, List<String> lines) {
-    var result = false;
-
-    if (expectedLines.length <= lines.size()) {
-      result = true;
-
-      Iterator<String> it = lines.iterator();
-      for (var expectedLine : expectedLines) {
-        String line = it.next();
-        if (!line.equals(expectedLine)) {
-          result = false;
-          break;
-        }
+  private static boolean matches(String[] expectedLines, FileContent content) {
+    if (expectedLines.length > content.getLineCount()) {
+      return false;
+    }
+    for (int i = 0; i < expectedLines.length; i++) {
+      if (!expectedLines[i].contentEquals(content.getLine(i + 1))) {
+        return false;
       }
     }
-
-    return result;
+    return true;
   }
 
 }
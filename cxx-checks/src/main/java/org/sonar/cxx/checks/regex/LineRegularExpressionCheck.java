@@ -21,7 +21,6 @@ package org.sonar.cxx.checks.regex;
 
 import com.sonar.cxx.sslr.api.AstNode;
 import com.sonar.cxx.sslr.api.Grammar;
-import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 import org.sonar.api.utils.PathUtils;
 import org.sonar.api.utils.WildcardPattern;
@@ -95,7 +94,7 @@ public class LineRegularExpressionCheck extends SquidCheck<Grammar> {
     description = "The violation message",
     defaultValue = DEFAULT_MESSAGE)
   public String message = DEFAULT_MESSAGE;
-  private Pattern pattern = null;
+  private RegularExpressionRules rules = null;
 
   private static boolean compare(boolean invert, boolean condition) {
     return invert ? !condition : condition;
@@ -103,21 +102,15 @@ public class LineRegularExpressionCheck extends SquidCheck<Grammar> {
 
   @Override
   public void init() {
-    pattern = CheckUtils.compileUserRegexp(regularExpression);
+    var pattern = CheckUtils.compileUserRegexp(regularExpression);
+    rules = RegularExpressionRules.of(getContext());
+    rules.addLineRule(this, pattern, invertRegularExpression, message,
+      () -> compare(invertFilePattern, matchFile()));
   }
 
   @Override
   public void visitFile(@Nullable AstNode fileNode) {
-    if (compare(invertFilePattern, matchFile())) {
-      var nr = 0;
-      for (var line : getContext().getInputFileLines()) {
-        var matcher = pattern.matcher(line);
-        ++nr;
-        if (compare(invertRegularExpression, matcher.find())) {
-          getContext().createLineViolation(this, message, nr);
-        }
-      }
-    }
+    rules.visitFile();
   }
 
   private boolean matchFile() {
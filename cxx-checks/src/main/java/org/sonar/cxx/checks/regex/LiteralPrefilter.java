@@ -0,0 +1,283 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.checks.regex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+
+/**
+ * Finds several literals in one pass over a text (Aho-Corasick automaton).
+ *
+ * Literals and text are compared case-insensitively, so a literal can be used as prefilter for case-sensitive and
+ * case-insensitive regular expressions: if the required literal of a regular expression is not found, the regular
+ * expression cannot match.
+ */
+final class LiteralPrefilter {
+
+  private static final int ASCII = 128;
+
+  // transitions of the automaton for ASCII characters (including the failure transitions)
+  private final int[][] asciiTransitions;
+  // goto function for all other characters
+  private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+  private final int[] failure;
+  // literals found in a state (including the literals of the failure states)
+  private final int[][] outputs;
+
+  /**
+   * Create the automaton.
+   *
+   * @param literals literals to find, the index of a literal is used as its id
+   */
+  LiteralPrefilter(List<String> literals) {
+    var out = new ArrayList<List<Integer>>();
+    transitions.add(new HashMap<>());
+    out.add(new ArrayList<>());
+    for (int id = 0; id < literals.size(); id++) {
+      int state = 0;
+      for (var c : literals.get(id).toCharArray()) {
+        var lower = Character.toLowerCase(c);
+        var next = transitions.get(state).get(lower);
+        if (next == null) {
+          next = transitions.size();
+          transitions.get(state).put(lower, next);
+          transitions.add(new HashMap<>());
+          out.add(new ArrayList<>());
+        }
+        state = next;
+      }
+      out.get(state).add(id);
+    }
+
+    // breadth first: the failure state of a state is always computed before the state itself
+    failure = new int[transitions.size()];
+    var queue = new ArrayDeque<Integer>(transitions.get(0).values());
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      for (var entry : transitions.get(state).entrySet()) {
+        int next = entry.getValue();
+        failure[next] = state == 0 ? 0 : step(failure[state], entry.getKey());
+        out.get(next).addAll(out.get(failure[next]));
+        queue.add(next);
+      }
+    }
+
+    outputs = new int[out.size()][];
+    for (int state = 0; state < outputs.length; state++) {
+      outputs[state] = out.get(state).stream().mapToInt(Integer::intValue).distinct().toArray();
+    }
+    asciiTransitions = new int[transitions.size()][ASCII];
+    for (int state = 0; state < asciiTransitions.length; state++) {
+      for (char c = 0; c < ASCII; c++) {
+        asciiTransitions[state][c] = step(state, c);
+      }
+    }
+  }
+
+  /**
+   * Search the literals in a region of the text.
+   *
+   * @param text text to search
+   * @param start start of the region
+   * @param end end of the region (exclusive)
+   * @param found the ids of the found literals are set
+   */
+  void find(CharSequence text, int start, int end, BitSet found) {
+    int state = 0;
+    for (int i = start; i < end; i++) {
+      var c = Character.toLowerCase(text.charAt(i));
+      state = c < ASCII ? asciiTransitions[state][c] : step(state, c);
+      for (var id : outputs[state]) {
+        found.set(id);
+      }
+    }
+  }
+
+  private int step(int state, char c) {
+    while (true) {
+      var next = transitions.get(state).get(c);
+      if (next != null) {
+        return next;
+      }
+      if (state == 0) {
+        return 0;
+      }
+      state = failure[state];
+    }
+  }
+
+  /**
+   * Literal which is part of every match of a regular expression (conservative: null if the regular expression is too
+   * complex to determine it).
+   *
+   * @param regexp regular expression
+   * @param flags flags of the compiled pattern
+   * @return longest required literal or null if there is none
+   */
+  @CheckForNull
+  static String requiredLiteral(String regexp, int flags) {
+    if ((flags & (Pattern.COMMENTS | Pattern.LITERAL | Pattern.CANON_EQ | Pattern.UNICODE_CASE)) != 0) {
+      return null;
+    }
+    var best = "";
+    var run = new StringBuilder();
+    int i = 0;
+    while (i < regexp.length()) {
+      char c = regexp.charAt(i);
+      int next;
+      if (c == '|' || c == ')' || (c == '(' && regexp.startsWith("(?", i))) {
+        // alternative, flags, look around or unexpected: no simple sequence of atoms
+        return null;
+      } else if (c == '(') {
+        next = skipGroup(regexp, i);
+      } else if (c == '[') {
+        next = skipClass(regexp, i);
+      } else if (c == '\\') {
+        if (i + 1 >= regexp.length()) {
+          return null;
+        }
+        char escaped = regexp.charAt(i + 1);
+        if (!Character.isLetterOrDigit(escaped)) {
+          next = i + 2;
+          if (isRequired(regexp, next)) {
+            run.append(escaped);
+          }
+          if (!isQuantifier(regexp, next)) {
+            i = next;
+            continue;
+          }
+        } else if ("dDsSwWbBAGZzRXhHvVntrfea".indexOf(escaped) >= 0) {
+          next = i + 2;
+        } else {
+          // property, hex or unicode escape, back reference, quotation, ...
+          return null;
+        }
+      } else if (c == '.' || c == '^' || c == '$' || c == '\n' || c == '\r') {
+        // line breaks are excluded: a literal must be found within a line
+        next = i + 1;
+      } else {
+        next = i + 1;
+        if (isRequired(regexp, next)) {
+          run.append(c);
+        }
+        if (!isQuantifier(regexp, next)) {
+          i = next;
+          continue;
+        }
+      }
+      if (next < 0) {
+        return null;
+      }
+      // the sequence of literal characters ends here
+      if (run.length() > best.length()) {
+        best = run.toString();
+      }
+      run.setLength(0);
+      i = skipQuantifier(regexp, next);
+      if (i < 0) {
+        return null;
+      }
+    }
+    if (run.length() > best.length()) {
+      best = run.toString();
+    }
+    return best.isEmpty() ? null : best;
+  }
+
+  private static boolean isQuantifier(String regexp, int i) {
+    return i < regexp.length() && "*?+{".indexOf(regexp.charAt(i)) >= 0;
+  }
+
+  private static boolean isRequired(String regexp, int i) {
+    // '+' requires the atom at least once, all other quantifiers allow zero occurrences
+    return !isQuantifier(regexp, i) || regexp.charAt(i) == '+';
+  }
+
+  private static int skipQuantifier(String regexp, int i) {
+    if (i >= regexp.length()) {
+      return i;
+    }
+    char c = regexp.charAt(i);
+    if (c == '{') {
+      int end = regexp.indexOf('}', i);
+      if (end < 0) {
+        return -1;
+      }
+      i = end + 1;
+    } else if (c == '*' || c == '?' || c == '+') {
+      i++;
+    } else {
+      return i;
+    }
+    // lazy or possessive quantifier
+    if (i < regexp.length() && (regexp.charAt(i) == '?' || regexp.charAt(i) == '+')) {
+      i++;
+    }
+    return i;
+  }
+
+  private static int skipGroup(String regexp, int i) {
+    int depth = 0;
+    while (i < regexp.length()) {
+      char c = regexp.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '[') {
+        i = skipClass(regexp, i);
+        if (i < 0) {
+          return -1;
+        }
+        continue;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i + 1;
+      }
+      i++;
+    }
+    return -1;
+  }
+
+  private static int skipClass(String regexp, int i) {
+    int depth = 0;
+    // a ']' directly after '[' or '[^' is a character of the class
+    int first = -1;
+    while (i < regexp.length()) {
+      char c = regexp.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '[') {
+        depth++;
+        first = regexp.startsWith("^", i + 1) ? i + 2 : i + 1;
+      } else if (c == ']' && i != first && --depth == 0) {
+        return i + 1;
+      }
+      i++;
+    }
+    return -1;
+  }
+
+}
@@ -41,25 +41,34 @@ import org.sonar.cxx.squidbridge.checks.SquidCheck;
 public class NoSonarCheck extends SquidCheck<Grammar> implements AstAndTokenVisitor {
 
   private static final Pattern EOL_PATTERN = Pattern.compile("\\R");
+  private static final Pattern NOSONAR_PATTERN = Pattern.compile("NOSONAR");
+
+  private RegularExpressionRules rules = null;
+
+  @Override
+  public void init() {
+    rules = RegularExpressionRules.of(getContext());
+    rules.addCommentRule(this, NOSONAR_PATTERN, this::visitComment);
+  }
 
   @Override
   public void visitToken(Token token) {
-    for (var trivia : token.getTrivia()) {
-      if (trivia.isComment()) {
-        String[] commentLines = EOL_PATTERN
-          .split(getContext().getCommentAnalyser().getContents(trivia.getToken().getOriginalValue()), -1);
-        int line = trivia.getToken().getLine();
+    rules.visitToken(token);
+  }
+
+  private void visitComment(Token comment) {
+    String[] commentLines = EOL_PATTERN
+      .split(getContext().getCommentAnalyser().getContents(comment.getOriginalValue()), -1);
+    int line = comment.getLine();
 
-        for (var commentLine : commentLines) {
-          if (commentLine.contains("NOSONAR")) {
-            getContext().createLineViolation(
-              this,
-              "Is //NOSONAR used to exclude false-positive or to hide real quality flaw ?",
-              line);
-          }
-          line++;
-        }
+    for (var commentLine : commentLines) {
+      if (commentLine.contains("NOSONAR")) {
+        getContext().createLineViolation(
+          this,
+          "Is //NOSONAR used to exclude false-positive or to hide real quality flaw ?",
+          line);
       }
+      line++;
     }
   }
 
@@ -0,0 +1,289 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.checks.regex;
+
+import com.sonar.cxx.sslr.api.Token;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.sonar.cxx.squidbridge.FileContent;
+import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
+import org.sonar.cxx.squidbridge.checks.SquidCheck;
+
+/**
+ * Evaluates the regular expression rules of a scanner together.
+ *
+ * All line, file and comment rules using a regular expression register here during init(). The first check of a kind
+ * visiting a file (or token) does the work for all of them: the lines of a file (or the comments of a token) are
+ * searched once for the required literals of all regular expressions, the regular expressions are only evaluated if
+ * their literal was found. The rules are a shared object of the visitor context, so the parallel workers of a scanner
+ * do not share state.
+ */
+final class RegularExpressionRules {
+
+  private final SquidAstVisitorContext<?> context;
+  private final Map<SquidCheck<?>, TextRule> textRules = new LinkedHashMap<>();
+  private final Map<SquidCheck<?>, CommentRule> commentRules = new LinkedHashMap<>();
+  private Group<TextRule> texts = null;
+  private Group<CommentRule> comments = null;
+  // file and token already visited: the other checks of a kind skip them
+  private FileContent visitedFile = null;
+  private Token visitedToken = null;
+
+  private RegularExpressionRules(SquidAstVisitorContext<?> context) {
+    this.context = context;
+  }
+
+  /**
+   * Rules of the checks using the same visitor context.
+   */
+  static RegularExpressionRules of(SquidAstVisitorContext<?> context) {
+    return context.getSharedObject(RegularExpressionRules.class, () -> new RegularExpressionRules(context));
+  }
+
+  /**
+   * Register a rule checking each line of a file.
+   *
+   * @param check check reporting the issues
+   * @param pattern regular expression searched in each line
+   * @param invert report the lines not matching the regular expression
+   * @param message issue message
+   * @param acceptFile evaluated once per file, the file is skipped if false
+   */
+  void addLineRule(SquidCheck<?> check, Pattern pattern, boolean invert, String message, BooleanSupplier acceptFile) {
+    textRules.put(check, new TextRule(check, pattern, invert, message, acceptFile, true));
+    texts = null;
+  }
+
+  /**
+   * Register a rule checking the content of a file.
+   *
+   * @param check check reporting the issue
+   * @param pattern regular expression searched in the file
+   * @param invert report the file if it does not match the regular expression
+   * @param message issue message
+   * @param acceptFile evaluated once per file, the file is skipped if false
+   */
+  void addFileRule(SquidCheck<?> check, Pattern pattern, boolean invert, String message, BooleanSupplier acceptFile) {
+    textRules.put(check, new TextRule(check, pattern, invert, message, acceptFile, false));
+    texts = null;
+  }
+
+  /**
+   * Register a rule checking comments.
+   *
+   * @param check check owning the rule
+   * @param pattern regular expression, comments which cannot contain a match are not passed to visitComment
+   * @param visitComment checks a comment (trivia token) and reports the issues
+   */
+  void addCommentRule(SquidCheck<?> check, Pattern pattern, Consumer<Token> visitComment) {
+    commentRules.put(check, new CommentRule(check, pattern, visitComment));
+    comments = null;
+  }
+
+  /**
+   * To be called from visitFile() of all checks with a line or file rule.
+   */
+  void visitFile() {
+    var content = context.getFileContent();
+    if (content == visitedFile) {
+      return;
+    }
+    visitedFile = content;
+    var group = texts();
+    var rules = group.rules;
+    var accepted = new BitSet(rules.size());
+    boolean lineRules = false;
+    for (int i = 0; i < rules.size(); i++) {
+      if (rules.get(i).acceptFile.getAsBoolean()) {
+        accepted.set(i);
+        lineRules |= rules.get(i).line;
+      }
+    }
+    if (accepted.isEmpty()) {
+      return;
+    }
+
+    var text = content.getText();
+    var matchers = new Matcher[rules.size()];
+    var inFile = new BitSet();
+    if (lineRules) {
+      var inLine = new BitSet();
+      for (int nr = 1; nr <= content.getLineCount(); nr++) {
+        int start = content.getLineStart(nr);
+        int end = content.getLineEnd(nr);
+        inLine.clear();
+        group.prefilter.find(text, start, end, inLine);
+        inFile.or(inLine);
+        for (int i = accepted.nextSetBit(0); i >= 0; i = accepted.nextSetBit(i + 1)) {
+          var rule = rules.get(i);
+          if (rule.line) {
+            // the region of a line behaves like a separate input: anchors match at the line bounds
+            boolean found = group.isCandidate(i, inLine) && group.matcher(i, matchers, text).region(start, end).find();
+            if (found != rule.invert) {
+              context.createLineViolation(rule.check, rule.message, nr);
+            }
+          }
+        }
+      }
+    } else {
+      group.prefilter.find(text, 0, text.length(), inFile);
+    }
+
+    for (int i = accepted.nextSetBit(0); i >= 0; i = accepted.nextSetBit(i + 1)) {
+      var rule = rules.get(i);
+      if (!rule.line) {
+        boolean found = group.isCandidate(i, inFile) && group.matcher(i, matchers, text).reset().find();
+        if (found != rule.invert) {
+          context.createFileViolation(rule.check, rule.message);
+        }
+      }
+    }
+  }
+
+  /**
+   * To be called from visitToken() of all checks with a comment rule.
+   */
+  void visitToken(Token token) {
+    if (token == visitedToken || !token.hasTrivia()) {
+      return;
+    }
+    visitedToken = token;
+    var group = comments();
+    var found = new BitSet();
+    for (var trivia : token.getTrivia()) {
+      if (trivia.isComment()) {
+        var triviaToken = trivia.getToken();
+        var comment = triviaToken.getOriginalValue();
+        found.clear();
+        group.prefilter.find(comment, 0, comment.length(), found);
+        for (int i = 0; i < group.rules.size(); i++) {
+          if (group.isCandidate(i, found)) {
+            group.rules.get(i).visitComment.accept(triviaToken);
+          }
+        }
+      }
+    }
+  }
+
+  private Group<TextRule> texts() {
+    if (texts == null) {
+      texts = new Group<>(new ArrayList<>(textRules.values()));
+    }
+    return texts;
+  }
+
+  private Group<CommentRule> comments() {
+    if (comments == null) {
+      comments = new Group<>(new ArrayList<>(commentRules.values()));
+    }
+    return comments;
+  }
+
+  private abstract static class PatternRule {
+
+    final SquidCheck<?> check;
+    final Pattern pattern;
+
+    PatternRule(SquidCheck<?> check, Pattern pattern) {
+      this.check = check;
+      this.pattern = pattern;
+    }
+
+  }
+
+  private static final class TextRule extends PatternRule {
+
+    final boolean invert;
+    final String message;
+    final BooleanSupplier acceptFile;
+    final boolean line;
+
+    TextRule(SquidCheck<?> check, Pattern pattern, boolean invert, String message, BooleanSupplier acceptFile,
+      boolean line) {
+      super(check, pattern);
+      this.invert = invert;
+      this.message = message;
+      this.acceptFile = acceptFile;
+      this.line = line;
+    }
+
+  }
+
+  private static final class CommentRule extends PatternRule {
+
+    final Consumer<Token> visitComment;
+
+    CommentRule(SquidCheck<?> check, Pattern pattern, Consumer<Token> visitComment) {
+      super(check, pattern);
+      this.visitComment = visitComment;
+    }
+
+  }
+
+  /**
+   * Rules of one kind with the prefilter of their literals.
+   */
+  private static final class Group<R extends PatternRule> {
+
+    final List<R> rules;
+    final LiteralPrefilter prefilter;
+    // id of the required literal of each rule, -1 if the rule has no literal
+    private final int[] literalIds;
+
+    Group(List<R> rules) {
+      this.rules = rules;
+      this.literalIds = new int[rules.size()];
+      var literals = new ArrayList<String>();
+      for (int i = 0; i < rules.size(); i++) {
+        var pattern = rules.get(i).pattern;
+        var literal = LiteralPrefilter.requiredLiteral(pattern.pattern(), pattern.flags());
+        literalIds[i] = literal == null ? -1 : literals.size();
+        if (literal != null) {
+          literals.add(literal);
+        }
+      }
+      this.prefilter = new LiteralPrefilter(literals);
+    }
+
+    /**
+     * A rule without literal is always a candidate, otherwise only if its literal was found.
+     */
+    boolean isCandidate(int index, BitSet found) {
+      int id = literalIds[index];
+      return id < 0 || found.get(id);
+    }
+
+    Matcher matcher(int index, Matcher[] matchers, CharSequence text) {
+      if (matchers[index] == null) {
+        matchers[index] = rules.get(index).pattern.matcher(text);
+      }
+      return matchers[index];
+    }
+
+  }
+
+}
@@ -19,9 +19,7 @@
  */
 package org.sonar.cxx.checks.xpath;
 
-import com.sonar.cxx.sslr.api.AstNode;
 import com.sonar.cxx.sslr.api.Grammar;
-import javax.annotation.Nullable;
 import org.sonar.api.utils.PathUtils;
 import org.sonar.api.utils.WildcardPattern;
 import org.sonar.check.Priority;
@@ -84,15 +82,13 @@ public class XPathCheck extends AbstractXPathCheck<Grammar> {
   }
 
   @Override
-  public void visitFile(@Nullable AstNode fileNode) {
+  protected boolean acceptFile() {
     if (!matchFilePattern.isEmpty()) {
       var pattern = WildcardPattern.create(matchFilePattern);
       String path = PathUtils.sanitize(getContext().getFile().getPath());
-      if (!compare(invertFilePattern, path != null && pattern.match(path))) {
-        return;
-      }
+      return compare(invertFilePattern, path != null && pattern.match(path));
     }
-    super.visitFile(fileNode);
+    return true;
   }
 
 }
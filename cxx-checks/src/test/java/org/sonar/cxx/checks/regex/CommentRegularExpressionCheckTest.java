@@ -45,4 +45,26 @@ class CommentRegularExpressionCheckTest {
       .noMore();
   }
 
+  @Test
+  @SuppressWarnings("squid:S2699") // ... verify contains the assertion
+  void withTodoTagPresenceCheck() throws IOException {
+    var check = new CommentRegularExpressionCheck();
+    check.regularExpression = "// TODO.*";
+    check.message = "Avoid TODO";
+
+    var tester = CxxFileTesterHelper.create("src/test/resources/checks/TodoTagPresenceCheck.cc", ".");
+
+    SourceFile file = CxxAstScanner.scanSingleInputFile(tester.asInputFile(), check, new TodoTagPresenceCheck());
+    CheckMessagesVerifier.verify(file.getCheckMessages())
+      .next().atLine(3).withMessage("Complete the task associated to this TODO comment.")
+      .next().atLine(7)
+      .next().atLine(8)
+      .next().atLine(11).withMessage("Avoid TODO")
+      .next().atLine(11).withMessage("Complete the task associated to this TODO comment.")
+      .next().atLine(13).withMessage("Avoid TODO")
+      .next().atLine(13)
+      .next().atLine(15)
+      .noMore();
+  }
+
 }
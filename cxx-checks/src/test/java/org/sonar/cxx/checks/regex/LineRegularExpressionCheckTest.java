@@ -108,4 +108,27 @@ class LineRegularExpressionCheckTest {
       .noMore();
   }
 
+  @Test
+  @SuppressWarnings("squid:S2699") // ... verify contains the assertion
+  void severalLineRegExInOneScan() throws IOException {
+    var check1 = new LineRegularExpressionCheck();
+    check1.regularExpression = "stdafx\\.h";
+    check1.message = "Found 'stdafx.h' in line!";
+    var check2 = new LineRegularExpressionCheck();
+    check2.regularExpression = "^int\\b";
+    check2.message = "Found 'int' at begin of line!";
+    var check3 = new LineRegularExpressionCheck();
+    check3.regularExpression = "\\s{3}"; // without literal
+    check3.message = "Found three spaces in line!";
+    var tester = CxxFileTesterHelper.create("src/test/resources/checks/LineRegEx.cc", ".");
+    SourceFile file = CxxAstScanner.scanSingleInputFile(tester.asInputFile(), check1, check2, check3);
+
+    CheckMessagesVerifier.verify(file.getCheckMessages())
+      .next().atLine(2).withMessage(check1.message)
+      .next().atLine(2).withMessage(check3.message)
+      .next().atLine(3).withMessage(check1.message)
+      .next().atLine(4).withMessage(check2.message)
+      .noMore();
+  }
+
 }
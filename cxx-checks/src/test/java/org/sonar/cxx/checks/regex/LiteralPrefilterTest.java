@@ -0,0 +1,104 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.checks.regex;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+import static org.assertj.core.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LiteralPrefilterTest {
+
+  @Test
+  void findOverlappingLiterals() {
+    var prefilter = new LiteralPrefilter(List.of("he", "she", "his", "hers"));
+
+    assertThat(find(prefilter, "ushers")).containsExactly(0, 1, 3);
+    assertThat(find(prefilter, "USHERS")).containsExactly(0, 1, 3);
+    assertThat(find(prefilter, "this")).containsExactly(2);
+    assertThat(find(prefilter, "xyz")).isEmpty();
+  }
+
+  @Test
+  void findInRegion() {
+    var prefilter = new LiteralPrefilter(List.of("his"));
+    var found = new BitSet();
+
+    prefilter.find("xhisy", 1, 3, found);
+    assertThat(found.isEmpty()).isTrue();
+    prefilter.find("xhisy", 1, 4, found);
+    assertThat(found.get(0)).isTrue();
+  }
+
+  @Test
+  void findNonAsciiLiterals() {
+    var prefilter = new LiteralPrefilter(List.of("äöß", "ab"));
+
+    assertThat(find(prefilter, "xÄÖßy")).containsExactly(0);
+    assertThat(find(prefilter, "äAbö")).containsExactly(1);
+  }
+
+  @Test
+  void noLiterals() {
+    assertThat(find(new LiteralPrefilter(List.of()), "abc")).isEmpty();
+  }
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', value = {
+    "stdafx\\.h|stdafx.h",
+    "#include\\s+\"stdafx\\.h\"|\"stdafx.h\"",
+    "//.*|//",
+    "^int\\b|int",
+    "\\d+ms|ms",
+    "[]a]bc|bc",
+    "a(bc)d|a",
+    "ab?c|a",
+    "a{2,3}bc|bc",
+    "\\.\\*x|.*x",
+    "// TODO.*|// TODO"
+  })
+  void requiredLiteral(String regexp, String literal) {
+    assertThat(LiteralPrefilter.requiredLiteral(regexp, 0)).isEqualTo(literal);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {".*", "a|b", "(?i)todo", "\\p{L}", "\\Qabc\\E", "\\s{3}", "(a"})
+  void noRequiredLiteral(String regexp) {
+    assertThat(LiteralPrefilter.requiredLiteral(regexp, 0)).isNull();
+  }
+
+  @Test
+  void requiredLiteralWithFlags() {
+    assertThat(LiteralPrefilter.requiredLiteral("TODO", Pattern.CASE_INSENSITIVE)).isEqualTo("TODO");
+    assertThat(LiteralPrefilter.requiredLiteral("TODO", Pattern.COMMENTS)).isNull();
+    assertThat(LiteralPrefilter.requiredLiteral("TODO", Pattern.LITERAL)).isNull();
+  }
+
+  private static int[] find(LiteralPrefilter prefilter, String text) {
+    var found = new BitSet();
+    prefilter.find(text, 0, text.length(), found);
+    return found.stream().toArray();
+  }
+
+}
@@ -20,8 +20,8 @@
 package org.sonar.cxx.sensors.compiler;
 
 import java.io.File;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.CheckForNull;
@@ -39,7 +39,8 @@ import org.sonar.cxx.utils.CxxReportIssue;
 public abstract class CxxCompilerSensor extends CxxIssuesReportSensor {
 
   private static final Logger LOG = LoggerFactory.getLogger(CxxCompilerSensor.class);
-  private final Set<String> notExistingGroupName = new HashSet<>();
+  // reports can be read in parallel
+  private final Set<String> notExistingGroupName = ConcurrentHashMap.newKeySet();
 
   @Override
   protected void processReport(File report) {
@@ -23,6 +23,7 @@ import java.io.File;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import org.sonar.api.batch.sensor.coverage.NewCoverage;
 import org.sonar.api.utils.PathUtils;
 import org.slf4j.Logger;
@@ -39,12 +40,16 @@ public abstract class CoverageSensor extends CxxReportSensor {
 
   private static final Logger LOG = LoggerFactory.getLogger(CoverageSensor.class);
 
-  private final CoverageParser parser;
+  private final Supplier<CoverageParser> parserFactory;
   private final String reportPathsKey;
 
-  protected CoverageSensor(String reportPathsKey, CoverageParser parser) {
+  /**
+   * @param reportPathsKey key of the report paths property
+   * @param parserFactory creates a new parser for each report (reports can be parsed in parallel)
+   */
+  protected CoverageSensor(String reportPathsKey, Supplier<CoverageParser> parserFactory) {
     this.reportPathsKey = reportPathsKey;
-    this.parser = parser;
+    this.parserFactory = parserFactory;
   }
 
   /**
@@ -53,8 +58,14 @@ public abstract class CoverageSensor extends CxxReportSensor {
   @Override
   public void executeImpl() {
     List<File> reports = getReports(reportPathsKey);
-    for (var report : reports) {
-      executeReport(report);
+    int threads = getReportThreads(reports.size());
+    if (threads > 1) {
+      processReports(reports, threads, this::parseReport,
+        (File report, Supplier<ParsedReport> parsed) -> executeReport(report, () -> saveReport(report, parsed.get())));
+    } else {
+      for (var report : reports) {
+        executeReport(report);
+      }
     }
   }
 
@@ -62,9 +73,13 @@ public abstract class CoverageSensor extends CxxReportSensor {
    * @param report to read
    */
   protected void executeReport(File report) {
+    executeReport(report, () -> processReport(report));
+  }
+
+  private void executeReport(File report, Runnable process) {
     try {
       LOG.info("Processing report '{}'", report);
-      processReport(report);
+      process.run();
     } catch (EmptyReportException e) {
       LOG.warn(e.getMessage());
     } catch (ReportException e) {
@@ -73,12 +88,21 @@ public abstract class CoverageSensor extends CxxReportSensor {
   }
 
   protected void processReport(File report) {
-    var coverageData = parser.parse(report);
-    if (coverageData.isEmpty()) {
+    saveReport(report, parseReport(report));
+  }
+
+  private ParsedReport parseReport(File report) {
+    var parser = parserFactory.get();
+    return new ParsedReport(parser, parser.parse(report));
+  }
+
+  private void saveReport(File report, ParsedReport parsed) {
+    if (parsed.coverageData().isEmpty()) {
+      var parser = parsed.parser();
       throw new EmptyReportException("Coverage report " + report + " result is empty (parsed by " + parser + ")");
     }
 
-    saveMeasures(coverageData);
+    saveMeasures(parsed.coverageData());
   }
 
   protected void saveMeasures(Map<String, CoverageMeasures> coverageMeasures) {
@@ -112,6 +136,10 @@ public abstract class CoverageSensor extends CxxReportSensor {
     }
   }
 
+  private record ParsedReport(CoverageParser parser, Map<String, CoverageMeasures> coverageData) {
+
+  }
+
   /**
    * @param newCoverage
    * @param measure
@@ -33,7 +33,7 @@ public class CxxCoverageBullseyeSensor extends CoverageSensor {
   public static final String REPORT_PATH_KEY = "sonar.cxx.bullseye.reportPaths";
 
   public CxxCoverageBullseyeSensor() {
-    super(REPORT_PATH_KEY, new BullseyeParser());
+    super(REPORT_PATH_KEY, BullseyeParser::new);
   }
 
   public static List<PropertyDefinition> properties() {
@@ -33,7 +33,7 @@ public class CxxCoverageCoberturaSensor extends CoverageSensor {
   public static final String REPORT_PATH_KEY = "sonar.cxx.cobertura.reportPaths";
 
   public CxxCoverageCoberturaSensor() {
-    super(REPORT_PATH_KEY, new CoberturaParser());
+    super(REPORT_PATH_KEY, CoberturaParser::new);
   }
 
   public static List<PropertyDefinition> properties() {
@@ -36,7 +36,7 @@ public class CxxCoverageTestwellCtcTxtSensor extends CoverageSensor {
   public static final String DEFAULT_ENCODING_DEF = StandardCharsets.UTF_8.name();
 
   public CxxCoverageTestwellCtcTxtSensor() {
-    super(REPORT_PATH_KEY, new TestwellCtcTxtParser());
+    super(REPORT_PATH_KEY, TestwellCtcTxtParser::new);
   }
 
   public static List<PropertyDefinition> properties() {
@@ -33,7 +33,7 @@ public class CxxCoverageVisualStudioSensor extends CoverageSensor {
   public static final String REPORT_PATH_KEY = "sonar.cxx.vscoveragexml.reportPaths";
 
   public CxxCoverageVisualStudioSensor() {
-    super(REPORT_PATH_KEY, new VisualStudioParser());
+    super(REPORT_PATH_KEY, VisualStudioParser::new);
   }
 
   public static List<PropertyDefinition> properties() {
@@ -26,7 +26,9 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
@@ -48,8 +50,12 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
 
   public static final String DEFAULT_UNKNOWN_RULE_KEY = "unknown";
 
-  private final HashSet<CxxReportIssue> uniqueIssues = new HashSet<>();
+  private final IssueFingerprints uniqueIssues = new IssueFingerprints();
   private int savedNewIssues = 0;
+  private int duplicateIssues = 0;
+  private int totalDuplicateIssues = 0;
+  // issues of a report read on a worker thread, saved later on the sensor thread
+  private final ThreadLocal<List<CxxReportIssue>> pendingIssues = new ThreadLocal<>();
 
   private SonarServerWebApi webApi = new SonarServerWebApi();
   private final HashMap<String, Set<String>> knownRulesPerRepositoryKey = new HashMap<>();
@@ -84,8 +90,18 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
       downloadRulesFromServer(context.config());
     }
     List<File> reports = getReports(getReportPathsKey());
-    for (var report : reports) {
-      executeReport(report);
+    int threads = getReportThreads(reports.size());
+    if (threads > 1) {
+      processReports(reports, threads, this::readReport,
+        (File report, Supplier<PendingReport> pending) -> executeReport(report, () -> pending.get().save()));
+    } else {
+      for (var report : reports) {
+        executeReport(report);
+      }
+    }
+    if (!reports.isEmpty()) {
+      LOG.info("Issues of '{}': unique={}, duplicates={}", getRuleRepositoryKey(), uniqueIssues.size(),
+        totalDuplicateIssues);
     }
   }
 
@@ -162,6 +178,11 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
    * @param issue
    */
   public void saveUniqueViolation(CxxReportIssue issue) {
+    var pending = pendingIssues.get();
+    if (pending != null) {
+      pending.add(issue);
+      return;
+    }
     if (uniqueIssues.add(issue)) {
       try {
         saveIssue(issue.getRuleId(), issue);
@@ -175,6 +196,9 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
         var msg = "Cannot save the issue '" + issue + "'";
         CxxUtils.validateRecovery(msg, e, context.config());
       }
+    } else {
+      duplicateIssues++;
+      totalDuplicateIssues++;
     }
   }
 
@@ -182,17 +206,38 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
    * @param report to read
    */
   protected void executeReport(File report) {
+    executeReport(report, () -> processReport(report));
+  }
+
+  private void executeReport(File report, Runnable process) {
     try {
       LOG.info("Processing report '{}'", report);
       savedNewIssues = 0;
-      processReport(report);
-      LOG.info("Processing successful, saved new issues={}", savedNewIssues);
+      duplicateIssues = 0;
+      process.run();
+      LOG.info("Processing successful, saved new issues={}, duplicate issues={}", savedNewIssues, duplicateIssues);
     } catch (ReportException e) {
       var msg = e.getMessage() + ", report='" + report + "'";
       CxxUtils.validateRecovery(msg, e, context.config());
     }
   }
 
+  /**
+   * Read a report on a worker thread: the issues are collected (in the order of the report) instead of saved.
+   */
+  private PendingReport readReport(File report) {
+    var issues = new ArrayList<CxxReportIssue>();
+    pendingIssues.set(issues);
+    try {
+      processReport(report);
+      return new PendingReport(issues, null);
+    } catch (RuntimeException e) {
+      return new PendingReport(issues, e);
+    } finally {
+      pendingIssues.remove();
+    }
+  }
+
   private TextRange getRange(CxxReportLocation location, InputFile inputFile) {
     var line = 1;
     var column = -1;
@@ -279,6 +324,32 @@ public abstract class CxxIssuesReportSensor extends CxxReportSensor {
     }
   }
 
+  /**
+   * Issues read from a report and the exception which terminated the reading.
+   */
+  private final class PendingReport {
+
+    private final List<CxxReportIssue> issues;
+    @Nullable
+    private final RuntimeException exception;
+
+    private PendingReport(List<CxxReportIssue> issues, @Nullable RuntimeException exception) {
+      this.issues = issues;
+      this.exception = exception;
+    }
+
+    /**
+     * Same result as processing the report on the sensor thread.
+     */
+    private void save() {
+      issues.forEach(CxxIssuesReportSensor.this::saveUniqueViolation);
+      if (exception != null) {
+        throw exception;
+      }
+    }
+
+  }
+
   protected abstract void processReport(File report);
 
   protected abstract String getReportPathsKey();
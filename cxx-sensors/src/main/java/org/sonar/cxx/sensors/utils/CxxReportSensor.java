@@ -22,9 +22,16 @@ package org.sonar.cxx.sensors.utils;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.LinkOption;
-import java.util.HashSet;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import javax.annotation.CheckForNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,9 +46,11 @@ public abstract class CxxReportSensor implements ProjectSensor {
 
   public static final String CATEGORY = "CXX External Analyzers";
   public static final String ERROR_RECOVERY_KEY = "sonar.cxx.errorRecoveryEnabled";
+  public static final String REPORT_THREADS_KEY = "sonar.cxx.reports.threads";
   private static final Logger LOG = LoggerFactory.getLogger(CxxReportSensor.class);
 
-  private final Set<String> notFoundFiles = new HashSet<>();
+  // reports can be read in parallel
+  private final Set<String> notFoundFiles = ConcurrentHashMap.newKeySet();
 
   protected SensorContext context;
 
@@ -101,6 +110,53 @@ public abstract class CxxReportSensor implements ProjectSensor {
     executeImpl();
   }
 
+  /**
+   * Number of threads to read reports in parallel.
+   *
+   * @param reports number of reports to read
+   * @return number of threads, not more than reports
+   */
+  protected int getReportThreads(int reports) {
+    int threads = context.config().getInt(REPORT_THREADS_KEY).orElse(1);
+    if (threads <= 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+    return Math.max(1, Math.min(threads, reports));
+  }
+
+  /**
+   * Read reports in parallel and process the results in the order of the reports.
+   *
+   * The reports are read on a pool of worker threads. The results are processed on the calling thread in the order of
+   * the reports: the supplier passed to process returns the result of read or throws its exception, so the error
+   * handling is the same as with sequential processing. Only a few results more than threads are kept in memory.
+   *
+   * @param <T> result of reading a report
+   * @param reports reports to process
+   * @param threads number of worker threads
+   * @param read reads a report, must be thread-safe
+   * @param process processes the result of a report
+   */
+  protected <T> void processReports(List<File> reports, int threads, Function<File, T> read,
+    BiConsumer<File, Supplier<T>> process) {
+    LOG.debug("Reading {} reports with {} threads", reports.size(), threads);
+    var executor = Executors.newFixedThreadPool(threads);
+    try {
+      var pending = new ArrayDeque<Future<T>>();
+      var next = 0;
+      for (var report : reports) {
+        while (next < reports.size() && pending.size() < 2 * threads) {
+          var nextReport = reports.get(next++);
+          pending.add(executor.submit(() -> read.apply(nextReport)));
+        }
+        var result = pending.poll();
+        process.accept(report, () -> getResult(result));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName();
@@ -135,6 +191,23 @@ public abstract class CxxReportSensor implements ProjectSensor {
     return null;
   }
 
+  private static <T> T getResult(Future<T> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Reading of reports cancelled", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+    }
+  }
+
   /**
    * override always executeImpl instead of execute
    */
@@ -0,0 +1,149 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.sonar.cxx.utils.CxxReportIssue;
+import org.sonar.cxx.utils.CxxReportLocation;
+
+/**
+ * Set of the issues already seen, storing only a 128 bit fingerprint per issue.
+ *
+ * The fingerprint is computed from the same fields as CxxReportIssue.equals (rule id, alias rule ids, locations and
+ * flow), so equal issues have the same fingerprint. The fingerprints are kept in an open addressing table of longs
+ * (at most half full): an issue needs 32 to 64 bytes instead of the issue object with its locations and messages.
+ */
+final class IssueFingerprints {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final MessageDigest digest;
+  private final byte[] intBuffer = new byte[Integer.BYTES];
+  // two longs per slot, the fingerprint 0:0 marks an empty slot
+  private long[] table = new long[2 * INITIAL_CAPACITY];
+  private int size = 0;
+  private boolean containsZero = false;
+
+  IssueFingerprints() {
+    try {
+      digest = MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 is not available", e);
+    }
+  }
+
+  /**
+   * Add the fingerprint of an issue.
+   *
+   * @param issue issue to add
+   * @return true if no equal issue was added before
+   */
+  boolean add(CxxReportIssue issue) {
+    var hash = ByteBuffer.wrap(fingerprint(issue));
+    return add(hash.getLong(), hash.getLong());
+  }
+
+  /**
+   * Number of different issues.
+   */
+  int size() {
+    return size;
+  }
+
+  private boolean add(long high, long low) {
+    if (high == 0 && low == 0) {
+      if (containsZero) {
+        return false;
+      }
+      containsZero = true;
+      size++;
+      return true;
+    }
+    int mask = table.length / 2 - 1;
+    int slot = (int) (low ^ (low >>> 32)) & mask;
+    while (table[2 * slot] != 0 || table[2 * slot + 1] != 0) {
+      if (table[2 * slot] == high && table[2 * slot + 1] == low) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+    table[2 * slot] = high;
+    table[2 * slot + 1] = low;
+    size++;
+    if (2 * size > table.length / 2) {
+      grow();
+    }
+    return true;
+  }
+
+  private void grow() {
+    var old = table;
+    table = new long[2 * old.length];
+    size = containsZero ? 1 : 0;
+    for (int i = 0; i < old.length; i += 2) {
+      if (old[i] != 0 || old[i + 1] != 0) {
+        add(old[i], old[i + 1]);
+      }
+    }
+  }
+
+  private byte[] fingerprint(CxxReportIssue issue) {
+    update(issue.getRuleId());
+    update(issue.getAliasRuleIds().size());
+    for (var aliasRuleId : issue.getAliasRuleIds()) {
+      update(aliasRuleId);
+    }
+    update(issue.getLocations());
+    update(issue.getFlow());
+    return digest.digest();
+  }
+
+  private void update(List<CxxReportLocation> locations) {
+    update(locations.size());
+    for (var location : locations) {
+      update(location.getFile());
+      update(location.getLine());
+      update(location.getColumn());
+      // the info prefix (not part of CxxReportLocation.equals) is only set after an issue was added
+      update(location.getInfo());
+    }
+  }
+
+  private void update(@Nullable String value) {
+    if (value == null) {
+      update(-1);
+    } else {
+      var bytes = value.getBytes(StandardCharsets.UTF_8);
+      update(bytes.length);
+      digest.update(bytes);
+    }
+  }
+
+  private void update(int value) {
+    ByteBuffer.wrap(intBuffer).putInt(value);
+    digest.update(intBuffer);
+  }
+
+}
@@ -229,4 +229,49 @@ class CxxBullseyeCoverageSensorTest {
     assertThat(context.lineHits("ProjectKey:root/folder/test.cpp", 3)).isEqualTo(1);
   }
 
+  @Test
+  void shouldReportSameCoverageWithThreads() {
+    var sequential = executeSensor(1);
+    var parallel = executeSensor(2);
+
+    assertThat(parallel.lineHits("ProjectKey:main.cpp", 7)).isEqualTo(1);
+    assertThat(parallel.conditions("ProjectKey:randomfoldernamethatihopeknowmachinehas/test/test.c", 7))
+      .isEqualTo(2);
+    for (var inputFile : sequential.fileSystem().inputFiles()) {
+      var key = inputFile.key();
+      for (int line = 1; line <= inputFile.lines(); line++) {
+        assertThat(parallel.lineHits(key, line)).isEqualTo(sequential.lineHits(key, line));
+        assertThat(parallel.conditions(key, line)).isEqualTo(sequential.conditions(key, line));
+        assertThat(parallel.coveredConditions(key, line)).isEqualTo(sequential.coveredConditions(key, line));
+      }
+    }
+  }
+
+  private SensorContextTester executeSensor(int threads) {
+    var context = SensorContextTester.create(fs.baseDir());
+
+    settings.setProperty(
+      CxxCoverageBullseyeSensor.REPORT_PATH_KEY,
+      "coverage-reports/bullseye/coverage-result-bullseye.xml,"
+        + "coverage-reports/bullseye/bullseye-coverage-report-data-in-root-node-win.xml"
+    );
+    settings.setProperty(CxxReportSensor.REPORT_THREADS_KEY, threads);
+    context.setSettings(settings);
+
+    context.fileSystem().add(createTestInputFile("main.cpp", 32));
+    context.fileSystem().add(createTestInputFile("source_1.cpp", 52));
+    context.fileSystem().add(createTestInputFile("src/testclass.h", 32));
+    context.fileSystem().add(createTestInputFile("src/testclass.cpp", 52));
+    context.fileSystem().add(createTestInputFile("testclass.h", 32));
+    context.fileSystem().add(createTestInputFile("testclass.cpp", 62));
+    context.fileSystem().add(createTestInputFile("randomfoldernamethatihopeknowmachinehas/anotherincludeattop.h", 32));
+    context.fileSystem().add(createTestInputFile("randomfoldernamethatihopeknowmachinehas/test/test.c", 32));
+    context.fileSystem().add(createTestInputFile("randomfoldernamethatihopeknowmachinehas/test2/test2.c", 32));
+    context.fileSystem().add(createTestInputFile("randomfoldernamethatihopeknowmachinehas/main.c", 32));
+
+    var sensor = new CxxCoverageBullseyeSensor();
+    sensor.execute(context);
+    return context;
+  }
+
 }
@@ -57,6 +57,22 @@ class CxxCppCheckSensorTest {
     assertThat(context.allIssues()).hasSize(7);
   }
 
+  @Test
+  void shouldReportCorrectViolationsWithThreads() {
+    var context = SensorContextTester.create(fs.baseDir());
+    settings.setProperty(CxxCppCheckSensor.REPORT_PATH_KEY, "cppcheck-reports/cppcheck-result-*.xml");
+    settings.setProperty(CxxReportSensor.REPORT_THREADS_KEY, 2);
+    context.setSettings(settings);
+
+    context.fileSystem().add(createTestInputFile("sources/utils/code_chunks.cpp", 3));
+    context.fileSystem().add(createTestInputFile("sources/utils/utils.cpp", 3));
+
+    var sensor = new CxxCppCheckSensor().setWebApi(null);
+    sensor.execute(context);
+
+    assertThat(context.allIssues()).hasSize(7);
+  }
+
   @Test
   void shouldReportProjectLevelViolationsV2() {
     var context = SensorContextTester.create(fs.baseDir());
@@ -116,6 +132,21 @@ class CxxCppCheckSensorTest {
     assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
   }
 
+  @Test
+  void shouldThrowExceptionWhenRecoveryIsDisabledWithThreads() {
+    var context = SensorContextTester.create(fs.baseDir());
+    settings.setProperty(CxxReportSensor.ERROR_RECOVERY_KEY, false);
+    settings.setProperty(CxxReportSensor.REPORT_THREADS_KEY, 2);
+    settings.setProperty(CxxCppCheckSensor.REPORT_PATH_KEY, "cppcheck-reports/cppcheck-result-*.xml");
+    context.setSettings(settings);
+
+    var sensor = new CxxCppCheckSensor().setWebApi(null);
+    IllegalStateException thrown = catchThrowableOfType(IllegalStateException.class, () -> {
+      sensor.execute(context);
+    });
+    assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
+  }
+
   @Test
   void sensorDescriptor() {
     var descriptor = new DefaultSensorDescriptor();
@@ -0,0 +1,71 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.sensors.utils;
+
+import static org.assertj.core.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.sonar.cxx.utils.CxxReportIssue;
+
+class IssueFingerprintsTest {
+
+  @Test
+  void addEqualIssues() {
+    var fingerprints = new IssueFingerprints();
+
+    assertThat(fingerprints.add(new CxxReportIssue("rule", "file.cpp", "1", null, "message"))).isTrue();
+    assertThat(fingerprints.add(new CxxReportIssue("rule", "file.cpp", "1", null, "message"))).isFalse();
+    assertThat(fingerprints.size()).isEqualTo(1);
+  }
+
+  @Test
+  void addDifferentIssues() {
+    var fingerprints = new IssueFingerprints();
+
+    assertThat(fingerprints.add(new CxxReportIssue("rule", "file.cpp", "1", null, "message"))).isTrue();
+    assertThat(fingerprints.add(new CxxReportIssue("other", "file.cpp", "1", null, "message"))).isTrue();
+    assertThat(fingerprints.add(new CxxReportIssue("rule", "file.cpp", "2", null, "message"))).isTrue();
+    assertThat(fingerprints.add(new CxxReportIssue("rule", "file.cpp", null, "1", "message"))).isTrue();
+    assertThat(fingerprints.add(new CxxReportIssue("rule", "file.cpp", "1", null, "other message"))).isTrue();
+    assertThat(fingerprints.add(new CxxReportIssue("rule", null, null, null, "message"))).isTrue();
+
+    var withFlow = new CxxReportIssue("rule", "file.cpp", "1", null, "message");
+    withFlow.addFlowElement("file.cpp", "2", null, "flow");
+    assertThat(fingerprints.add(withFlow)).isTrue();
+
+    var withAlias = new CxxReportIssue("rule", "file.cpp", "1", null, "message");
+    withAlias.addAliasRuleId("alias");
+    assertThat(fingerprints.add(withAlias)).isTrue();
+
+    assertThat(fingerprints.size()).isEqualTo(8);
+  }
+
+  @Test
+  void addManyIssues() {
+    var fingerprints = new IssueFingerprints();
+    for (var i = 0; i < 10_000; i++) {
+      assertThat(fingerprints.add(new CxxReportIssue("rule", "file" + i + ".cpp", "1", null, "message"))).isTrue();
+    }
+    for (var i = 0; i < 10_000; i++) {
+      assertThat(fingerprints.add(new CxxReportIssue("rule", "file" + i + ".cpp", "1", null, "message"))).isFalse();
+    }
+    assertThat(fingerprints.size()).isEqualTo(10_000);
+  }
+
+}
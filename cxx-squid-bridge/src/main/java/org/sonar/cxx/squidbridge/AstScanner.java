@@ -34,15 +34,24 @@ import com.sonar.cxx.sslr.impl.Parser;
 import com.sonar.cxx.sslr.impl.ast.AstWalker;
 import java.io.File;
 import java.io.InterruptedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.cxx.squidbridge.api.AnalysisException;
+import org.sonar.cxx.squidbridge.api.SourceCode;
 import org.sonar.cxx.squidbridge.api.SourceCodeSearchEngine;
 import org.sonar.cxx.squidbridge.api.SourceCodeTreeDecorator;
+import org.sonar.cxx.squidbridge.api.SourceFile;
 import org.sonar.cxx.squidbridge.api.SourceProject;
 import org.sonar.cxx.squidbridge.indexer.SquidIndex;
 import org.sonar.cxx.squidbridge.measures.MetricDef;
@@ -59,6 +68,7 @@ public class AstScanner<G extends Grammar> {
   private final SquidIndex indexer = new SquidIndex();
   private final MetricDef[] metrics;
   private final MetricDef filesMetric;
+  private Consumer<SourceFile> fileScannedCallback = null;
 
   protected AstScanner(Builder<G> builder) {
     this.visitors = Lists.newArrayList(builder.visitors);
@@ -77,6 +87,20 @@ public class AstScanner<G extends Grammar> {
     return indexer;
   }
 
+  /**
+   * Set a callback which is called for each file after all visitors have left the file.
+   *
+   * The callback can e.g. persist the results of a file immediately and release them afterwards, so that the results
+   * of all files must not be kept in memory until the end of the scan. With parallel scanning the callback is called
+   * from several threads, but never concurrently. The source file is already decorated with the metrics of its
+   * children (e.g. functions) when the callback is called.
+   *
+   * @param callback called with the source file of the scanned file, null to remove the callback
+   */
+  public void setFileScannedCallback(@Nullable Consumer<SourceFile> callback) {
+    this.fileScannedCallback = callback;
+  }
+
   public void scanFile(File file) {
     scanFiles(java.util.List.of(file));
   }
@@ -93,6 +117,7 @@ public class AstScanner<G extends Grammar> {
     for (var file : files) {
       checkCancel();
       context.setFile(file, filesMetric);
+      var sourceFile = (SourceFile) context.peekSourceCode();
 
       Exception parseException = null;
       AstNode ast = null;
@@ -106,6 +131,7 @@ public class AstScanner<G extends Grammar> {
       } catch (Throwable e) {
         throw new AnalysisException(UNABLE_TO_PARSE + file.getAbsolutePath(), e);
       }
+      fileScanned(sourceFile);
     }
 
     destroyVisitors();
@@ -118,28 +144,148 @@ public class AstScanner<G extends Grammar> {
     var astWalker = new AstWalker(visitors);
 
     for (var inputFile : inputFiles) {
-      var file = new File(inputFile.uri().getPath());
-      checkCancel();
-      context.setInputFile(inputFile, filesMetric);
+      scanInputFile(astWalker, inputFile);
+    }
 
-      Exception parseException = null;
-      AstNode ast = null;
-      try {
-        try {
-          ast = parser.parse(inputFile.contents());
-        } catch (Exception e) {
-          parseException = handleParseException(file, e);
+    destroyVisitors();
+    decorateSquidTree();
+  }
+
+  /**
+   * Scan input files with several threads.
+   *
+   * Each thread uses its own worker scanner (with its own context, parser and visitors) created by the worker factory.
+   * The worker factory is called on the calling thread only. After all files are scanned, the source code trees of the
+   * workers are merged into the project of this scanner and decorated. Because the source code tree and the index are
+   * sorted by key, the result does not depend on the order in which the files have been processed.
+   *
+   * @param inputFiles files to scan
+   * @param threads number of threads to use, with {@code threads <= 1} the files are scanned sequentially
+   * @param workerFactory creates a new independent scanner for each thread
+   */
+  public void scanInputFiles(Iterable<InputFile> inputFiles, int threads, Supplier<AstScanner<G>> workerFactory) {
+    if (threads <= 1) {
+      scanInputFiles(inputFiles);
+      return;
+    }
+
+    var files = Lists.newArrayList(inputFiles);
+    int workerCount = Math.min(threads, Math.max(files.size(), 1));
+    var workers = new ArrayList<AstScanner<G>>(workerCount);
+    for (var i = 0; i < workerCount; i++) {
+      workers.add(workerFactory.get());
+    }
+    LOG.debug("Scanning {} files with {} threads", files.size(), workerCount);
+
+    if (fileScannedCallback != null) {
+      var callback = fileScannedCallback;
+      Consumer<SourceFile> synchronizedCallback = sourceFile -> {
+        synchronized (callback) {
+          callback.accept(sourceFile);
         }
-        walkAndVisit(astWalker, ast, parseException);
-      } catch (Throwable e) {
-        throw new AnalysisException(UNABLE_TO_PARSE + file.getAbsolutePath(), e);
+      };
+      for (var worker : workers) {
+        worker.setFileScannedCallback(synchronizedCallback);
       }
     }
 
-    destroyVisitors();
+    var next = new AtomicInteger();
+    var executor = Executors.newFixedThreadPool(workerCount);
+    try {
+      var futures = new ArrayList<Future<?>>(workerCount);
+      for (var worker : workers) {
+        futures.add(executor.submit(() -> worker.scanInputFiles(files, next)));
+      }
+      for (var future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new AnalysisException(e.getCause().getMessage(), e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (var worker : workers) {
+      mergeSourceCode(worker.context.getProject());
+    }
     decorateSquidTree();
   }
 
+  /**
+   * Worker loop: scans files from the shared list until all files are taken.
+   */
+  private void scanInputFiles(List<InputFile> inputFiles, AtomicInteger next) {
+    initVisitors();
+
+    var astWalker = new AstWalker(visitors);
+
+    int index;
+    while ((index = next.getAndIncrement()) < inputFiles.size()) {
+      scanInputFile(astWalker, inputFiles.get(index));
+    }
+
+    destroyVisitors();
+  }
+
+  private void scanInputFile(AstWalker astWalker, InputFile inputFile) {
+    var file = new File(inputFile.uri().getPath());
+    checkCancel();
+    context.setInputFile(inputFile, filesMetric);
+    var sourceFile = (SourceFile) context.peekSourceCode();
+
+    Exception parseException = null;
+    AstNode ast = null;
+    try {
+      try {
+        // the parser and the visitors share the content of the file
+        ast = parser.parse(context.getInputFileContent());
+      } catch (Exception e) {
+        parseException = handleParseException(file, e);
+      }
+      walkAndVisit(astWalker, ast, parseException);
+    } catch (Throwable e) {
+      throw new AnalysisException(UNABLE_TO_PARSE + file.getAbsolutePath(), e);
+    }
+    fileScanned(sourceFile);
+  }
+
+  private void fileScanned(SourceFile sourceFile) {
+    if (fileScannedCallback != null) {
+      // file must be complete for the callback: decorate it now and the project only at the end of the scan
+      if (metrics != null && metrics.length > 0) {
+        SourceCodeTreeDecorator.decorateWith(sourceFile, metrics);
+      }
+      fileScannedCallback.accept(sourceFile);
+    }
+  }
+
+  /**
+   * Move the children of a worker project into the project of this scanner and add them (and all their descendants)
+   * to the index of this scanner.
+   */
+  private void mergeSourceCode(SourceProject workerProject) {
+    if (workerProject.hasChildren()) {
+      var project = context.getProject();
+      for (var child : workerProject.getChildren()) {
+        project.addChild(child);
+        indexDescendants(child);
+      }
+    }
+  }
+
+  private void indexDescendants(SourceCode sourceCode) {
+    if (sourceCode.hasChildren()) {
+      for (var child : sourceCode.getChildren()) {
+        indexer.index(child);
+        indexDescendants(child);
+      }
+    }
+  }
+
   private static Exception handleParseException(File file, Exception e) {
     checkInterrupted(e);
     if (e instanceof RecognitionException) {
@@ -172,6 +318,7 @@ public class AstScanner<G extends Grammar> {
         visitor.leaveFile(ast);
       }
     }
+    context.releaseFileContent();
     context.popTillSourceProject();
   }
 
@@ -208,7 +355,11 @@ public class AstScanner<G extends Grammar> {
     if (metrics != null && metrics.length > 0) {
       SourceProject project = context.getProject();
       var decorator = new SourceCodeTreeDecorator(project);
-      decorator.decorateWith(metrics);
+      if (fileScannedCallback != null) {
+        decorator.decorateProjectWith(metrics);
+      } else {
+        decorator.decorateWith(metrics);
+      }
     }
   }
 
@@ -0,0 +1,142 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import java.nio.CharBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Decoded content of a file with an index of the line starts.
+ *
+ * Lines are separated by CR LF, LF or CR. The lines are returned as views of the content without the line separators,
+ * so the checks of a file can share one instance without creating a string for each line.
+ */
+public final class FileContent {
+
+  private final String text;
+  private final int[] lineStarts;
+  private final int lineCount;
+
+  public FileContent(String text) {
+    this.text = text;
+    var starts = new int[Math.max(16, text.length() / 32)];
+    int count = 1;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+        i++;
+      } else if (c != '\r' && c != '\n') {
+        continue;
+      }
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count * 2);
+      }
+      starts[count++] = i + 1;
+    }
+    this.lineStarts = starts;
+    this.lineCount = count;
+  }
+
+  /**
+   * Content of the file.
+   */
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * Number of lines, a line separator at the end of the file is followed by an empty line.
+   */
+  public int getLineCount() {
+    return lineCount;
+  }
+
+  /**
+   * Offset of the first character of a line in the content.
+   *
+   * @param line line number (starting with 1)
+   * @return offset in the content
+   */
+  public int getLineStart(int line) {
+    checkLine(line);
+    return lineStarts[line - 1];
+  }
+
+  /**
+   * Offset after the last character of a line (without line separator) in the content.
+   *
+   * @param line line number (starting with 1)
+   * @return offset in the content
+   */
+  public int getLineEnd(int line) {
+    checkLine(line);
+    if (line == lineCount) {
+      return text.length();
+    }
+    int end = lineStarts[line] - 1;
+    if (text.charAt(end) == '\n' && end > lineStarts[line - 1] && text.charAt(end - 1) == '\r') {
+      end--;
+    }
+    return end;
+  }
+
+  /**
+   * Line without line separator.
+   *
+   * @param line line number (starting with 1)
+   * @return view of the line in the content
+   */
+  public CharSequence getLine(int line) {
+    return CharBuffer.wrap(text, getLineStart(line), getLineEnd(line));
+  }
+
+  /**
+   * All lines without line separators, the first element is line 1.
+   *
+   * @return views of the lines in the content
+   */
+  public List<CharSequence> getLines() {
+    return new Lines();
+  }
+
+  private void checkLine(int line) {
+    if (line < 1 || line > lineCount) {
+      throw new IndexOutOfBoundsException("Line " + line + " is out of range 1.." + lineCount);
+    }
+  }
+
+  private final class Lines extends AbstractList<CharSequence> implements RandomAccess {
+
+    @Override
+    public CharSequence get(int index) {
+      return getLine(index + 1);
+    }
+
+    @Override
+    public int size() {
+      return lineCount;
+    }
+
+  }
+
+}
@@ -42,6 +42,7 @@ import org.sonar.cxx.squidbridge.api.CodeVisitor;
 public abstract class SquidAstVisitor<G extends Grammar> implements CodeVisitor, AstVisitor {
 
   private final List<AstNodeType> astNodeTypesToVisit = new ArrayList<>();
+  private final List<String> astNodeNamesToVisit = new ArrayList<>();
   private SquidAstVisitorContext<G> context = null;
 
   /**
@@ -78,6 +79,22 @@ public abstract class SquidAstVisitor<G extends Grammar> implements CodeVisitor,
     astNodeTypesToVisit.addAll(Arrays.asList(astNodeTypes));
   }
 
+  /**
+   * This method can't be overridden. The method subscribeToNames(String... astNodeNames) must be used to while
+   * overriding the public void init() method.
+   */
+  @Override
+  public List<String> getAstNodeNamesToVisit() {
+    return new ArrayList<>(astNodeNamesToVisit);
+  }
+
+  /**
+   * This method must called into the init() method when an AST visitor wants to subscribe to a set of AST node names.
+   */
+  public void subscribeToNames(String... astNodeNames) {
+    astNodeNamesToVisit.addAll(Arrays.asList(astNodeNames));
+  }
+
   /**
    * Initialize the visitor. This is the time to verify that the visitor has everything required to perform it job. This
    * method is called
@@ -28,7 +28,10 @@ import com.sonar.cxx.sslr.api.Grammar;
 import com.sonar.cxx.sslr.api.Token;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import javax.annotation.CheckForNull;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.cxx.squidbridge.api.AstNodeSymbolExtension;
@@ -44,6 +47,7 @@ public abstract class SquidAstVisitorContext<G extends Grammar> {
   private SymbolTable symbolTable;
   private AstNode rootTree;
   private List<PreciseIssue> issues = new ArrayList<>();
+  private final Map<Class<?>, Object> sharedObjects = new HashMap<>();
 
   public abstract File getFile();
 
@@ -53,6 +57,15 @@ public abstract class SquidAstVisitorContext<G extends Grammar> {
 
   public abstract List<String> getInputFileLines();
 
+  /**
+   * Content of the current file with an index of the lines.
+   *
+   * @return content of the current file
+   */
+  public FileContent getFileContent() {
+    return new FileContent(getInputFileContent());
+  }
+
   public abstract G getGrammar();
 
   public abstract void addSourceCode(SourceCode child);
@@ -197,4 +210,17 @@ public abstract class SquidAstVisitorContext<G extends Grammar> {
     return issues;
   }
 
+  /**
+   * Get an object shared by the visitors of this context.
+   *
+   * <p>The object is created on the first call and lives as long as the context.
+   *
+   * @param type type of the object, used as key
+   * @param factory creates the object on the first call
+   * @return the shared object of this type
+   */
+  public <T> T getSharedObject(Class<T> type, Supplier<T> factory) {
+    return type.cast(sharedObjects.computeIfAbsent(type, k -> factory.get()));
+  }
+
 }
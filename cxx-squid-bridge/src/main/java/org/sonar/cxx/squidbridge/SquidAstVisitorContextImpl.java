@@ -29,7 +29,7 @@ import com.sonar.cxx.sslr.api.Token;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayDeque;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 import javax.annotation.Nullable;
@@ -47,6 +47,7 @@ public class SquidAstVisitorContextImpl<G extends Grammar> extends SquidAstVisit
   private G grammar;
   private File file;
   private InputFile inputFile;
+  private FileContent fileContent;
   private final SourceProject project;
   private CommentAnalyser commentAnalyser;
 
@@ -103,6 +104,7 @@ public class SquidAstVisitorContextImpl<G extends Grammar> extends SquidAstVisit
   public void setFile(File file, MetricDef filesMetric) {
     popTillSourceProject();
     this.file = file;
+    this.fileContent = null;
     var sourceFile = new SourceFile(file.getAbsolutePath(), file.getName());
     addSourceCode(sourceFile);
     peekSourceCode().setMeasure(filesMetric, 1);
@@ -113,6 +115,13 @@ public class SquidAstVisitorContextImpl<G extends Grammar> extends SquidAstVisit
     setFile(new File(inputFile.uri().getPath()), filesMetric);
   }
 
+  /**
+   * Release the content of the current file, called after all visitors have left the file.
+   */
+  public void releaseFileContent() {
+    fileContent = null;
+  }
+
   protected void popTillSourceProject() {
     while (!(peekSourceCode() instanceof SourceProject)) {
       popSourceCode();
@@ -140,11 +149,7 @@ public class SquidAstVisitorContextImpl<G extends Grammar> extends SquidAstVisit
    */
   @Override
   public String getInputFileContent() {
-    try {
-      return inputFile.contents();
-    } catch (IOException e) {
-      throw new IllegalStateException(e);
-    }
+    return getFileContent().getText();
   }
 
   /**
@@ -152,7 +157,29 @@ public class SquidAstVisitorContextImpl<G extends Grammar> extends SquidAstVisit
    */
   @Override
   public List<String> getInputFileLines() {
-    return Arrays.asList(getInputFileContent().split("(?:\r)?\n|\r", -1));
+    var lines = getFileContent().getLines();
+    var result = new ArrayList<String>(lines.size());
+    for (var line : lines) {
+      result.add(line.toString());
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * The content is read once per file and shared by all visitors.
+   */
+  @Override
+  public FileContent getFileContent() {
+    if (fileContent == null) {
+      try {
+        fileContent = new FileContent(inputFile.contents());
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return fileContent;
   }
 
   public SourceProject getProject() {
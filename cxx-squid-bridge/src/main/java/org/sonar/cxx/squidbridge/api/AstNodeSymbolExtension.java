@@ -20,6 +20,8 @@
 package org.sonar.cxx.squidbridge.api;
 
 import com.sonar.cxx.sslr.api.AstNode;
+import java.util.Collections;
+import java.util.Map;
 import java.util.WeakHashMap;
 import javax.annotation.CheckForNull;
 
@@ -30,12 +32,12 @@ import javax.annotation.CheckForNull;
  * this class provides a way to attach Symbol information to AstNode instances
  * without modifying the AstNode class itself.
  *
- * <p>The symbol mapping is stored using WeakHashMap to prevent memory leaks
+ * <p>The symbol mapping is stored using a synchronized WeakHashMap to prevent memory leaks
  * when AstNodes are garbage collected.
  */
 public final class AstNodeSymbolExtension {
 
-  private static final WeakHashMap<AstNode, Symbol> SYMBOL_MAP = new WeakHashMap<>();
+  private static final Map<AstNode, Symbol> SYMBOL_MAP = Collections.synchronizedMap(new WeakHashMap<>());
 
   private AstNodeSymbolExtension() {
   }
@@ -20,6 +20,8 @@
 package org.sonar.cxx.squidbridge.api;
 
 import com.sonar.cxx.sslr.api.AstNode;
+import java.util.Collections;
+import java.util.Map;
 import java.util.WeakHashMap;
 import javax.annotation.CheckForNull;
 
@@ -30,7 +32,7 @@ import javax.annotation.CheckForNull;
  * this class provides a way to attach type information to AstNode instances
  * without modifying the AstNode class itself.
  *
- * <p>The type mapping is stored using WeakHashMap to prevent memory leaks
+ * <p>The type mapping is stored using a synchronized WeakHashMap to prevent memory leaks
  * when AstNodes are garbage collected.
  *
  * <p>Usage example:
@@ -47,7 +49,7 @@ import javax.annotation.CheckForNull;
  */
 public final class AstNodeTypeExtension {
 
-  private static final WeakHashMap<AstNode, Type> TYPE_MAP = new WeakHashMap<>();
+  private static final Map<AstNode, Type> TYPE_MAP = Collections.synchronizedMap(new WeakHashMap<>());
 
   private AstNodeTypeExtension() {
   }
@@ -52,12 +52,31 @@ public class SourceCodeTreeDecorator {
     decorateWith(project, metrics);
   }
 
-  private static void decorateWith(SourceCode sourceCode, MetricDef... metrics) {
+  /**
+   * Add the given metric definition only to the SourceProject node, the descendants must already be decorated.
+   *
+   * @param metrics metric definition to add
+   */
+  public void decorateProjectWith(MetricDef... metrics) {
+    aggregateChildren(project, metrics);
+  }
+
+  /**
+   * Add the given metric definition to the given node and all its descendants in the SourceCode tree.
+   *
+   * @param sourceCode node of the SourceCode tree, e.g. a SourceFile
+   * @param metrics metric definition to add
+   */
+  public static void decorateWith(SourceCode sourceCode, MetricDef... metrics) {
     if (sourceCode.hasChildren()) {
       for (var child : sourceCode.getChildren()) {
         decorateWith(child, metrics);
       }
     }
+    aggregateChildren(sourceCode, metrics);
+  }
+
+  private static void aggregateChildren(SourceCode sourceCode, MetricDef... metrics) {
     for (var metric : metrics) {
       if (!metric.aggregateIfThereIsAlreadyAValue() && Double.doubleToRawLongBits(sourceCode.getDouble(metric)) != 0) {
         continue;
@@ -29,6 +29,7 @@ import com.sonar.cxx.sslr.api.AstAndTokenVisitor;
 import com.sonar.cxx.sslr.api.Grammar;
 import com.sonar.cxx.sslr.api.Token;
 import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
 
 public abstract class AbstractCommentRegularExpressionCheck<G extends Grammar> extends SquidCheck<G> implements
   AstAndTokenVisitor {
@@ -55,6 +56,14 @@ public abstract class AbstractCommentRegularExpressionCheck<G extends Grammar> e
     }
   }
 
+  /**
+   * Compiled regular expression, null if no regular expression is configured.
+   */
+  @CheckForNull
+  protected Pattern getPattern() {
+    return pattern;
+  }
+
   @Override
   public void visitToken(Token token) {
     if (pattern != null) {
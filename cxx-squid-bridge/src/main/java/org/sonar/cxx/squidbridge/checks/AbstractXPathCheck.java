@@ -26,6 +26,7 @@ package org.sonar.cxx.squidbridge.checks; // cxx: in use
 import com.google.common.base.Strings;
 import com.sonar.cxx.sslr.api.AstNode;
 import com.sonar.cxx.sslr.api.Grammar;
+import com.sonar.cxx.sslr.xpath.api.AstNodeXPathMatcher;
 import com.sonar.cxx.sslr.xpath.api.AstNodeXPathQuery;
 import java.util.List;
 import javax.annotation.Nullable;
@@ -33,6 +34,8 @@ import javax.annotation.Nullable;
 public abstract class AbstractXPathCheck<G extends Grammar> extends SquidCheck<G> {
 
   private AstNodeXPathQuery<Object> query = null;
+  private AstNodeXPathMatcher matcher = null;
+  private boolean fileAccepted = false;
 
   // See SONAR-3164
   public abstract String getXPathQuery();
@@ -40,10 +43,25 @@ public abstract class AbstractXPathCheck<G extends Grammar> extends SquidCheck<G
   // See SONAR-3164
   public abstract String getMessage();
 
+  /**
+   * Filter for the files to check, called for each file before the query is evaluated.
+   *
+   * @return true if the query should be evaluated for the current file
+   */
+  protected boolean acceptFile() {
+    return true;
+  }
+
   @Override
   public void init() {
     String xpath = getXPathQuery();
     if (!Strings.isNullOrEmpty(xpath)) {
+      // common location paths are evaluated for the visited nodes in the single walk over the tree
+      matcher = AstNodeXPathMatcher.create(xpath);
+      if (matcher != null) {
+        subscribeToNames(matcher.getNodeName());
+        return;
+      }
       try {
         query = AstNodeXPathQuery.create(getXPathQuery());
       } catch (RuntimeException e) {
@@ -55,7 +73,8 @@ public abstract class AbstractXPathCheck<G extends Grammar> extends SquidCheck<G
 
   @Override
   public void visitFile(@Nullable AstNode fileNode) {
-    if (query != null && fileNode != null) {
+    fileAccepted = fileNode != null && (query != null || matcher != null) && acceptFile();
+    if (fileAccepted && query != null) {
       List<Object> objects = query.selectNodes(fileNode);
 
       for (var object : objects) {
@@ -68,4 +87,11 @@ public abstract class AbstractXPathCheck<G extends Grammar> extends SquidCheck<G
     }
   }
 
+  @Override
+  public void visitNode(AstNode astNode) {
+    if (fileAccepted && matcher != null && matcher.matches(astNode)) {
+      getContext().createLineViolation(this, getMessage(), astNode.getTokenLine());
+    }
+  }
+
 }
@@ -0,0 +1,61 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge.indexer;
+
+import java.util.Objects;
+import org.sonar.cxx.squidbridge.api.Query;
+import org.sonar.cxx.squidbridge.api.SourceCode;
+
+/**
+ * Query for the direct children of a SourceCode object.
+ */
+public class QueryByParent implements Query {
+
+  private final SourceCode parent;
+
+  public QueryByParent(SourceCode parent) {
+    this.parent = Objects.requireNonNull(parent, "The parent can't be null !");
+  }
+
+  public SourceCode getParent() {
+    return parent;
+  }
+
+  @Override
+  public boolean match(SourceCode unit) {
+    return unit.getParent() == parent;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || obj.getClass() != getClass()) {
+      return false;
+    }
+    return parent.equals(((QueryByParent) obj).parent);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(parent);
+  }
+}
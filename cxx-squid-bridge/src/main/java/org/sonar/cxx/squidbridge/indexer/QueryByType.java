@@ -39,6 +39,10 @@ public class QueryByType implements Query {
     this.resourceType = resourceType;
   }
 
+  public Class<? extends SourceCode> getResourceType() {
+    return resourceType;
+  }
+
   @Override
   public boolean match(SourceCode unit) {
     return unit.isType(resourceType);
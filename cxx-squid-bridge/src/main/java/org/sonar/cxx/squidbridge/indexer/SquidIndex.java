@@ -23,29 +23,67 @@
  */
 package org.sonar.cxx.squidbridge.indexer;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import org.sonar.cxx.squidbridge.api.Query;
 import org.sonar.cxx.squidbridge.api.SourceCode;
 import org.sonar.cxx.squidbridge.api.SourceCodeIndexer;
 import org.sonar.cxx.squidbridge.api.SourceCodeSearchEngine;
 
+/**
+ * Index of all SourceCode objects of a source code tree.
+ *
+ * Besides the lookup by key, the objects are indexed by their type. Searches with a {@link QueryByType} or a
+ * {@link QueryByParent} therefore only evaluate the candidates of this type or the children of this parent instead of
+ * all objects of the tree. The results are sorted by key, so they do not depend on the order in which the objects have
+ * been indexed.
+ */
 public class SquidIndex implements SourceCodeIndexer, SourceCodeSearchEngine {
 
-  private final Map<String, SourceCode> index = new TreeMap<>();
+  private final Map<String, SourceCode> index = new HashMap<>();
+  private final Map<Class<? extends SourceCode>, SortedSet<SourceCode>> indexByType = new HashMap<>();
 
+  /**
+   * {@inheritDoc}
+   *
+   * The result is an unmodifiable snapshot: changes of the index after the search are not visible in the result.
+   */
   @Override
   public Collection<SourceCode> search(Query... query) {
-    Set<SourceCode> result = new HashSet<>();
-    for (var unit : index.values()) {
-      if (isSquidUnitMatchQueries(unit, query)) {
+    // use the smallest set of candidates supported by the indexes
+    Collection<SourceCode> candidates = index.values();
+    for (var item : query) {
+      Collection<SourceCode> indexed = null;
+      if (item instanceof QueryByType queryByType) {
+        indexed = indexByType.getOrDefault(queryByType.getResourceType(), Collections.emptySortedSet());
+      } else if (item instanceof QueryByParent queryByParent) {
+        var parent = queryByParent.getParent();
+        indexed = parent.hasChildren() ? parent.getChildren() : Collections.emptySortedSet();
+      }
+      if (indexed != null && indexed.size() < candidates.size()) {
+        candidates = indexed;
+      }
+    }
+    var result = new ArrayList<SourceCode>();
+    for (var unit : candidates) {
+      if (isIndexed(unit) && isSquidUnitMatchQueries(unit, query)) {
         result.add(unit);
       }
     }
-    return result;
+    if (!(candidates instanceof SortedSet)) {
+      // candidates of the key index are not sorted
+      Collections.sort(result);
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  private boolean isIndexed(SourceCode unit) {
+    return index.get(unit.getKey()) == unit;
   }
 
   private static boolean isSquidUnitMatchQueries(SourceCode unit, Query... queries) {
@@ -67,6 +105,13 @@ public class SquidIndex implements SourceCodeIndexer, SourceCodeSearchEngine {
   @Override
   public void index(SourceCode sourceCode) {
     sourceCode.setSourceCodeIndexer(this);
-    index.put(sourceCode.getKey(), sourceCode);
+    var previous = index.put(sourceCode.getKey(), sourceCode);
+    if (previous != null && previous != sourceCode) {
+      var sameType = indexByType.get(previous.getClass());
+      if (sameType != null) {
+        sameType.remove(previous);
+      }
+    }
+    indexByType.computeIfAbsent(sourceCode.getClass(), k -> new TreeSet<>()).add(sourceCode);
   }
 }
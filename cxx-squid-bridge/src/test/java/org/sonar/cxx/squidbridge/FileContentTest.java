@@ -0,0 +1,73 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.squidbridge;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class FileContentTest {
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "a", "a\n", "a\r\nb", "a\rb\n\nc", "\r\n\r\n", "\n\r", "line1\r\nline2\rline3\nline4\r"})
+  void sameLinesAsSplit(String text) {
+    var content = new FileContent(text);
+    var expected = Arrays.asList(text.split("(?:\r)?\n|\r", -1));
+
+    assertThat(content.getText()).isSameAs(text);
+    assertThat(content.getLineCount()).isEqualTo(expected.size());
+    assertThat(content.getLines()).extracting(CharSequence::toString).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void lineOffsets() {
+    var content = new FileContent("ab\r\ncd\nef");
+
+    assertThat(content.getLineStart(1)).isZero();
+    assertThat(content.getLineEnd(1)).isEqualTo(2);
+    assertThat(content.getLineStart(2)).isEqualTo(4);
+    assertThat(content.getLineEnd(2)).isEqualTo(6);
+    assertThat(content.getLineStart(3)).isEqualTo(7);
+    assertThat(content.getLineEnd(3)).isEqualTo(9);
+    assertThat(content.getLine(2)).hasToString("cd");
+  }
+
+  @Test
+  void manyLines() {
+    var text = "x\n".repeat(1000);
+    var content = new FileContent(text);
+
+    assertThat(content.getLineCount()).isEqualTo(1001);
+    assertThat(content.getLine(1000)).hasToString("x");
+    assertThat(content.getLine(1001)).hasToString("");
+  }
+
+  @Test
+  void lineOutOfRange() {
+    var content = new FileContent("a\nb");
+
+    assertThatThrownBy(() -> content.getLine(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThatThrownBy(() -> content.getLine(3)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+}
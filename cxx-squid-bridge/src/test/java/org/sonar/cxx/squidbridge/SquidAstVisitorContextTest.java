@@ -125,6 +125,14 @@ class SquidAstVisitorContextTest {
     assertThat(ctx.getIssues().get(1).getMessage()).isEqualTo("second");
   }
 
+  @Test
+  void testGetSharedObject() {
+    var ctx = new StubContext();
+    var shared = ctx.getSharedObject(StringBuilder.class, StringBuilder::new);
+    assertThat(ctx.getSharedObject(StringBuilder.class, StringBuilder::new)).isSameAs(shared);
+    assertThat(new StubContext().getSharedObject(StringBuilder.class, StringBuilder::new)).isNotSameAs(shared);
+  }
+
   @SuppressWarnings({"deprecation", "java:S1874"})
   static class StubContext extends SquidAstVisitorContext<Grammar> {
     @Override
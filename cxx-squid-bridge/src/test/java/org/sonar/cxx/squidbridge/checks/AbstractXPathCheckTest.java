@@ -86,6 +86,15 @@ class AbstractXPathCheckTest {
       .next().atLine(5);
   }
 
+  @Test
+  void astNodesXpathCheckWithPredicate() {
+    check.xpath = "//VARIABLE_DEFINITION[@tokenLine > 1]";
+    check.message = "No variable definitions allowed!";
+
+    checkMessagesVerifier.verify(scanFile("/checks/xpath.mc", check).getCheckMessages())
+      .next().atLine(5).withMessage("No variable definitions allowed!");
+  }
+
   @Test
   void parseError() {
     check.xpath = "//VARIABLE_DEFINITION";
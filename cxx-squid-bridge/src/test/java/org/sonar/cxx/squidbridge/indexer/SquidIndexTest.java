@@ -71,4 +71,56 @@ class SquidIndexTest {
       .contains(sourceClass);
   }
 
+  @Test
+  void searchByParent() {
+    Collection<SourceCode> resources = indexer.search(new QueryByParent(sourceProject));
+    assertThat(resources).containsOnly(sourceFile1, sourceFile2);
+    resources = indexer.search(new QueryByParent(sourceFile1));
+    assertThat(resources).containsOnly(sourceClass);
+    resources = indexer.search(new QueryByParent(sourceFile2));
+    assertThat(resources).isEmpty();
+  }
+
+  @Test
+  void searchByTypeAndParent() {
+    Collection<SourceCode> resources = indexer.search(new QueryByType(SourceClass.class),
+                                                      new QueryByParent(sourceFile1));
+    assertThat(resources).containsOnly(sourceClass);
+    resources = indexer.search(new QueryByType(SourceFile.class), new QueryByParent(sourceFile1));
+    assertThat(resources).isEmpty();
+  }
+
+  @Test
+  void searchResultIsSortedByKey() {
+    var sourceFile0 = new SourceFile("src/test/FileName0.cpp", "FileName0.cpp");
+    sourceProject.addChild(sourceFile0);
+    var sourceClass0 = new SourceClass("AClassName:LineNo", "AClassName");
+    sourceFile2.addChild(sourceClass0);
+    assertThat(indexer.search(new QueryByType(SourceFile.class)))
+      .containsExactly(sourceFile0, sourceFile1, sourceFile2);
+    assertThat(indexer.search(new QueryByParent(sourceProject)))
+      .containsExactly(sourceFile0, sourceFile1, sourceFile2);
+    assertThat(indexer.search())
+      .containsExactly(sourceClass0, sourceClass, sourceProject, sourceFile0, sourceFile1, sourceFile2);
+  }
+
+  @Test
+  void searchResultIsSnapshot() {
+    Collection<SourceCode> resources = indexer.search(new QueryByType(SourceFile.class));
+    var sourceFile3 = new SourceFile("src/test/FileName3.cpp", "FileName3.cpp");
+    sourceProject.addChild(sourceFile3);
+    assertThat(resources).containsOnly(sourceFile1, sourceFile2);
+    assertThat(indexer.search(new QueryByType(SourceFile.class))).containsOnly(sourceFile1, sourceFile2, sourceFile3);
+    assertThatThrownBy(() -> resources.add(sourceFile3)).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  void reindexReplacesResource() {
+    var other = new SourceClass("src/test/FileName2.cpp", "Other");
+    indexer.index(other);
+    assertThat(indexer.search("src/test/FileName2.cpp")).isSameAs(other);
+    assertThat(indexer.search(new QueryByType(SourceFile.class))).containsOnly(sourceFile1);
+    assertThat(indexer.search(new QueryByType(SourceClass.class))).containsOnly(sourceClass, other);
+  }
+
 }
@@ -22,10 +22,12 @@ package org.sonar.cxx;
 import com.sonar.cxx.sslr.api.AstNode;
 import com.sonar.cxx.sslr.api.Grammar;
 import java.util.Collection;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.cxx.api.CxxMetric;
 import org.sonar.cxx.config.CxxSquidConfiguration;
 import org.sonar.cxx.parser.CxxGrammarImpl;
+import org.sonar.cxx.parser.CxxParseProfiler;
 import org.sonar.cxx.parser.CxxParser;
 import org.sonar.cxx.squidbridge.AstScanner;
 import org.sonar.cxx.squidbridge.CommentAnalyser;
@@ -54,6 +56,7 @@ import org.sonar.cxx.visitors.CxxHighlighterVisitor;
 import org.sonar.cxx.visitors.CxxLinesOfCodeInFunctionBodyVisitor;
 import org.sonar.cxx.visitors.CxxLinesOfCodeVisitor;
 import org.sonar.cxx.visitors.CxxParseErrorLoggerVisitor;
+import org.sonar.cxx.visitors.CxxParseProfilerVisitor;
 import org.sonar.cxx.visitors.CxxPublicApiVisitor;
 
 public final class CxxAstScanner {
@@ -105,10 +108,28 @@ public final class CxxAstScanner {
    */
   @SafeVarargs
   public static AstScanner<Grammar> create(CxxSquidConfiguration squidConfig, SquidAstVisitor<Grammar>... visitors) {
+    return create(squidConfig, null, visitors);
+  }
+
+  /**
+   * Create scanner for language
+   *
+   * @param squidConfig the Squid configuration
+   * @param profiler collects the counters of the parser for each file (null: no profiling)
+   * @param visitors visitors AST checks and visitors to use
+   * @return scanner for the given parameters
+   */
+  @SafeVarargs
+  public static AstScanner<Grammar> create(CxxSquidConfiguration squidConfig, @Nullable CxxParseProfiler profiler,
+    SquidAstVisitor<Grammar>... visitors) {
     var context = new SquidAstVisitorContextImpl<>(new SourceProject("cxx", null));
     var parser = CxxParser.create(context, squidConfig);
     var builder = AstScanner.<Grammar>builder(context).setBaseParser(parser);
 
+    if (profiler != null) {
+      builder.withSquidAstVisitor(new CxxParseProfilerVisitor<>(parser, profiler));
+    }
+
     /* Metrics */
     builder.withMetrics(CxxMetric.values());
 
@@ -38,6 +38,11 @@ public class BackslashChannel extends Channel<Lexer> {
     return lineSplicing != 0;
   }
 
+  @Override
+  public boolean canStartWith(char ch) {
+    return ch == '\\';
+  }
+
   public int read(CodeReader code, StringBuilder sb) {
     var end = ChannelUtils.handleLineSplicing(code, 0);
     code.skip(end); // remove line splicing
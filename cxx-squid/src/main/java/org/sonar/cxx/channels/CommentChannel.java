@@ -71,6 +71,11 @@ public abstract class CommentChannel extends Channel<Lexer> {
     return true;
   }
 
+  @Override
+  public boolean canStartWith(char ch) {
+    return ch == startCommentChar1;
+  }
+
   public int isComment(CodeReader code) {
     int next = 0;
 
@@ -0,0 +1,110 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.channels;
+
+import static com.sonar.cxx.sslr.api.GenericTokenType.IDENTIFIER;
+import com.sonar.cxx.sslr.api.Token;
+import com.sonar.cxx.sslr.api.TokenType;
+import com.sonar.cxx.sslr.impl.Lexer;
+import java.util.HashMap;
+import java.util.Map;
+import org.sonar.cxx.sslr.channel.Channel;
+import org.sonar.cxx.sslr.channel.CodeReader;
+
+/**
+ * C++ Standard, Section 2.11 "Identifiers" and Section 2.12 "Keywords".
+ *
+ * Hand-written replacement of an IdentifierAndKeywordChannel with the regular expression [a-zA-Z_][a-zA-Z_0-9]*
+ * (case sensitive).
+ */
+public class IdentifierChannel extends Channel<Lexer> {
+
+  private static final int MAX_INTERNED_VALUES = 64 * 1024;
+
+  private final Map<String, TokenType> keywordsMap = new HashMap<>();
+  private final Map<String, String> identifiers = new HashMap<>();
+  private final StringBuilder sb = new StringBuilder(256);
+  private final Token.Builder tokenBuilder = Token.builder();
+
+  public IdentifierChannel(TokenType[]... keywordSets) {
+    for (var keywords : keywordSets) {
+      for (var keyword : keywords) {
+        keywordsMap.put(keyword.getValue(), keyword);
+      }
+    }
+  }
+
+  @Override
+  public boolean consume(CodeReader code, Lexer output) {
+    var ch = code.charAt(0);
+    if (!isIdentifierStart(ch)) {
+      return false;
+    }
+
+    int line = code.getLinePosition();
+    int column = code.getColumnPosition();
+    do {
+      sb.append((char) code.pop());
+      ch = code.charAt(0);
+    } while (isIdentifierPart(ch));
+
+    var word = sb.toString();
+    sb.delete(0, sb.length());
+    var keywordType = keywordsMap.get(word);
+    output.addToken(tokenBuilder
+      .setType(keywordType == null ? IDENTIFIER : keywordType)
+      .setValueAndOriginalValue(keywordType == null ? intern(word) : keywordType.getValue())
+      .setURI(output.getURI())
+      .setLine(line)
+      .setColumn(column)
+      .build());
+    return true;
+  }
+
+  /**
+   * Identifiers repeat a lot: share one string instance per value between the tokens (of all files lexed with this
+   * channel). The number of cached values is limited.
+   */
+  private String intern(String word) {
+    var value = identifiers.get(word);
+    if (value == null) {
+      if (identifiers.size() >= MAX_INTERNED_VALUES) {
+        identifiers.clear();
+      }
+      identifiers.put(word, word);
+      value = word;
+    }
+    return value;
+  }
+
+  @Override
+  public boolean canStartWith(char ch) {
+    return isIdentifierStart(ch);
+  }
+
+  static boolean isIdentifierStart(char ch) {
+    return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || ch == '_';
+  }
+
+  static boolean isIdentifierPart(char ch) {
+    return isIdentifierStart(ch) || (ch >= '0' && ch <= '9');
+  }
+
+}
@@ -61,7 +61,7 @@ public class KeywordChannel extends Channel<Lexer> {
       if (keywordType != null) {
         var token = tokenBuilder
           .setType(keywordType)
-          .setValueAndOriginalValue(potentialKeyword)
+          .setValueAndOriginalValue(keywordType.getValue())
           .setURI(lexer.getURI())
           .setLine(code.getPreviousCursor().getLine())
           .setColumn(code.getPreviousCursor().getColumn())
@@ -91,4 +91,9 @@ public class KeywordChannel extends Channel<Lexer> {
     return false;
   }
 
+  @Override
+  public boolean canStartWith(char ch) {
+    return canStartWith(matcher.pattern(), ch);
+  }
+
 }
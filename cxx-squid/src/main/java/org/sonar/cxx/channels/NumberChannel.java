@@ -0,0 +1,194 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.channels;
+
+import com.sonar.cxx.sslr.api.Token;
+import com.sonar.cxx.sslr.api.TokenType;
+import com.sonar.cxx.sslr.impl.Lexer;
+import org.sonar.cxx.sslr.channel.Channel;
+import org.sonar.cxx.sslr.channel.CodeReader;
+
+/**
+ * C++ Standard, Section 2.14.2 "Integer literals" and Section 2.14.4 "Floating literals".
+ *
+ * Hand-written replacement of the regular expression
+ * <pre>
+ * ( \.DEC(EXP)? | 0[xX](HEX)?\.?(HEX)?(BINEXP)? | 0[bB]BIN | DEC\.?(DEC)?(EXP)? ) (UD_SUFFIX)?
+ * </pre>
+ * with digit sequences containing optional digit separators (').
+ */
+public class NumberChannel extends Channel<Lexer> {
+
+  private static final int DEC = 10;
+  private static final int HEX = 16;
+  private static final int BIN = 2;
+
+  private final TokenType type;
+  private final StringBuilder sb = new StringBuilder(256);
+  private final Token.Builder tokenBuilder = Token.builder();
+
+  public NumberChannel(TokenType type) {
+    this.type = type;
+  }
+
+  @Override
+  public boolean consume(CodeReader code, Lexer output) {
+    int end = read(code);
+    if (end <= 0) {
+      return false;
+    }
+
+    int line = code.getLinePosition();
+    int column = code.getColumnPosition();
+    for (var i = 0; i < end; i++) {
+      sb.append((char) code.pop());
+    }
+    output.addToken(tokenBuilder
+      .setType(type)
+      .setValueAndOriginalValue(sb.toString())
+      .setURI(output.getURI())
+      .setLine(line)
+      .setColumn(column)
+      .build());
+    sb.delete(0, sb.length());
+    return true;
+  }
+
+  @Override
+  public boolean canStartWith(char ch) {
+    return ch == '.' || isDigit(ch);
+  }
+
+  /**
+   * Length of the number at the current position, 0 if there is no number.
+   */
+  private static int read(CodeReader code) {
+    int index;
+    var ch = code.charAt(0);
+    if (ch == '.') {
+      index = readDigits(code, 1, DEC);
+      if (index < 0) {
+        return 0;
+      }
+      index = readOptional(index, readExponent(code, index, 'e', 'E', true));
+    } else if (ch == '0' && (code.charAt(1) == 'x' || code.charAt(1) == 'X')) {
+      index = readOptional(2, readDigits(code, 2, HEX));
+      if (code.charAt(index) == '.') {
+        index++;
+      }
+      index = readOptional(index, readDigits(code, index, HEX));
+      index = readOptional(index, readExponent(code, index, 'p', 'P', false));
+    } else if (ch == '0' && (code.charAt(1) == 'b' || code.charAt(1) == 'B') && readDigits(code, 2, BIN) > 0) {
+      index = readDigits(code, 2, BIN);
+    } else if (isDigit(ch)) {
+      index = readDigits(code, 0, DEC);
+      if (code.charAt(index) == '.') {
+        index++;
+      }
+      index = readOptional(index, readDigits(code, index, DEC));
+      index = readOptional(index, readExponent(code, index, 'e', 'E', true));
+    } else {
+      return 0;
+    }
+    return readUdSuffix(code, index);
+  }
+
+  private static int readOptional(int index, int end) {
+    return end < 0 ? index : end;
+  }
+
+  /**
+   * digit-sequence: digit ( '? digit+ )*
+   */
+  private static int readDigits(CodeReader code, int index, int radix) {
+    if (!isDigit(code.charAt(index), radix)) {
+      return -1;
+    }
+    index++;
+    while (true) {
+      var next = code.charAt(index) == '\'' ? index + 1 : index;
+      if (!isDigit(code.charAt(next), radix)) {
+        return index;
+      }
+      index = next + 1;
+    }
+  }
+
+  /**
+   * exponent: [Ee] [+-]? digit ( '? digit+ )*, binary exponent: [Pp] [+-]? digit ( '? digit+ )* (since C++17)
+   *
+   * Digits of the decimal exponent may also contain '_' (compatible with the former regular expression).
+   */
+  private static int readExponent(CodeReader code, int index, char lower, char upper, boolean underscore) {
+    var ch = code.charAt(index);
+    if (ch != lower && ch != upper) {
+      return -1;
+    }
+    index++;
+    ch = code.charAt(index);
+    if (ch == '+' || ch == '-') {
+      index++;
+    }
+    if (!isExponentDigit(code.charAt(index), underscore)) {
+      return -1;
+    }
+    index++;
+    while (true) {
+      var next = code.charAt(index) == '\'' ? index + 1 : index;
+      if (!isExponentDigit(code.charAt(next), underscore)) {
+        return index;
+      }
+      index = next + 1;
+    }
+  }
+
+  /**
+   * ud-suffix: [_a-zA-Z] [_a-zA-Z0-9]*
+   */
+  private static int readUdSuffix(CodeReader code, int index) {
+    if (IdentifierChannel.isIdentifierStart(code.charAt(index))) {
+      index++;
+      while (IdentifierChannel.isIdentifierPart(code.charAt(index))) {
+        index++;
+      }
+    }
+    return index;
+  }
+
+  private static boolean isDigit(char ch) {
+    return ch >= '0' && ch <= '9';
+  }
+
+  private static boolean isExponentDigit(char ch, boolean underscore) {
+    return isDigit(ch) || (underscore && ch == '_');
+  }
+
+  private static boolean isDigit(char ch, int radix) {
+    switch (radix) {
+      case BIN:
+        return ch == '0' || ch == '1';
+      case HEX:
+        return isDigit(ch) || (ch >= 'a' && ch <= 'f') || (ch >= 'A' && ch <= 'F');
+      default:
+        return isDigit(ch);
+    }
+  }
+
+}
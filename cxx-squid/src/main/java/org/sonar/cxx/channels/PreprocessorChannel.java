@@ -84,6 +84,11 @@ public class PreprocessorChannel extends Channel<Lexer> {
     return true;
   }
 
+  @Override
+  public boolean canStartWith(char ch) {
+    return canStartWith(matcher.pattern(), ch);
+  }
+
   private void read(CodeReader code) {
     while (true) {
       var charAt = code.charAt(0);
@@ -105,4 +105,10 @@ public class RightAngleBracketsChannel extends Channel<Lexer> {
     return consumed;
   }
 
+  @Override
+  public boolean canStartWith(char ch) {
+    // channel must also see the characters changing its state
+    return ch == '>' || ch == '<' || ch == '(' || ch == ')' || ch == ';';
+  }
+
 }
@@ -53,6 +53,11 @@ public class StringLiteralsChannel extends Channel<Lexer> {
     return true;
   }
 
+  @Override
+  public boolean canStartWith(char ch) {
+    return ch == '"' || ch == 'u' || ch == 'U' || ch == 'L' || ch == 'R';
+  }
+
   public boolean read(CodeReader code, StringBuilder sb) {
     index = 0;
     readStringPrefix(code);
@@ -34,12 +34,16 @@ import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import javax.xml.XMLConstants;
@@ -48,13 +52,10 @@ import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.Verifier;
-import org.jdom2.filter.Filters;
 import org.jdom2.input.SAXBuilder;
 import org.jdom2.input.sax.XMLReaders;
 import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
-import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.XPathFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.utils.PathUtils;
@@ -103,6 +104,10 @@ import org.sonar.cxx.squidbridge.api.SquidConfiguration;
  *     | -- File [path=...]
  *     | -- ...
  * </pre>
+ *
+ * The data is kept in a compact in-memory model: the units are found by their normalized path, values are interned
+ * and units with identical values share the same immutable value list. JDOM is only used to read and write the XML
+ * representation shown above.
  */
 public class CxxSquidConfiguration extends SquidConfiguration {
 
@@ -129,6 +134,7 @@ public class CxxSquidConfiguration extends SquidConfiguration {
   public static final String FUNCTION_COMPLEXITY_THRESHOLD = "FunctionComplexityThreshold";
   public static final String FUNCTION_SIZE_THRESHOLD = "FunctionSizeThreshold";
   public static final String API_FILE_SUFFIXES = "ApiFileSuffixes";
+  public static final String PARSER_MEMO_WAYS = "ParserMemoWays";
   public static final String JSON_COMPILATION_DATABASE = "JsonCompilationDatabase";
 
   // Global/File Properties
@@ -138,17 +144,22 @@ public class CxxSquidConfiguration extends SquidConfiguration {
 
   private static final Logger LOG = LoggerFactory.getLogger(CxxSquidConfiguration.class);
 
+  // marker for 'level is not a unit' in the unit lookup cache
+  private static final Level NO_UNIT = new Level("", null);
+
   // case-sensitive filesystem or not
   private static boolean isCaseSensitive = true;
 
-  private final XPathFactory xFactory = XPathFactory.instance();
-  private Document document;
+  private final ValuePool pool = new ValuePool();
+
+  // level elements directly under root in document order: PredefinedMacros, SonarProjectProperties, Global, Units, ...
+  private final Map<String, Level> levels = new LinkedHashMap<>();
 
-  // index to speed up element access
-  private final HashMap<String, Element> index = new HashMap<>();
+  // units (File elements) by normalized path in document order
+  private final Map<String, Level> units = new LinkedHashMap<>();
 
-  // defines order to search for key/value pairs: Units => Global => SonarProjectProperties => PredefinedMacros
-  private final LinkedList<Element> parentList = new LinkedList<>();
+  // cache to speed up the unit search: level string => unit or NO_UNIT
+  private final Map<String, Level> unitLookup = new HashMap<>();
 
   // base directory to resolve relative paths
   private String baseDir = "";
@@ -176,15 +187,7 @@ public class CxxSquidConfiguration extends SquidConfiguration {
       isCaseSensitive = true;
     }
 
-    var root = new Element(ROOT);
-    root.setAttribute(new Attribute("version", "1.0"));
-    document = new Document(root);
-
-    addLevelElement(root, PREDEFINED_MACROS);
-    addLevelElement(root, SONAR_PROJECT_PROPERTIES);
-    addLevelElement(root, GLOBAL);
-    // UNITS must be first one in the parentList
-    addLevelElement(root, UNITS);
+    createLevels();
   }
 
   /**
@@ -193,10 +196,11 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    * @param fileName The system-dependent filename.
    * @return true, if data could be read from the file.
    */
-  public boolean readFromFile(String fileName) {
+  public synchronized boolean readFromFile(String fileName) {
     SAXBuilder builder = new SAXBuilder(XMLReaders.NONVALIDATING);
     builder.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
     builder.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+    Document document;
     try {
       document = builder.build(fileName);
     } catch (JDOMException | IOException e) {
@@ -204,16 +208,25 @@ public class CxxSquidConfiguration extends SquidConfiguration {
       return false;
     }
 
-    // clear old element caches
-    parentList.clear();
-    index.clear();
-
-    var root = document.getRootElement();
-    addLevelElement(root, PREDEFINED_MACROS);
-    addLevelElement(root, SONAR_PROJECT_PROPERTIES);
-    addLevelElement(root, GLOBAL);
-    // UNITS must be first one in the parentList
-    addLevelElement(root, UNITS);
+    // replace the old data
+    levels.clear();
+    units.clear();
+    unitLookup.clear();
+    for (var eLevel : document.getRootElement().getChildren()) {
+      var level = levels.computeIfAbsent(eLevel.getName(), name -> new Level(name, null));
+      for (var eChild : eLevel.getChildren()) {
+        if (UNITS.equals(eLevel.getName()) && FILE.equals(eChild.getName())) {
+          var path = eChild.getAttributeValue(ATTR_PATH, "");
+          var unit = units.computeIfAbsent(path, k -> new Level(k, null));
+          for (var eKey : eChild.getChildren()) {
+            readKey(unit, eKey);
+          }
+        } else {
+          readKey(level, eChild);
+        }
+      }
+    }
+    createLevels();
 
     return true;
   }
@@ -229,7 +242,7 @@ public class CxxSquidConfiguration extends SquidConfiguration {
       try (FileWriter writer = new FileWriter(fileName)) {
         XMLOutputter outputter = new XMLOutputter();
         outputter.setFormat(Format.getPrettyFormat());
-        outputter.output(document, writer);
+        outputter.output(toDocument(), writer);
       }
     } catch (IOException e) {
       LOG.debug("Can't write Squid configuration to file '{}': {}", fileName, e.getMessage(), e);
@@ -243,8 +256,8 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    *
    * @return false if empty
    */
-  public boolean isUnitsEmpty() {
-    return parentList.getFirst().getContentSize() == 0;
+  public synchronized boolean isUnitsEmpty() {
+    return units.isEmpty() && levels.get(UNITS).isEmpty();
   }
 
   /**
@@ -260,10 +273,9 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    * key is created. The method can be called several times for this, but more effective is the method
    * {@code add(String, String, List<String>)}.
    */
-  public void add(String level, String key, @Nullable String value) {
+  public synchronized void add(String level, String key, @Nullable String value) {
     if (value != null && !value.isEmpty()) {
-      Element eKey = getKey(level, key);
-      setValue(eKey, value);
+      getOrCreateLevel(level).add(key, List.of(value), pool);
     }
   }
 
@@ -276,10 +288,9 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    * @param key the key to be placed into the database
    * @param value the value corresponding to key
    */
-  public void add(String level, String key, Optional<String> value) {
+  public synchronized void add(String level, String key, Optional<String> value) {
     if (value.isPresent()) {
-      Element eKey = getKey(level, key);
-      setValue(eKey, value.get());
+      getOrCreateLevel(level).add(key, List.of(value.get()), pool);
     }
   }
 
@@ -292,12 +303,9 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    * @param key the key to be placed into the database
    * @param values the values corresponding to key
    */
-  public void add(String level, String key, @Nullable String[] values) {
+  public synchronized void add(String level, String key, @Nullable String[] values) {
     if (values != null) {
-      Element eKey = getKey(level, key);
-      for (var value : values) {
-        setValue(eKey, value);
-      }
+      getOrCreateLevel(level).add(key, Arrays.asList(values), pool);
     }
   }
 
@@ -310,12 +318,9 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    * @param key the key to be placed into the database
    * @param values the values corresponding to key
    */
-  public void add(String level, String key, List<String> values) {
+  public synchronized void add(String level, String key, List<String> values) {
     if (!values.isEmpty()) {
-      Element eKey = getKey(level, key);
-      for (var value : values) {
-        setValue(eKey, value);
-      }
+      getOrCreateLevel(level).add(key, values, pool);
     }
   }
 
@@ -331,17 +336,13 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    * @return The value in this property list with the specified key value. Can return {@code Optional#empty()} if the
    * property is not set.
    */
-  public Optional<String> get(String level, String key) {
-    Element eLevel = findLevel(level, parentList.getFirst());
-    do {
-      if (eLevel != null) {
-        Element eKey = eLevel.getChild(key);
-        if (eKey != null) {
-          return Optional.of(eKey.getChildText(VALUE));
-        }
+  public synchronized Optional<String> get(String level, String key) {
+    for (var eLevel = findLevel(level, levels.get(UNITS)); eLevel != null; eLevel = eLevel.parent) {
+      var values = eLevel.get(key, pool);
+      if (values != null && !values.isEmpty()) {
+        return Optional.of(values.get(0));
       }
-      eLevel = getParentElement(eLevel);
-    } while (eLevel != null);
+    }
     return Optional.empty();
   }
 
@@ -354,18 +355,15 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    * @param key key that is searched for
    * @return the values with the specified key value
    */
-  public List<String> getLevelValues(String level, String key) {
+  public synchronized List<String> getLevelValues(String level, String key) {
     List<String> result = new ArrayList<>();
-    Element eLevel = findLevel(level, null);
+    var eLevel = findLevel(level, null);
     if (eLevel != null) {
-      Element eKey = eLevel.getChild(key);
-      if (eKey != null) {
-        for (var value : eKey.getChildren(VALUE)) {
-          result.add(value.getText());
-        }
+      var values = eLevel.get(key, pool);
+      if (values != null) {
+        result.addAll(values);
       }
     }
-
     return result;
   }
 
@@ -379,20 +377,14 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    * @param key key that is searched for
    * @return the values with the specified key value
    */
-  public List<String> getValues(String level, String key) {
+  public synchronized List<String> getValues(String level, String key) {
     List<String> result = new ArrayList<>();
-    Element eLevel = findLevel(level, parentList.getFirst());
-    do {
-      if (eLevel != null) {
-        Element eKey = eLevel.getChild(key);
-        if (eKey != null) {
-          for (var value : eKey.getChildren(VALUE)) {
-            result.add(value.getText());
-          }
-        }
+    for (var eLevel = findLevel(level, levels.get(UNITS)); eLevel != null; eLevel = eLevel.parent) {
+      var values = eLevel.get(key, pool);
+      if (values != null) {
+        result.addAll(values);
       }
-      eLevel = getParentElement(eLevel);
-    } while (eLevel != null);
+    }
     return result;
   }
 
@@ -401,13 +393,10 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    *
    * @return list of file items
    */
-  public List<Path> getFiles() {
-    List<Path> result = new ArrayList<>();
-    Element eLevel = findLevel(UNITS, null);
-    if (eLevel != null) {
-      for (var file : eLevel.getChildren(FILE)) {
-        result.add(Path.of(file.getAttributeValue(ATTR_PATH)));
-      }
+  public synchronized List<Path> getFiles() {
+    List<Path> result = new ArrayList<>(units.size());
+    for (var path : units.keySet()) {
+      result.add(Path.of(path));
     }
     return result;
   }
@@ -422,23 +411,20 @@ public class CxxSquidConfiguration extends SquidConfiguration {
    * @param key property key that is searched for in all children
    * @return the values with the specified key value
    */
-  public List<String> getChildrenValues(String level, String key) {
+  public synchronized List<String> getChildrenValues(String level, String key) {
     List<String> result = new ArrayList<>();
-    Element eLevel = findLevel(level, parentList.getFirst());
-    if (eLevel != null) {
-      for (var child : eLevel.getChildren()) {
-        Element eKey = child.getChild(key);
-        if (eKey != null) {
-          for (var value : eKey.getChildren(VALUE)) {
-            result.add(value.getText());
-          }
+    var eLevel = findLevel(level, levels.get(UNITS));
+    if (eLevel == levels.get(UNITS)) {
+      for (var unit : units.values()) {
+        var values = unit.get(key, pool);
+        if (values != null) {
+          result.addAll(values);
         }
       }
     }
     // add content of shared parents only once at the end
-    eLevel = getParentElement(eLevel);
-    if (eLevel != null) {
-      result.addAll(getValues(eLevel.getName(), key));
+    if (eLevel != null && eLevel.parent != null) {
+      result.addAll(getValues(eLevel.parent.name, key));
     }
     return result;
   }
@@ -532,7 +518,7 @@ public class CxxSquidConfiguration extends SquidConfiguration {
     try {
       var outputter = new XMLOutputter();
       outputter.setFormat(Format.getPrettyFormat());
-      outputter.output(document, stream);
+      outputter.output(toDocument(), stream);
     } catch (IOException e) {
       throw new IllegalStateException("Can't create XML data", e);
     }
@@ -555,11 +541,20 @@ public class CxxSquidConfiguration extends SquidConfiguration {
   }
 
   public void readJsonCompilationDb() {
+    readJsonCompilationDb(null);
+  }
+
+  /**
+   * Read the JSON Compilation Database.
+   *
+   * @param fileFilter only the units of files accepted by the filter are added, {@code null} to add all units
+   */
+  public void readJsonCompilationDb(@Nullable Predicate<Path> fileFilter) {
     var jsonDbFile = get(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
       CxxSquidConfiguration.JSON_COMPILATION_DATABASE);
     if (jsonDbFile.isPresent()) {
       try {
-        var jsonDb = new JsonCompilationDatabase(this);
+        var jsonDb = new JsonCompilationDatabase(this, fileFilter);
         jsonDb.parse(new File(jsonDbFile.get()));
       } catch (IOException e) {
         LOG.error("Cannot access Json DB File: {}", e.getMessage(), e);
@@ -630,123 +625,175 @@ public class CxxSquidConfiguration extends SquidConfiguration {
   }
 
   /**
-   * Method that returns any parent {@code Element} for this Element, or null if the Element is unattached or is a root
-   * Element.
-   *
-   * The method first searches in {@code parentList}. If the own Element is found here, the next entry (parent) is
-   * returned. If nothing is found here, the method returns parent of Element.
-   *
-   * @param element to be searched for parent
-   * @return the containing Element or null if unattached or a root Element
+   * Create the predefined levels (if not existing) and the search order between them: Units => Global =>
+   * SonarProjectProperties => PredefinedMacros.
    */
-  @CheckForNull
-  private Element getParentElement(@Nullable Element element) {
-    var parentIterator = parentList.iterator();
-    while (parentIterator.hasNext()) {
-      var next = parentIterator.next();
-      if (next.equals(element)) {
-        if (parentIterator.hasNext()) {
-          return parentIterator.next();
-        } else {
-          break;
-        }
-      }
+  private void createLevels() {
+    Level parent = null;
+    for (var name : List.of(PREDEFINED_MACROS, SONAR_PROJECT_PROPERTIES, GLOBAL, UNITS)) {
+      var level = levels.computeIfAbsent(name, k -> new Level(k, null));
+      level.parent = parent;
+      parent = level;
+    }
+    for (var unit : units.values()) {
+      unit.parent = parent;
     }
-    return element != null ? element.getParentElement() : null;
   }
 
   /**
-   * Searches for Element associated with level.
+   * Searches for the level.
    *
-   * If level is an identifier, level element is searched for. Otherwise it is searched for a File element with path
-   * attribute level.
+   * If level is an identifier, level element is searched for. Otherwise it is searched for a unit with the path level.
    *
    * @param level to search for
-   * @param defaultElement Element to return if no item was found
-   * @return found Element or defaultElement
+   * @param defaultLevel level to return if no item was found
+   * @return found level or defaultLevel
    */
   @CheckForNull
-  private Element findLevel(String level, @Nullable Element defaultElement) {
-    Element element = index.getOrDefault(level, null);
-    if (element != null) {
-      return element;
-    }
-    String xpath;
-    if (Verifier.checkElementName(level) == null) {
-      xpath = "/" + ROOT + "/" + level;
-    } else {
-      // handle special case 'UNITS empty' no need to search in tree
-      if (isUnitsEmpty()) {
-        return defaultElement;
-      }
-      xpath = "/" + ROOT + "/" + UNITS + "/" + FILE + "[@" + ATTR_PATH + "='" + unifyPath(level) + "']";
+  private Level findLevel(String level, @Nullable Level defaultLevel) {
+    var result = levels.get(level);
+    if (result != null) {
+      return result;
     }
-    XPathExpression<Element> expr = xFactory.compile(xpath, Filters.element());
-    element = expr.evaluateFirst(document);
-    if (element == null) {
-      element = defaultElement;
+    if (units.isEmpty()) {
+      // handle special case 'UNITS empty' no need to search
+      return defaultLevel;
     }
-    return element;
+    result = unitLookup.get(level);
+    if (result == null) {
+      result = NO_UNIT;
+      if (Verifier.checkElementName(level) != null) {
+        result = units.getOrDefault(unifyPath(level), NO_UNIT);
+      }
+      unitLookup.put(level, result);
+    }
+    return result != NO_UNIT ? result : defaultLevel;
   }
 
   /**
-   * Add or reuse an key Element.
+   * Add or reuse a level.
    *
-   * @param level for key
-   * @param key identifier of key
-   * @return existing or new Element for key
+   * @param level name or path of the level
+   * @return existing or new level
    */
-  private Element getKey(String level, String key) {
-    Element eLevel = findLevel(level, null);
-    if (eLevel == null) {
+  private Level getOrCreateLevel(String level) {
+    var result = findLevel(level, null);
+    if (result == null) {
       if (Verifier.checkElementName(level) == null) {
-        eLevel = new Element(level);
-        document.getRootElement().addContent(eLevel);
+        result = new Level(level, null);
+        levels.put(level, result);
       } else {
-        eLevel = new Element(FILE);
-        level = unifyPath(level);
-        eLevel.setAttribute(new Attribute(ATTR_PATH, level));
-        parentList.getFirst().addContent(eLevel);
+        result = new Level(unifyPath(level), levels.get(UNITS));
+        units.put(result.name, result);
+        unitLookup.clear();
       }
-      index.put(level, eLevel);
     }
-    Element eKey = eLevel.getChild(key);
-    if (eKey == null) {
-      eKey = new Element(key);
-      eLevel.addContent(eKey);
+    return result;
+  }
+
+  private static void readKey(Level level, Element eKey) {
+    var values = new ArrayList<String>();
+    for (var eValue : eKey.getChildren(VALUE)) {
+      values.add(eValue.getText());
     }
-    return eKey;
+    level.values.computeIfAbsent(eKey.getName(), k -> new ArrayList<>()).addAll(values);
   }
 
   /**
-   * Add level element to Squid structure.
-   *
-   * If level already exists only the index and parentList will be updated, otherwise new element will be created and
-   * inserted.
-   *
-   * @param root root element to add new level below
-   * @param level level string
+   * Create the XML representation of the data.
    */
-  private void addLevelElement(Element root, String level) {
-    var element = findLevel(level, null);
-    if (element == null) {
-      element = new Element(level);
-      root.addContent(element);
+  private synchronized Document toDocument() {
+    var root = new Element(ROOT);
+    root.setAttribute(new Attribute("version", "1.0"));
+    for (var level : levels.values()) {
+      var eLevel = new Element(level.name);
+      level.addContentTo(eLevel);
+      if (UNITS.equals(level.name)) {
+        for (var unit : units.values()) {
+          var eFile = new Element(FILE);
+          eFile.setAttribute(new Attribute(ATTR_PATH, unit.name));
+          unit.addContentTo(eFile);
+          eLevel.addContent(eFile);
+        }
+      }
+      root.addContent(eLevel);
     }
-    index.put(level, element);
-    parentList.addFirst(element);
+    return new Document(root);
   }
 
   /**
-   * Add a value to a key.
-   *
-   * @param key to add the value
-   * @param value to add
+   * Key/values pairs of a level or unit.
+   */
+  private static final class Level {
+
+    private final String name;
+    @Nullable
+    private Level parent;
+
+    // values are shared (immutable) after they have been read, until they are modified again
+    private final Map<String, List<String>> values = new LinkedHashMap<>();
+    private final Set<String> shared = new HashSet<>();
+
+    private Level(String name, @Nullable Level parent) {
+      this.name = name;
+      this.parent = parent;
+    }
+
+    private boolean isEmpty() {
+      return values.isEmpty();
+    }
+
+    private void add(String key, List<String> newValues, ValuePool pool) {
+      var list = values.get(key);
+      if (list == null || shared.remove(key)) {
+        list = list == null ? new ArrayList<>(newValues.size()) : new ArrayList<>(list);
+        values.put(key, list);
+      }
+      for (var value : newValues) {
+        list.add(pool.intern(value));
+      }
+    }
+
+    @CheckForNull
+    private List<String> get(String key, ValuePool pool) {
+      var list = values.get(key);
+      if (list != null && shared.add(key)) {
+        list = pool.intern(list);
+        values.put(key, list);
+      }
+      return list;
+    }
+
+    private void addContentTo(Element element) {
+      for (var entry : values.entrySet()) {
+        var eKey = new Element(entry.getKey());
+        for (var value : entry.getValue()) {
+          var eValue = new Element(VALUE);
+          eValue.setText(value);
+          eKey.addContent(eValue);
+        }
+        element.addContent(eKey);
+      }
+    }
+  }
+
+  /**
+   * Pool of interned values and value lists: e.g. the units of a compilation database often have the same macros and
+   * include directories.
    */
-  private static void setValue(Element key, String value) {
-    var eValue = new Element(VALUE);
-    eValue.setText(value);
-    key.addContent(eValue);
+  private static final class ValuePool {
+
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<List<String>, List<String>> lists = new HashMap<>();
+
+    private String intern(String value) {
+      var result = strings.putIfAbsent(value, value);
+      return result != null ? result : value;
+    }
+
+    private List<String> intern(List<String> values) {
+      return lists.computeIfAbsent(List.copyOf(values), k -> k);
+    }
   }
 
 }
@@ -19,8 +19,11 @@
  */
 package org.sonar.cxx.config;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -28,20 +31,43 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * JsonCompilationDatabase
+ *
+ * The file is read as a stream: only one command object is in memory at a time. Command lines with the same options
+ * (e.g. all files of a project compiled with the same flags) are evaluated only once.
  */
 public class JsonCompilationDatabase {
 
   private static final Logger LOG = LoggerFactory.getLogger(JsonCompilationDatabase.class);
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
   private final CxxSquidConfiguration squidConfig;
+  private final Predicate<Path> fileFilter;
+
+  // options of already evaluated command lines: working directory + options => defines and include directories
+  private final Map<List<String>, Options> optionsCache = new HashMap<>();
 
   public JsonCompilationDatabase(CxxSquidConfiguration squidConfig) {
+    this(squidConfig, null);
+  }
+
+  /**
+   * Ctor.
+   *
+   * @param squidConfig configuration to fill
+   * @param fileFilter only command objects of files accepted by the filter are added to the configuration, the global
+   * settings are always added. {@code null} to add all command objects.
+   */
+  public JsonCompilationDatabase(CxxSquidConfiguration squidConfig, @Nullable Predicate<Path> fileFilter) {
     this.squidConfig = squidConfig;
+    this.fileFilter = fileFilter != null ? fileFilter : file -> true;
   }
 
   private static void addMacro(String keyValue, Map<String, String> defines) {
@@ -105,24 +131,105 @@ public class JsonCompilationDatabase {
 
     LOG.debug("Parsing 'JSON Compilation Database' format");
 
-    var mapper = new ObjectMapper();
-    mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-    mapper.enable(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY);
-    mapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
+    try (var parser = JSON_FACTORY.createParser(compileCommandsFile)) {
+      var token = parser.nextToken();
+      if (token == JsonToken.START_OBJECT) {
+        // single command object instead of an array
+        parseCommandObject(readCommandObject(parser));
+      } else if (token == JsonToken.START_ARRAY) {
+        while ((token = nextToken(parser)) != JsonToken.END_ARRAY) {
+          if (token == JsonToken.START_OBJECT) {
+            parseCommandObject(readCommandObject(parser));
+          } else {
+            parser.skipChildren();
+          }
+        }
+      } else if (token != null) {
+        throw JsonMappingException.from(parser, "JSON Compilation Database: array of command objects expected");
+      }
+    } catch (StreamReadException e) {
+      // same exception type as for a mapping error
+      throw JsonMappingException.from(e.getProcessor(), e.getOriginalMessage(), e);
+    }
+  }
 
-    JsonCompilationDatabaseCommandObject[] commandObjects
-      = mapper.readValue(compileCommandsFile,
-        JsonCompilationDatabaseCommandObject[].class);
+  /**
+   * Read the fields of a command object, the parser is positioned at the start of the object.
+   */
+  private static JsonCompilationDatabaseCommandObject readCommandObject(JsonParser parser) throws IOException {
+    var commandObject = new JsonCompilationDatabaseCommandObject();
+    while (nextToken(parser) == JsonToken.FIELD_NAME) {
+      var name = parser.currentName();
+      var token = nextToken(parser);
+      if (token == JsonToken.VALUE_NULL) {
+        continue;
+      }
+      switch (name) {
+        case "directory" -> commandObject.setDirectory(parser.getValueAsString(""));
+        case "file" -> commandObject.setFile(parser.getValueAsString(""));
+        case "command" -> commandObject.setCommand(parser.getValueAsString(""));
+        case "output" -> commandObject.setOutput(parser.getValueAsString(""));
+        case "arguments" -> commandObject.setArguments(readStrings(parser));
+        case "includes" -> commandObject.setIncludes(readStrings(parser).stream().map(Path::of).toList());
+        case "defines" -> commandObject.setDefines(readDefines(parser));
+        default -> parser.skipChildren();
+      }
+    }
+    return commandObject;
+  }
 
-    for (var commandObject : commandObjects) {
-      parseCommandObject(commandObject);
+  /**
+   * Read a string or an array of strings.
+   */
+  private static List<String> readStrings(JsonParser parser) throws IOException {
+    var result = new ArrayList<String>();
+    if (parser.currentToken() == JsonToken.START_ARRAY) {
+      JsonToken token;
+      while ((token = nextToken(parser)) != JsonToken.END_ARRAY) {
+        if (token.isScalarValue()) {
+          result.add(parser.getValueAsString());
+        } else {
+          parser.skipChildren();
+        }
+      }
+    } else if (parser.currentToken().isScalarValue()) {
+      result.add(parser.getValueAsString());
+    } else {
+      parser.skipChildren();
     }
+    return result;
   }
 
-  private void parseCommandObject(JsonCompilationDatabaseCommandObject commandObject) {
+  private static Map<String, String> readDefines(JsonParser parser) throws IOException {
+    var result = new HashMap<String, String>();
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return result;
+    }
+    while (nextToken(parser) == JsonToken.FIELD_NAME) {
+      var name = parser.currentName();
+      var token = nextToken(parser);
+      if (token.isScalarValue()) {
+        result.put(name, parser.getValueAsString());
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return result;
+  }
 
-    var defines = commandObject.getDefines();
-    var includes = commandObject.getIncludes();
+  /**
+   * Next token, end-of-input inside of the document is an error.
+   */
+  private static JsonToken nextToken(JsonParser parser) throws IOException {
+    var token = parser.nextToken();
+    if (token == null) {
+      throw JsonMappingException.from(parser, "JSON Compilation Database: unexpected end-of-input");
+    }
+    return token;
+  }
+
+  private void parseCommandObject(JsonCompilationDatabaseCommandObject commandObject) {
 
     Path cwd;
     if (commandObject.getDirectory() != null) {
@@ -135,75 +242,135 @@ public class JsonCompilationDatabase {
     if ("__global__".equals(commandObject.getFile())) {
       level = CxxSquidConfiguration.GLOBAL;
     } else {
-      level = cwd.resolve(commandObject.getFile()).toAbsolutePath().normalize().toString();
+      var file = cwd.resolve(commandObject.getFile()).toAbsolutePath().normalize();
+      if (!fileFilter.test(file)) {
+        return;
+      }
+      level = file.toString();
     }
 
     // No need to parse command lines if we have needed information
-    if (!(commandObject.hasDefines() || commandObject.hasIncludes())) {
-      String[] args;
+    if (commandObject.hasDefines() || commandObject.hasIncludes()) {
+      addDefines(level, commandObject.getDefines());
+      addIncludes(level, commandObject.getIncludes());
+      return;
+    }
 
-      if (commandObject.hasArguments()) {
-        args = commandObject.getArguments().toArray(String[]::new);
-        if (args.length == 1) {
-          args = tokenizeCommandLine(args[0]);
-        }
-      } else if (commandObject.hasCommand()) {
-        args = tokenizeCommandLine(commandObject.getCommand());
+    String[] args;
+    if (commandObject.hasArguments()) {
+      args = commandObject.getArguments().toArray(String[]::new);
+      if (args.length == 1) {
+        args = tokenizeCommandLine(args[0]);
+      }
+    } else if (commandObject.hasCommand()) {
+      args = tokenizeCommandLine(commandObject.getCommand());
+    } else {
+      return;
+    }
+
+    var options = getOptions(cwd, args);
+    squidConfig.add(level, CxxSquidConfiguration.DEFINES, options.defines);
+    squidConfig.add(level, CxxSquidConfiguration.INCLUDE_DIRECTORIES, options.includes);
+  }
+
+  /**
+   * Evaluate the defines and include directories of a command line. The result is reused for command lines with the
+   * same options.
+   */
+  private Options getOptions(Path cwd, String[] args) {
+    var key = optionsKey(cwd, args);
+    if (key == null) {
+      return evaluateOptions(cwd, args);
+    }
+    return optionsCache.computeIfAbsent(key, k -> evaluateOptions(cwd, args));
+  }
+
+  /**
+   * Key to identify command lines with the same options: working directory and all options which are evaluated.
+   *
+   * @return key, or {@code null} if command line contains no relevant options
+   */
+  @CheckForNull
+  private static List<String> optionsKey(Path cwd, String[] args) {
+    List<String> key = null;
+    var isValue = false;
+    for (var arg : args) {
+      if (isOption(arg)) {
+        isValue = isOptionWithoutValue(arg);
+      } else if (isValue) {
+        isValue = arg.isEmpty();
       } else {
-        return;
+        continue;
+      }
+      if (key == null) {
+        key = new ArrayList<>();
+        key.add(cwd.toString());
       }
+      key.add(arg);
+    }
+    return key;
+  }
 
-      defines = new HashMap<>();
-      includes = new ArrayList<>();
-      var iSystem = new ArrayList<Path>();
-      var iDirAfter = new ArrayList<Path>();
-      var next = ArgNext.NONE;
-
-      for (var arg : args) {
-        if (arg.startsWith("-D")) {
-          arg = arg.substring(2);
-          next = ArgNext.DEFINE;
-        } else if (arg.startsWith("-I")) {
-          arg = arg.substring(2);
-          next = ArgNext.INCLUDE;
-        } else if (arg.startsWith("-iquote")) {
-          arg = arg.substring(7);
-          next = ArgNext.INCLUDE;
-        } else if (arg.startsWith("-isystem")) {
-          arg = arg.substring(8);
-          next = ArgNext.ISYSTEM;
-        } else if (arg.startsWith("-idirafter")) {
-          arg = arg.substring(10);
-          next = ArgNext.IDIRAFTER;
-        }
+  private static boolean isOption(String arg) {
+    return arg.startsWith("-D") || arg.startsWith("-I") || arg.startsWith("-iquote") || arg.startsWith("-isystem")
+             || arg.startsWith("-idirafter");
+  }
 
-        if ((next != ArgNext.NONE) && !arg.isEmpty()) {
-          switch (next) {
-            case DEFINE:
-              addMacro(arg, defines);
-              break;
-            case INCLUDE, IQUOTE:
-              includes.add(makeRelativeToCwd(cwd, arg));
-              break;
-            case ISYSTEM:
-              iSystem.add(makeRelativeToCwd(cwd, arg));
-              break;
-            case IDIRAFTER:
-              iDirAfter.add(makeRelativeToCwd(cwd, arg));
-              break;
-            default:
-              break;
-          }
-          next = ArgNext.NONE;
-        }
+  private static boolean isOptionWithoutValue(String arg) {
+    return "-D".equals(arg) || "-I".equals(arg) || "-iquote".equals(arg) || "-isystem".equals(arg)
+             || "-idirafter".equals(arg);
+  }
+
+  private static Options evaluateOptions(Path cwd, String[] args) {
+    var defines = new HashMap<String, String>();
+    var includes = new ArrayList<Path>();
+    var iSystem = new ArrayList<Path>();
+    var iDirAfter = new ArrayList<Path>();
+    var next = ArgNext.NONE;
+
+    for (var arg : args) {
+      if (arg.startsWith("-D")) {
+        arg = arg.substring(2);
+        next = ArgNext.DEFINE;
+      } else if (arg.startsWith("-I")) {
+        arg = arg.substring(2);
+        next = ArgNext.INCLUDE;
+      } else if (arg.startsWith("-iquote")) {
+        arg = arg.substring(7);
+        next = ArgNext.INCLUDE;
+      } else if (arg.startsWith("-isystem")) {
+        arg = arg.substring(8);
+        next = ArgNext.ISYSTEM;
+      } else if (arg.startsWith("-idirafter")) {
+        arg = arg.substring(10);
+        next = ArgNext.IDIRAFTER;
       }
 
-      includes.addAll(iSystem);
-      includes.addAll(iDirAfter);
+      if ((next != ArgNext.NONE) && !arg.isEmpty()) {
+        switch (next) {
+          case DEFINE:
+            addMacro(arg, defines);
+            break;
+          case INCLUDE, IQUOTE:
+            includes.add(makeRelativeToCwd(cwd, arg));
+            break;
+          case ISYSTEM:
+            iSystem.add(makeRelativeToCwd(cwd, arg));
+            break;
+          case IDIRAFTER:
+            iDirAfter.add(makeRelativeToCwd(cwd, arg));
+            break;
+          default:
+            break;
+        }
+        next = ArgNext.NONE;
+      }
     }
 
-    addDefines(level, defines);
-    addIncludes(level, includes);
+    includes.addAll(iSystem);
+    includes.addAll(iDirAfter);
+
+    return new Options(defines, includes);
   }
 
   private void addDefines(String level, Map<String, String> defines) {
@@ -222,4 +389,18 @@ public class JsonCompilationDatabase {
     NONE, DEFINE, INCLUDE, IQUOTE, ISYSTEM, IDIRAFTER;
   }
 
+  /**
+   * Evaluated options of a command line in the format of the configuration.
+   */
+  private static final class Options {
+
+    private final List<String> defines;
+    private final List<String> includes;
+
+    private Options(Map<String, String> defines, List<Path> includes) {
+      this.defines = defines.entrySet().stream().map(e -> e.getKey() + " " + e.getValue()).toList();
+      this.includes = includes.stream().map(Path::toString).toList();
+    }
+  }
+
 }
@@ -363,6 +363,8 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
   // CUDA extension
   cudaKernel;
 
+  public static final int DEFAULT_MEMO_WAYS = 4;
+
   public static Grammar create(CxxSquidConfiguration squidConfig) {
     var b = LexerfulGrammarBuilder.create();
 
@@ -384,7 +386,10 @@ public enum CxxGrammarImpl implements GrammarRuleKey {
 
     b.setRootRule(translationUnit);
 
-    return b.buildWithMemoizationOfMatchesForAllRules();
+    // C++ is ambiguous: many rules start at the same token, keep several matches per token
+    int memoWays = squidConfig.getInt(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
+      CxxSquidConfiguration.PARSER_MEMO_WAYS).orElse(DEFAULT_MEMO_WAYS);
+    return b.buildWithMemoizationOfMatchesForAllRules(Math.max(1, memoWays));
   }
 
   private static void misc(LexerfulGrammarBuilder b) {
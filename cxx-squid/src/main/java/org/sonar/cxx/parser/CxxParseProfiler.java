@@ -0,0 +1,165 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.sonar.cxx.sslr.internal.vm.MachineStatistics;
+
+/**
+ * Collects the counters of the parsing machine (invocations, backtracks, memo hits and token span per grammar rule)
+ * for each parsed file and writes a report of the worst rules and worst files.
+ *
+ * The counters are collected with {@link org.sonar.cxx.visitors.CxxParseProfilerVisitor}, one visitor for each
+ * parser. The methods are thread-safe, so one profiler can be used by several parsers in parallel.
+ */
+public class CxxParseProfiler {
+
+  public static final String REPORT_FILE = "cxx-parse-profile.json";
+
+  private static final int MAX_RULES = 50;
+  private static final int MAX_FILES = 100;
+  private static final int MAX_RULES_PER_FILE = 10;
+
+  private final MachineStatistics total = new MachineStatistics();
+  private final List<FileProfile> files = new ArrayList<>();
+
+  /**
+   * Counters of a parsed file.
+   *
+   * @param file parsed file
+   * @param tokens number of parsed tokens
+   * @param parseNanos time spent in the parsing machine
+   * @param invocations number of rule invocations
+   * @param backtracks number of failed rule invocations
+   * @param memoHits number of rule invocations taken from the memo table
+   * @param rules worst rules of the file
+   */
+  public record FileProfile(String file, long tokens, long parseNanos, long invocations, long backtracks,
+    long memoHits, List<MachineStatistics.Rule> rules) {
+
+  }
+
+  /**
+   * Add the counters of a parsed file.
+   *
+   * @param file parsed file
+   * @param statistics counters of the parsing machine for this file
+   */
+  public void add(String file, MachineStatistics statistics) {
+    var rules = statistics.getRules();
+    long invocations = 0;
+    long backtracks = 0;
+    for (var rule : rules) {
+      invocations += rule.invocations();
+      backtracks += rule.backtracks();
+    }
+    var profile = new FileProfile(file, statistics.getTokens(), statistics.getParseNanos(), invocations, backtracks,
+      statistics.getMemoHits(), List.copyOf(rules.subList(0, Math.min(rules.size(), MAX_RULES_PER_FILE))));
+
+    total.add(statistics);
+    synchronized (files) {
+      files.add(profile);
+    }
+  }
+
+  /**
+   * Counters of all files.
+   *
+   * @return sum of the counters
+   */
+  public MachineStatistics getTotal() {
+    return total;
+  }
+
+  /**
+   * Files sorted by time spent in the parsing machine (descending).
+   *
+   * @return counters per file
+   */
+  public List<FileProfile> getFiles() {
+    synchronized (files) {
+      var result = new ArrayList<>(files);
+      result.sort(Comparator.comparingLong(FileProfile::parseNanos).reversed());
+      return result;
+    }
+  }
+
+  /**
+   * Write the report (JSON) with the counters of all files, the worst rules and the worst files.
+   *
+   * @param reportFile file to write
+   * @throws IOException if the report cannot be written
+   */
+  public void writeReport(Path reportFile) throws IOException {
+    var worstFiles = getFiles();
+    var rules = total.getRules();
+    try (var writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8);
+         var generator = new JsonFactory().createGenerator(writer)) {
+      generator.useDefaultPrettyPrinter();
+      generator.writeStartObject();
+      generator.writeNumberField("files", worstFiles.size());
+      generator.writeNumberField("tokens", total.getTokens());
+      generator.writeNumberField("parseMillis", TimeUnit.NANOSECONDS.toMillis(total.getParseNanos()));
+      generator.writeNumberField("memoHits", total.getMemoHits());
+      generator.writeNumberField("memoMisses", total.getMemoMisses());
+      writeRules(generator, "worstRules", rules.subList(0, Math.min(rules.size(), MAX_RULES)));
+      generator.writeArrayFieldStart("worstFiles");
+      for (var file : worstFiles.subList(0, Math.min(worstFiles.size(), MAX_FILES))) {
+        generator.writeStartObject();
+        generator.writeStringField("file", file.file());
+        generator.writeNumberField("tokens", file.tokens());
+        generator.writeNumberField("parseMillis", TimeUnit.NANOSECONDS.toMillis(file.parseNanos()));
+        generator.writeNumberField("invocations", file.invocations());
+        generator.writeNumberField("backtracks", file.backtracks());
+        generator.writeNumberField("memoHits", file.memoHits());
+        writeRules(generator, "worstRules", file.rules());
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+  }
+
+  private static void writeRules(JsonGenerator generator, String name, List<MachineStatistics.Rule> rules)
+    throws IOException {
+    generator.writeArrayFieldStart(name);
+    for (var rule : rules) {
+      generator.writeStartObject();
+      generator.writeStringField("rule", rule.name());
+      generator.writeNumberField("invocations", rule.invocations());
+      generator.writeNumberField("backtracks", rule.backtracks());
+      generator.writeNumberField("memoHits", rule.memoHits());
+      generator.writeNumberField("memoMisses", rule.memoMisses());
+      generator.writeNumberField("tokenSpan", rule.tokenSpan());
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+  }
+
+}
@@ -22,6 +22,11 @@ package org.sonar.cxx.parser;
 import com.sonar.cxx.sslr.api.Grammar;
 import com.sonar.cxx.sslr.impl.Parser;
 import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 import org.sonar.cxx.config.CxxSquidConfiguration;
 import org.sonar.cxx.preprocessor.CxxPreprocessor;
 import org.sonar.cxx.preprocessor.JoinStringsPreprocessor;
@@ -31,13 +36,37 @@ import org.sonar.cxx.squidbridge.api.SourceProject;
 
 public final class CxxParser {
 
-  private static WeakReference<CxxPreprocessor> currentPreprocessorInstance;
+  // several parsers can be used in parallel: preprocessor instance for each context
+  private static final Map<SquidAstVisitorContext<?>, WeakReference<CxxPreprocessor>> preprocessorInstances
+    = Collections.synchronizedMap(new WeakHashMap<>());
+
+  // grammar depends only on the configuration: share it (and the compiled grammar) between all parsers of a
+  // configuration, it is created again if the grammar settings of the configuration were changed in the meantime
+  private static final Map<CxxSquidConfiguration, CachedGrammar> grammars
+    = Collections.synchronizedMap(new WeakHashMap<>());
 
   private CxxParser() {
   }
 
-  public static void finishedParsing() {
-    currentPreprocessorInstance.get().finishedPreprocessing();
+  public static void finishedParsing(SquidAstVisitorContext<?> context) {
+    var instance = preprocessorInstances.get(context);
+    if (instance != null && instance.get() != null) {
+      instance.get().finishedPreprocessing();
+    }
+  }
+
+  /**
+   * Include files processed by the preprocessor for the current unit of the context.
+   *
+   * @param context context of the parser
+   * @return include files, empty if there is no preprocessor for the context
+   */
+  public static Set<Path> getIncludedFiles(SquidAstVisitorContext<?> context) {
+    var instance = preprocessorInstances.get(context);
+    if (instance != null && instance.get() != null) {
+      return instance.get().getIncludedFiles();
+    }
+    return Collections.emptySet();
   }
 
   public static Parser<Grammar> create() {
@@ -51,10 +80,32 @@ public final class CxxParser {
 
   public static Parser<Grammar> create(SquidAstVisitorContext<Grammar> context, CxxSquidConfiguration squidConfig) {
     var cxxpp = new CxxPreprocessor(context, squidConfig);
-    currentPreprocessorInstance = new WeakReference<>(cxxpp);
-    return Parser.builder(CxxGrammarImpl.create(squidConfig))
+    preprocessorInstances.put(context, new WeakReference<>(cxxpp));
+    var settings = GrammarSettings.of(squidConfig);
+    var grammar = grammars.compute(squidConfig, (k, cached) -> cached != null && cached.settings().equals(settings)
+      ? cached : new CachedGrammar(settings, CxxGrammarImpl.create(squidConfig))).grammar();
+    return Parser.builder(grammar)
       .withLexer(CxxLexerPool.create(squidConfig.getCharset(), cxxpp, new JoinStringsPreprocessor()).getLexer())
       .build();
   }
 
+  /**
+   * Settings of the configuration used by CxxGrammarImpl.create.
+   */
+  private record GrammarSettings(boolean errorRecovery, int memoWays) {
+
+    static GrammarSettings of(CxxSquidConfiguration squidConfig) {
+      return new GrammarSettings(
+        squidConfig.getBoolean(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
+          CxxSquidConfiguration.ERROR_RECOVERY_ENABLED).orElse(Boolean.TRUE),
+        squidConfig.getInt(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES,
+          CxxSquidConfiguration.PARSER_MEMO_WAYS).orElse(CxxGrammarImpl.DEFAULT_MEMO_WAYS));
+    }
+
+  }
+
+  private record CachedGrammar(GrammarSettings settings, Grammar grammar) {
+
+  }
+
 }
@@ -35,10 +35,14 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.cxx.config.CxxSquidConfiguration;
@@ -88,13 +92,28 @@ public class CxxPreprocessor extends Preprocessor {
     + " The preprocessor searches for include files in the with "
     + "'sonar.cxx.includeDirectories' defined directories and order.";
 
-  private static int missingFileCounter = 0;
+  private static final AtomicInteger missingFileCounter = new AtomicInteger();
+
+  private static final DirectiveCache DIRECTIVES = new DirectiveCache();
+
+  private static final int MAX_UNIT_MACRO_SETS = 32;
+
+  private static final Token EOF_TOKEN = PPGeneratedToken.build(GenericTokenType.EOF, "EOF", 1, 0);
 
   private final SquidAstVisitorContext<Grammar> context;
   private final CxxSquidConfiguration squidConfig;
 
   private MacroContainer<String, PPMacro> unitMacros = null;
-  private MacroContainer<String, PPMacro> globalMacros = null;
+  private Map<String, PPMacro> globalMacros = null;
+
+  // parsed macros of units with identical defines are shared: defines => unmodifiable macros (global and unit),
+  // the number of sets is limited, the least recently used set is removed first
+  private final Map<List<String>, Map<String, PPMacro>> unitMacroSets = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<List<String>, Map<String, PPMacro>> eldest) {
+      return size() > MAX_UNIT_MACRO_SETS;
+    }
+  };
   private List<String> globalIncludeDirectories = null;
 
   private File currentContextFile;
@@ -139,28 +158,27 @@ public class CxxPreprocessor extends Preprocessor {
       currentContextFile = context.getFile();
 
       include = new PPInclude(this, currentContextFile.toPath());
-      unitMacros = new MacroContainer<>();
       String path = currentContextFile.getAbsolutePath();
 
-      if (globalMacros != null) {
-        // reuse already parsed project macros
-        unitMacros.putAll(globalMacros);
-      } else {
+      if (globalMacros == null) {
         // on project level do this only once for all units
+        unitMacros = new MacroContainer<>();
         lineLexerwithPP = CxxLexerPool.create(this);
         replace = new PPReplace(this); // TODO: try to remove dependecies inside PPReplace, lexer, unitMacros
         addGlobalIncludeDirectories();
         addGlobalMacros();
         addGlobalForcedIncludes();
-        globalMacros = new MacroContainer<>();
-        globalMacros.putAll(unitMacros);
+        globalMacros = unitMacros.snapshot();
 
         if (LOG.isDebugEnabled()) {
           LOG.debug("global include directories: {}", include().getStandardIncludeDirs());
-          LOG.debug("global macros: {}", globalMacros);
+          LOG.debug("global macros: {}", unitMacros);
         }
       }
 
+      // reuse already parsed project macros: shared by all units, changes of a unit are stored in its container only
+      unitMacros = new MacroContainer<>(globalMacros);
+
       LOG.debug("process unit '{}'", currentContextFile);
 
       // are items on unit level available: if not jump over below steps
@@ -213,12 +231,26 @@ public class CxxPreprocessor extends Preprocessor {
     return include;
   }
 
+  /**
+   * Include files processed for the current unit (including nested and forced include files of the unit).
+   *
+   * @return include files, empty if no unit is processed
+   */
+  public Set<Path> getIncludedFiles() {
+    return include != null ? include.getAnalysedFiles() : Collections.emptySet();
+  }
+
   public PPReplace replace() {
     return replace;
   }
 
   @CheckForNull
   AstNode lineParser(String line) {
+    return DIRECTIVES.get(line, this::parseLine);
+  }
+
+  @CheckForNull
+  private AstNode parseLine(String line) {
     AstNode lineAst;
     try {
       lineAst = lineParser.parse(line);
@@ -242,6 +274,41 @@ public class CxxPreprocessor extends Preprocessor {
     return tokens;
   }
 
+  List<Token> tokenizeMacro(PPMacro macro, List<Token> macroTokens) {
+    // C++ standard 16.3.4/2 Macro Replacement - Rescanning and further replacement
+    List<Token> tokens = null;
+    unitMacros.pushDisable(macro.identifier);
+    try {
+      tokens = preprocess(macroTokens);
+    } finally {
+      unitMacros.popDisable();
+    }
+    return tokens;
+  }
+
+  /**
+   * Preprocess tokens which are already lexed: same result as tokenize for the merged tokens, without lexing them again.
+   */
+  List<Token> preprocess(List<Token> tokens) {
+    var input = new ArrayList<Token>(tokens.size() + 1);
+    input.addAll(tokens);
+    input.add(EOF_TOKEN);
+
+    var result = new ArrayList<Token>(input.size());
+    int i = 0;
+    while (i < input.size()) {
+      var action = process(input.subList(i, input.size()));
+      result.addAll(action.getTokensToInject());
+      if (action.getNumberOfConsumedTokens() == 0) {
+        result.add(input.get(i));
+        i++;
+      } else {
+        i += action.getNumberOfConsumedTokens();
+      }
+    }
+    return TokenUtils.removeLastTokenIfEof(result);
+  }
+
   List<Token> tokenize(String expression) {
     // C++ standard 16.3.4/2 Macro Replacement - Rescanning and further replacement
     List<Token> tokens = null;
@@ -258,7 +325,23 @@ public class CxxPreprocessor extends Preprocessor {
 
   @CheckForNull
   PPMacro getMacro(String macroName) {
-    return unitMacros.get(macroName);
+    var macro = unitMacros.get(macroName);
+    var currentInclude = include();
+    if (currentInclude != null) {
+      currentInclude.macroRead(macroName, macro);
+    }
+    return macro;
+  }
+
+  /**
+   * Define (macro != null) or undefine (macro == null) a macro without recording it.
+   */
+  void setMacro(String macroName, @Nullable PPMacro macro) {
+    if (macro != null) {
+      unitMacros.put(macroName, macro);
+    } else {
+      unitMacros.remove(macroName);
+    }
   }
 
   @SuppressWarnings({"java:S1541", "java:S1142"})
@@ -299,17 +382,22 @@ public class CxxPreprocessor extends Preprocessor {
   }
 
   public static void finalReport() {
-    if (missingFileCounter != 0) {
-      LOG.warn(MISSING_INCLUDE_MSG, missingFileCounter);
+    if (missingFileCounter.get() != 0) {
+      LOG.warn(MISSING_INCLUDE_MSG, missingFileCounter.get());
     }
+    LOG.debug("Preprocessor: include file cache {} hit(s), {} miss(es), macro effects {} hit(s), {} miss(es)",
+      PPInclude.getCacheHits(), PPInclude.getCacheMisses(), PPInclude.getSummaryHits(), PPInclude.getSummaryMisses());
+    LOG.debug("Preprocessor: directive cache {} hit(s), {} miss(es)", DIRECTIVES.getHits(), DIRECTIVES.getMisses());
+    PPInclude.clearCache();
+    DIRECTIVES.clear();
   }
 
   public static void resetReport() {
-    missingFileCounter = 0;
+    missingFileCounter.set(0);
   }
 
   private static void addMissingFiles(int number) {
-    missingFileCounter += number;
+    missingFileCounter.addAndGet(number);
   }
 
   private static String getIdentifierName(AstNode node) {
@@ -344,8 +432,16 @@ public class CxxPreprocessor extends Preprocessor {
   }
 
   private void addPredefinedMacros() {
-    for (var macro : PPPredefinedMacros.predefinedMacroValues()) {
-      squidConfig.add(CxxSquidConfiguration.PREDEFINED_MACROS, CxxSquidConfiguration.DEFINES, macro);
+    // the preprocessors of the parallel workers share the configuration: check and add atomically
+    synchronized (squidConfig) {
+      if (!squidConfig.getLevelValues(CxxSquidConfiguration.PREDEFINED_MACROS, CxxSquidConfiguration.DEFINES)
+        .isEmpty()) {
+        // already added by another preprocessor instance using the same configuration
+        return;
+      }
+      for (var macro : PPPredefinedMacros.predefinedMacroValues()) {
+        squidConfig.add(CxxSquidConfiguration.PREDEFINED_MACROS, CxxSquidConfiguration.DEFINES, macro);
+      }
     }
   }
 
@@ -360,12 +456,22 @@ public class CxxPreprocessor extends Preprocessor {
   private boolean addUnitMacros(String level) {
     var defines = squidConfig.getLevelValues(level, CxxSquidConfiguration.DEFINES);
     if (!defines.isEmpty()) {
-      Collections.reverse(defines);
-      parseMacroDefinitions(defines, unitMacros);
+      unitMacros = new MacroContainer<>(unitMacroSets.computeIfAbsent(defines, this::parseUnitMacros));
     }
     return false;
   }
 
+  /**
+   * Parse the defines of a unit once for all units with the same defines (typically same compiler flags).
+   */
+  private Map<String, PPMacro> parseUnitMacros(List<String> defines) {
+    var macros = new MacroContainer<>(globalMacros);
+    var reversed = new ArrayList<>(defines);
+    Collections.reverse(reversed);
+    parseMacroDefinitions(reversed, macros);
+    return macros.snapshot();
+  }
+
   private void addGlobalIncludeDirectories() {
     globalIncludeDirectories = squidConfig.getValues(CxxSquidConfiguration.GLOBAL,
       CxxSquidConfiguration.INCLUDE_DIRECTORIES);
@@ -544,6 +650,7 @@ public class CxxPreprocessor extends Preprocessor {
       // Here we have a define directive. Parse it and store the macro in a dictionary.
       PPMacro macro = PPMacro.create(ast);
       unitMacros.put(macro.identifier, macro);
+      include().macroWritten(macro.identifier, macro);
     }
 
     return oneConsumedToken(token);
@@ -553,6 +660,7 @@ public class CxxPreprocessor extends Preprocessor {
     if (!include().state().skipTokens()) {
       String macroName = ast.getFirstDescendant(GenericTokenType.IDENTIFIER).getTokenValue();
       unitMacros.remove(macroName);
+      include().macroWritten(macroName, null);
     }
     return oneConsumedToken(token);
   }
@@ -610,9 +718,7 @@ public class CxxPreprocessor extends Preprocessor {
       }
     } else {
       consumedTokens = 1;
-      result = replace.replaceObjectLikeMacro(
-        macro, TokenUtils.merge(PPConcatenation.concatenate(macro.replacementList))
-      );
+      result = replace.replaceObjectLikeMacro(macro);
     }
 
     if (consumedTokens > 0) {
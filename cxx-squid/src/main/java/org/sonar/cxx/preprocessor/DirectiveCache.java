@@ -0,0 +1,89 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import com.sonar.cxx.sslr.api.AstNode;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+
+/**
+ * Project wide cache of parsed preprocessor directives.
+ *
+ * The AST of a directive depends only on the text of the directive. Identical directives (#endif, #pragma once,
+ * #include &lt;vector&gt;, ...) are therefore parsed only once and the AST is shared by all units. The number of
+ * entries is limited, the least recently used entry is removed first. Directives which cannot be parsed are not
+ * cached.
+ *
+ * Instances are thread-safe. The cached ASTs must not be modified.
+ */
+final class DirectiveCache {
+
+  private static final int MAX_ENTRIES = 10_000;
+
+  private final Map<String, AstNode> entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, AstNode> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  });
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Returns the AST of a directive.
+   *
+   * @param directive text of the directive
+   * @param parser parser to use if there is no entry in the cache, returns null if the directive cannot be parsed
+   * @return AST of the directive, null if the directive cannot be parsed
+   */
+  @CheckForNull
+  AstNode get(String directive, Function<String, AstNode> parser) {
+    var ast = entries.get(directive);
+    if (ast != null) {
+      hits.incrementAndGet();
+      return ast;
+    }
+
+    // parse outside of the lock: the parsers of several threads can work in parallel
+    misses.incrementAndGet();
+    ast = parser.apply(directive);
+    if (ast != null) {
+      entries.put(directive, ast);
+    }
+    return ast;
+  }
+
+  long getHits() {
+    return hits.get();
+  }
+
+  long getMisses() {
+    return misses.get();
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+}
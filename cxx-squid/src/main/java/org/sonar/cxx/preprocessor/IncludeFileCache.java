@@ -0,0 +1,171 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import com.sonar.cxx.sslr.api.Token;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import javax.annotation.CheckForNull;
+
+/**
+ * Project wide cache of the preprocessor directives of include files.
+ *
+ * Included files are scanned with the only goal of gathering macros, the resulting directive tokens do not depend on
+ * the translation unit. Each include file is therefore read and lexed only once, the cached tokens are replayed for
+ * all other units including it. An entry is only valid as long as last modified time, size and character set of the
+ * file do not change.
+ *
+ * Instances are thread-safe.
+ */
+final class IncludeFileCache {
+
+  // limit the number of variants, there is no benefit for files with many different inputs
+  private static final int MAX_SUMMARIES = 16;
+
+  private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<Path, List<IncludeFileSummary>> summaries = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong summaryHits = new AtomicLong();
+  private final AtomicLong summaryMisses = new AtomicLong();
+
+  /**
+   * Returns the directive tokens of an include file.
+   *
+   * @param file include file
+   * @param charset character set to use if file has no BOM
+   * @param lexer lexer to use if there is no valid entry in the cache
+   * @return directive tokens of the file (unmodifiable)
+   * @throws IOException if the file cannot be read (by the lexer)
+   */
+  List<Token> getTokens(Path file, Charset charset, FileLexer lexer) throws IOException {
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    } catch (IOException e) {
+      // no attributes to validate an entry: do not cache
+      misses.incrementAndGet();
+      return lexer.lex(file, charset);
+    }
+
+    var entry = entries.get(file);
+    if (entry != null && entry.isValid(attributes, charset)) {
+      hits.incrementAndGet();
+      return entry.tokens();
+    }
+
+    misses.incrementAndGet();
+    var tokens = List.copyOf(lexer.lex(file, charset));
+    entries.put(file, new Entry(attributes.lastModifiedTime(), attributes.size(), charset, tokens));
+    return tokens;
+  }
+
+  /**
+   * Search a summary of the macro effects of an include file.
+   *
+   * @param file include file
+   * @param matcher predicate to verify if the summary can be applied
+   * @return first matching summary or null
+   */
+  @CheckForNull
+  IncludeFileSummary getSummary(Path file, Predicate<IncludeFileSummary> matcher) {
+    var variants = summaries.get(file);
+    if (variants != null) {
+      for (var summary : variants) {
+        if (matcher.test(summary)) {
+          summaryHits.incrementAndGet();
+          return summary;
+        }
+      }
+    }
+    summaryMisses.incrementAndGet();
+    return null;
+  }
+
+  void addSummary(Path file, IncludeFileSummary summary) {
+    var variants = summaries.computeIfAbsent(file, k -> new CopyOnWriteArrayList<>());
+    if (variants.size() < MAX_SUMMARIES) {
+      variants.add(summary);
+    }
+  }
+
+  long getHits() {
+    return hits.get();
+  }
+
+  long getMisses() {
+    return misses.get();
+  }
+
+  long getSummaryHits() {
+    return summaryHits.get();
+  }
+
+  long getSummaryMisses() {
+    return summaryMisses.get();
+  }
+
+  void clear() {
+    entries.clear();
+    summaries.clear();
+  }
+
+  @FunctionalInterface
+  interface FileLexer {
+
+    List<Token> lex(Path file, Charset charset) throws IOException;
+  }
+
+  private static final class Entry {
+
+    private final FileTime lastModified;
+    private final long size;
+    private final Charset charset;
+    private final List<Token> tokens;
+
+    private Entry(FileTime lastModified, long size, Charset charset, List<Token> tokens) {
+      this.lastModified = lastModified;
+      this.size = size;
+      this.charset = charset;
+      this.tokens = tokens;
+    }
+
+    private boolean isValid(BasicFileAttributes attributes, Charset charset) {
+      return size == attributes.size()
+        && lastModified.equals(attributes.lastModifiedTime())
+        && this.charset.equals(charset);
+    }
+
+    private List<Token> tokens() {
+      return tokens;
+    }
+  }
+
+}
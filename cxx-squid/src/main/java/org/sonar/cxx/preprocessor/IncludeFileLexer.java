@@ -44,6 +44,7 @@ final class IncludeFileLexer {
     var builder = Lexer.builder()
       .withCharset(squidConfig.getCharset())
       .withFailIfNoChannelToConsumeOneCharacter(true)
+      .withDispatchOnFirstCharacter(true)
       .withChannel(new BlackHoleChannel("\\s++"))
       .withChannel(new PreprocessorChannel())
       .withChannel(commentRegexp("/\\*", ANY_CHAR + "*?", "\\*/"))
@@ -0,0 +1,179 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import com.sonar.cxx.sslr.api.Token;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+/**
+ * Macro effects of an include file (precompiled header emulation).
+ *
+ * The result of processing an include file depends only on the macros it reads (#ifdef, defined(), expansions) and on
+ * the include files already processed in the unit (include guards). The summary records these inputs together with
+ * the resulting effects: defined and undefined macros, processed include files and missing include files. If a later
+ * unit includes the same file with identical inputs, the effects can be applied without processing the file again.
+ *
+ * Effects of nested include files are part of the summary of the including file.
+ */
+final class IncludeFileSummary {
+
+  private final List<Token> tokens;
+  private final List<List<Path>> environment;
+
+  // inputs: first value seen for a key (null: macro not defined)
+  private final Map<String, PPMacro> macroReads = new HashMap<>();
+  private final Map<Path, Boolean> includeReads = new HashMap<>();
+
+  // effects: macro value after processing (null: #undef)
+  private final Map<String, PPMacro> macroWrites = new LinkedHashMap<>();
+  private final Set<Path> includeWrites = new LinkedHashSet<>();
+  private int missingFiles = 0;
+
+  /**
+   * @param tokens directive tokens of the include file
+   * @param environment include directories and files which are used to resolve nested include files
+   */
+  IncludeFileSummary(List<Token> tokens, List<List<Path>> environment) {
+    this.tokens = tokens;
+    this.environment = environment;
+  }
+
+  void macroRead(String name, @Nullable PPMacro macro) {
+    if (!macroWrites.containsKey(name) && !macroReads.containsKey(name)) {
+      macroReads.put(name, macro);
+    }
+  }
+
+  void macroWritten(String name, @Nullable PPMacro macro) {
+    macroWrites.put(name, macro);
+  }
+
+  void includeRead(Path file, boolean analysed) {
+    if (!includeWrites.contains(file) && !includeReads.containsKey(file)) {
+      includeReads.put(file, analysed);
+    }
+  }
+
+  void includeWritten(Path file) {
+    includeWrites.add(file);
+  }
+
+  void missingFile() {
+    missingFiles++;
+  }
+
+  Map<String, PPMacro> getMacroWrites() {
+    return Collections.unmodifiableMap(macroWrites);
+  }
+
+  Set<Path> getIncludeWrites() {
+    return Collections.unmodifiableSet(includeWrites);
+  }
+
+  int getMissingFiles() {
+    return missingFiles;
+  }
+
+  /**
+   * Verify if the summary can be applied instead of processing the include file.
+   *
+   * @param tokens current directive tokens of the include file
+   * @param environment current include directories and files to resolve nested include files
+   * @param macros current macros of the unit
+   * @param analysed include files already processed in the unit
+   * @return true if the effects of the summary are valid
+   */
+  boolean matches(List<Token> tokens, List<List<Path>> environment, Function<String, PPMacro> macros,
+                  Predicate<Path> analysed) {
+    if (this.tokens != tokens || !this.environment.equals(environment)) {
+      return false;
+    }
+    for (var entry : includeReads.entrySet()) {
+      if (analysed.test(entry.getKey()) != entry.getValue()) {
+        return false;
+      }
+    }
+    for (var entry : macroReads.entrySet()) {
+      if (!isSameMacro(entry.getValue(), macros.apply(entry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Forward inputs and effects to the summary of an including file.
+   */
+  void replayTo(IncludeFileSummary target) {
+    macroReads.forEach(target::macroRead);
+    includeReads.forEach(target::includeRead);
+    macroWrites.forEach(target::macroWritten);
+    includeWrites.forEach(target::includeWritten);
+    target.missingFiles += missingFiles;
+  }
+
+  /**
+   * Macros are equal if they have the same parameters and the same replacement (token values, types and spacing).
+   */
+  static boolean isSameMacro(@Nullable PPMacro m1, @Nullable PPMacro m2) {
+    if (m1 == m2) {
+      return true;
+    }
+    if (m1 == null || m2 == null) {
+      return false;
+    }
+    return m1.identifier.equals(m2.identifier)
+      && m1.isVariadic == m2.isVariadic
+      && isSameTokens(m1.parameterList, m2.parameterList)
+      && isSameTokens(m1.replacementList, m2.replacementList);
+  }
+
+  private static boolean isSameTokens(@Nullable List<Token> l1, @Nullable List<Token> l2) {
+    if (l1 == null || l2 == null) {
+      return l1 == l2;
+    }
+    if (l1.size() != l2.size()) {
+      return false;
+    }
+    for (int i = 0; i < l1.size(); i++) {
+      var t1 = l1.get(i);
+      var t2 = l2.get(i);
+      if (!t1.getValue().equals(t2.getValue()) || !Objects.equals(t1.getType(), t2.getType())) {
+        return false;
+      }
+      if (i > 0 && (t1.getColumn() - l1.get(i - 1).getColumn()) != (t2.getColumn() - l2.get(i - 1).getColumn())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -46,31 +46,36 @@ public class JoinStringsPreprocessor extends Preprocessor {
 
   @Override
   public PreprocessorAction process(List<Token> tokens) {
-    if (tokens.size() < 3 || !CxxTokenType.STRING.equals(tokens.get(0).getType())) { // min 3 tokens, 2 srings and EOF
+    if (tokens.isEmpty() || !CxxTokenType.STRING.equals(tokens.get(0).getType())) {
       return PreprocessorAction.NO_OPERATION; // fast exit
     }
 
-    var nrOfAdjacentStringLiterals = 1;
+    // the remaining tokens may be provided on demand: only look at the tokens needed (no size(), no subList())
+    var concatenatedTokens = new ArrayList<Token>();
     var isGenerated = false;
-    for (int i = 1; i < tokens.size(); i++) {
-      var token = tokens.get(i);
+    var isFollowed = false;
+    var iterator = tokens.iterator();
+    concatenatedTokens.add(iterator.next());
+    while (iterator.hasNext()) {
+      var token = iterator.next();
       if (!CxxTokenType.STRING.equals(token.getType())) {
+        isFollowed = true;
         break;
       }
-      nrOfAdjacentStringLiterals++;
+      concatenatedTokens.add(token);
       isGenerated |= token.isGeneratedCode();
     }
 
-    if (nrOfAdjacentStringLiterals < 2) {
-      return PreprocessorAction.NO_OPERATION;
+    var nrOfAdjacentStringLiterals = concatenatedTokens.size();
+    if (nrOfAdjacentStringLiterals < 2 || (nrOfAdjacentStringLiterals == 2 && !isFollowed)) {
+      return PreprocessorAction.NO_OPERATION; // min 3 tokens, 2 srings and EOF
     }
 
     // Concatenate adjacent string literals
     // (C++ Standard, "2.2 Phases of translation, Phase 6")
-    var concatenatedTokens = new ArrayList<Token>(tokens.subList(0, nrOfAdjacentStringLiterals));
     String concatenatedLiteral = concatenateStringLiterals(concatenatedTokens);
     Trivia trivia = Trivia.createSkippedText(concatenatedTokens);
-    var firstToken = tokens.get(0);
+    var firstToken = concatenatedTokens.get(0);
     var tokenToInject = Token.builder()
       .setLine(firstToken.getLine())
       .setColumn(firstToken.getColumn())
@@ -25,9 +25,12 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 
@@ -37,12 +40,33 @@ import javax.annotation.CheckForNull;
  *
  * For recursively existing macros: - the container allows to deactivate macros temporarily in the search
  * (pushDisable/popDisable)
+ *
+ * For macros shared between units: - the container can be layered over an unmodifiable base, changes are stored in
+ * the container only (copy-on-write)
  */
 public class MacroContainer<K, V> {
 
+  private Map<K, V> base = Collections.emptyMap();
+  private Set<K> removed = new HashSet<>(); // keys of base removed from this container
   private Map<K, V> values = new HashMap<>();
   private Deque<K> disabled = new ArrayDeque<>();
 
+  /**
+   * Creates an empty container.
+   */
+  public MacroContainer() {
+    // empty base
+  }
+
+  /**
+   * Creates a container layered over the mappings of base. The base is shared and never modified by the container.
+   *
+   * @param base unmodifiable mappings, e.g. a result of {@link #snapshot()}
+   */
+  public MacroContainer(Map<K, V> base) {
+    this.base = base;
+  }
+
   /**
    * get value for key.
    *
@@ -51,6 +75,9 @@ public class MacroContainer<K, V> {
   @CheckForNull
   public V get(K key) {
     V v = values.get(key);
+    if ((v == null) && !base.isEmpty() && (removed.isEmpty() || !removed.contains(key))) {
+      v = base.get(key);
+    }
     if ((v != null) && (disabled.isEmpty() || !disabled.contains(key))) {
       return v;
     }
@@ -63,7 +90,11 @@ public class MacroContainer<K, V> {
    * mapping for the key, the old value is replaced by the specified new value.
    */
   public V put(K key, V value) {
-    return values.put(key, value);
+    V old = values.put(key, value);
+    if ((old == null) && !base.isEmpty() && !removed.remove(key)) {
+      old = base.get(key);
+    }
+    return old;
   }
 
   /**
@@ -71,7 +102,7 @@ public class MacroContainer<K, V> {
    * that of calling put(k, v)} on this container once for each mapping in the specified other container.
    */
   public void putAll(MacroContainer<K, V> m) {
-    values.putAll(m.values);
+    m.snapshot().forEach(this::put);
     disabled.addAll(m.disabled);
   }
 
@@ -81,13 +112,37 @@ public class MacroContainer<K, V> {
    * @return the previous value associated with key, or null if there was no mapping for key}.
    */
   public V remove(K key) {
-    return values.remove(key);
+    V old = values.remove(key);
+    if (!base.isEmpty() && base.containsKey(key) && removed.add(key) && (old == null)) {
+      old = base.get(key);
+    }
+    return old;
+  }
+
+  /**
+   * Unmodifiable copy of all mappings of the container (including disabled).
+   *
+   * The result can be used as base of other containers. If the container has not been modified since it was created,
+   * the base is returned without copying it.
+   *
+   * @return mappings of the container
+   */
+  public Map<K, V> snapshot() {
+    if (values.isEmpty() && removed.isEmpty()) {
+      return base;
+    }
+    var result = new HashMap<>(base);
+    result.keySet().removeAll(removed);
+    result.putAll(values);
+    return Collections.unmodifiableMap(result);
   }
 
   /**
    * clear container (values & disabled).
    */
   public void clear() {
+    base = Collections.emptyMap();
+    removed.clear();
     values.clear();
     disabled.clear();
   }
@@ -118,7 +173,7 @@ public class MacroContainer<K, V> {
    */
   public void writeToFile(String fileName) throws IOException {
     try (FileOutputStream fos = new FileOutputStream(fileName); ObjectOutputStream oos = new ObjectOutputStream(fos)) {
-      oos.writeObject(values);
+      oos.writeObject(new HashMap<>(snapshot()));
       oos.writeObject(disabled);
     }
   }
@@ -132,6 +187,8 @@ public class MacroContainer<K, V> {
    */
   public void readFromFile(String fileName) throws IOException, ClassNotFoundException {
     try (FileInputStream fis = new FileInputStream(fileName); ObjectInputStream ois = new ObjectInputStream(fis)) {
+      base = Collections.emptyMap();
+      removed = new HashSet<>();
       values = (Map) ois.readObject();
       disabled = (Deque) ois.readObject();
     }
@@ -142,7 +199,7 @@ public class MacroContainer<K, V> {
    */
   @Override
   public String toString() {
-    return values.values().stream()
+    return snapshot().values().stream()
       .map(Object::toString)
       .collect(Collectors.joining(", ", "[", "]"));
   }
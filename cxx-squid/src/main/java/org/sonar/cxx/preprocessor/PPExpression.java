@@ -102,6 +102,8 @@ import org.sonar.cxx.parser.CxxTokenType;
  *   logical-or-expression
  *   logical-or-expression ? expression : assignment-expression
  * }</pre>
+ *
+ * The usual arithmetic conversions of C++ are not applied: unsigned suffixes are ignored and all operations are signed.
  */
 final class PPExpression {
 
@@ -223,6 +225,10 @@ final class PPExpression {
           if (macro.replacementList.size() == 1 && macro.replacementList.get(0).getValue().equals(macro.identifier)) {
             // special case, self-referencing macro, e.g. __has_include=__has_include
             result = BigInteger.ONE;
+          } else if (macro.replacementList.size() == 1
+                       && CxxTokenType.NUMBER.equals(macro.replacementList.get(0).getType())) {
+            // most macros used in conditions are numbers (e.g. __cplusplus=201402L): no need to parse them
+            result = evalNumber(macro.replacementList.get(0).getValue());
           } else {
             macroEvaluationStack.push(id);
             result = evalToInt(TokenUtils.merge(macro.replacementList), exprAst);
@@ -28,6 +28,8 @@ import java.util.List;
 
 final class PPGeneratedToken {
 
+  private static final URI UNIT_TEST_URI = createUnitTestUri();
+
   private PPGeneratedToken() {
 
   }
@@ -75,20 +77,15 @@ final class PPGeneratedToken {
   /**
    * Create new token and mark it "generated".
    */
-  @SuppressWarnings({"java:S1075", "java:S112"})
   static Token build(TokenType type, String valueAndOriginalValue, int line, int column) {
-    try {
-      return Token.builder()
-        .setLine(line)
-        .setColumn(column)
-        .setValueAndOriginalValue(valueAndOriginalValue)
-        .setType(type)
-        .setURI(new URI("tests://unittest"))
-        .setGeneratedCode(true)
-        .build();
-    } catch (URISyntaxException e) {
-      throw new RuntimeException(e);
-    }
+    return Token.builder()
+      .setLine(line)
+      .setColumn(column)
+      .setValueAndOriginalValue(valueAndOriginalValue)
+      .setType(type)
+      .setURI(UNIT_TEST_URI)
+      .setGeneratedCode(true)
+      .build();
   }
 
   /**
@@ -102,4 +99,13 @@ final class PPGeneratedToken {
     return result;
   }
 
+  @SuppressWarnings({"java:S1075", "java:S112"})
+  private static URI createUnitTestUri() {
+    try {
+      return new URI("tests://unittest");
+    } catch (URISyntaxException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
 }
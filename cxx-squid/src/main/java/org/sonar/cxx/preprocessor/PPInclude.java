@@ -23,23 +23,29 @@ import com.sonar.cxx.sslr.api.AstNode;
 import com.sonar.cxx.sslr.api.Token;
 import com.sonar.cxx.sslr.impl.Lexer;
 import com.sonar.cxx.sslr.impl.token.TokenUtils;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.commons.io.ByteOrderMark;
-import org.apache.commons.io.input.BOMInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sonar.cxx.parser.CxxTokenType;
 
 /**
  * Includes other source file into current source file at the line immediately after the directive.  <code>
@@ -51,9 +57,22 @@ public class PPInclude {
   private static final Logger LOG = LoggerFactory.getLogger(PPInclude.class);
   private static final String LOGMSG = "preprocessor: {} '{}'";
 
+  // directive tokens of include files are independent of the unit: share them project wide
+  private static final IncludeFileCache CACHE = new IncludeFileCache();
+
+  // longest first: UTF-32LE BOM starts with UTF-16LE BOM
+  private static final ByteOrderMark[] BYTE_ORDER_MARKS = {
+    ByteOrderMark.UTF_32LE,
+    ByteOrderMark.UTF_32BE,
+    ByteOrderMark.UTF_8,
+    ByteOrderMark.UTF_16LE,
+    ByteOrderMark.UTF_16BE
+  };
+
   private final CxxPreprocessor pp;
   private final Lexer fileLexer;
   private final Set<Path> analysedFiles = new HashSet<>();
+  private final Deque<IncludeFileSummary> recorders = new ArrayDeque<>();
   private final List<Path> standardIncludeDirs = new ArrayList<>();
   private final PPState state;
 
@@ -61,7 +80,7 @@ public class PPInclude {
 
   public PPInclude(CxxPreprocessor pp, @Nonnull Path contextFile) {
     this.pp = pp;
-    fileLexer = IncludeFileLexer.create(pp);
+    fileLexer = IncludeFileLexer.create();
     state = PPState.build(contextFile);
   }
 
@@ -107,6 +126,10 @@ public class PPInclude {
    * Included files have to be scanned with the (only) goal of gathering macros. Process include files using a special
    * lexer, which calls back only if it finds relevant preprocessor directives (#...).
    *
+   * The directives of an include file are lexed only once per project and replayed from a cache for all other units.
+   * If the include file was already processed in another unit with the same inputs, only its macro effects are applied
+   * (see {@link IncludeFileSummary}).
+   *
    * @param ast AST node to handle
    * @param token current token
    */
@@ -114,22 +137,41 @@ public class PPInclude {
     Path fileName = searchFile(ast);
     if (fileName == null) {
       missingFileCounter++;
+      recorders.forEach(IncludeFileSummary::missingFile);
       String rootFilePath = state().getFileUnderAnalysisPath();
       LOG.debug("[{}:{}]: preprocessor cannot find include file '{}'",
         rootFilePath, token.getLine(), token.getValue());
-    } else if (analysedFiles.add(fileName)) {
-      state().pushFileState(fileName);
-      try {
-        LOG.debug("process include file '{}'", fileName);
-        fileLexer.lex(getSourceCode(fileName, pp.getCharset()));
-      } catch (IOException e) {
-        LOG.error(LOGMSG, e.getMessage(), fileName, e);
-      } finally {
-        state().popFileState();
+    } else {
+      boolean analysed = analysedFiles.contains(fileName);
+      for (var recorder : recorders) {
+        recorder.includeRead(fileName, analysed);
+      }
+      if (!analysed) {
+        analysedFiles.add(fileName);
+        recorders.forEach(recorder -> recorder.includeWritten(fileName));
+        processFile(fileName);
       }
     }
   }
 
+  /**
+   * Record macro lookups while processing include files.
+   */
+  void macroRead(String name, @Nullable PPMacro macro) {
+    for (var recorder : recorders) {
+      recorder.macroRead(name, macro);
+    }
+  }
+
+  /**
+   * Record macro definitions (macro != null) and #undef (macro == null) while processing include files.
+   */
+  void macroWritten(String name, @Nullable PPMacro macro) {
+    for (var recorder : recorders) {
+      recorder.macroWritten(name, macro);
+    }
+  }
+
   /**
    * Searches for a header and returns the file containing the contents of the header (from AST).
    *
@@ -213,33 +255,175 @@ public class PPInclude {
   /**
    * Returns the contents of the source file.
    *
+   * The file is memory mapped and decoded into a char[] backed CharBuffer, which the lexer uses without copying it.
+   *
    * @param fileName file to read the contents
    * @param defaultCharset character set to use if file has no BOM
    * @return returns the contents of the file
    */
-  public String getSourceCode(Path fileName, Charset defaultCharset) throws IOException {
-    try (var bomInputStream = BOMInputStream.builder()
-      .setInputStream(new FileInputStream(fileName.toFile()))
-      .setInclude(false)
-      .setByteOrderMarks(
-        ByteOrderMark.UTF_8,
-        ByteOrderMark.UTF_16LE,
-        ByteOrderMark.UTF_16BE,
-        ByteOrderMark.UTF_32LE,
-        ByteOrderMark.UTF_32BE
-      )
-      .get()) {
-      var bom = bomInputStream.getBOM();
-      Charset charset = bom != null ? Charset.forName(bom.getCharsetName()) : defaultCharset;
-      byte[] bytes = bomInputStream.readAllBytes();
-      return new String(bytes, charset);
+  public CharSequence getSourceCode(Path fileName, Charset defaultCharset) throws IOException {
+    try (var channel = FileChannel.open(fileName, StandardOpenOption.READ)) {
+      var bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      var charset = defaultCharset;
+      for (var bom : BYTE_ORDER_MARKS) {
+        if (startsWith(bytes, bom)) {
+          charset = Charset.forName(bom.getCharsetName());
+          bytes.position(bom.length());
+          break;
+        }
+      }
+      return charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+        .decode(bytes);
     }
   }
 
+  private static boolean startsWith(ByteBuffer bytes, ByteOrderMark bom) {
+    if (bytes.limit() < bom.length()) {
+      return false;
+    }
+    for (var i = 0; i < bom.length(); i++) {
+      if ((bytes.get(i) & 0xFF) != bom.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Statistics of the project wide include file cache.
+   *
+   * @return number of cache hits
+   */
+  public static long getCacheHits() {
+    return CACHE.getHits();
+  }
+
+  /**
+   * Statistics of the project wide include file cache.
+   *
+   * @return number of cache misses
+   */
+  public static long getCacheMisses() {
+    return CACHE.getMisses();
+  }
+
+  /**
+   * Statistics of the recorded macro effects of include files.
+   *
+   * @return number of applied macro effects
+   */
+  public static long getSummaryHits() {
+    return CACHE.getSummaryHits();
+  }
+
+  /**
+   * Statistics of the recorded macro effects of include files.
+   *
+   * @return number of include files processed without matching macro effects
+   */
+  public static long getSummaryMisses() {
+    return CACHE.getSummaryMisses();
+  }
+
+  /**
+   * Release the project wide include file cache (e.g. at the end of the analysis).
+   */
+  public static void clearCache() {
+    CACHE.clear();
+  }
+
+  /**
+   * Include files processed for the current unit (including nested include files).
+   *
+   * @return unmodifiable set of include files
+   */
+  public Set<Path> getAnalysedFiles() {
+    return Collections.unmodifiableSet(analysedFiles);
+  }
+
   public int getMissingFilesCounter() {
     return missingFileCounter;
   }
 
+  private void processFile(Path fileName) {
+    var environment = environment();
+    state().pushFileState(fileName);
+    try {
+      LOG.debug("process include file '{}'", fileName);
+      var tokens = CACHE.getTokens(fileName, pp.getCharset(), this::lexDirectives);
+      var summary = CACHE.getSummary(fileName,
+        s -> s.matches(tokens, environment, pp::getMacro, analysedFiles::contains));
+      if (summary != null) {
+        apply(summary);
+      } else {
+        summary = new IncludeFileSummary(tokens, environment);
+        recorders.push(summary);
+        try {
+          process(tokens);
+        } finally {
+          recorders.pop();
+        }
+        CACHE.addSummary(fileName, summary);
+      }
+    } catch (IOException e) {
+      LOG.error(LOGMSG, e.getMessage(), fileName, e);
+    } finally {
+      state().popFileState();
+    }
+  }
+
+  /**
+   * Include directories and files (of the include stack) used to resolve nested include files.
+   */
+  private List<List<Path>> environment() {
+    var files = new ArrayList<Path>();
+    var contextFile = state().getContextFile();
+    for (var item : state().getStack()) {
+      if (!item.getFile().equals(contextFile)) {
+        files.add(item.getFile());
+      }
+    }
+    return List.of(List.copyOf(standardIncludeDirs), files);
+  }
+
+  /**
+   * Apply the macro effects of an include file without processing it.
+   */
+  private void apply(IncludeFileSummary summary) {
+    for (var recorder : recorders) {
+      summary.replayTo(recorder);
+    }
+    summary.getMacroWrites().forEach(pp::setMacro);
+    analysedFiles.addAll(summary.getIncludeWrites());
+    missingFileCounter += summary.getMissingFiles();
+  }
+
+  /**
+   * Lex an include file and keep only the preprocessor directives.
+   */
+  private List<Token> lexDirectives(Path fileName, Charset charset) throws IOException {
+    var directives = new ArrayList<Token>();
+    for (var token : fileLexer.lex(getSourceCode(fileName, charset))) {
+      if (CxxTokenType.PREPROCESSOR.equals(token.getType())) {
+        directives.add(token);
+      }
+    }
+    return directives;
+  }
+
+  /**
+   * Replay tokens of an include file through the preprocessor (like the lexer does).
+   */
+  private void process(List<Token> tokens) {
+    int i = 0;
+    while (i < tokens.size()) {
+      var action = pp.process(tokens.subList(i, tokens.size()));
+      i += Math.max(action.getNumberOfConsumedTokens(), 1);
+    }
+  }
+
   /**
    * (1) Search bracketed filename.
    *
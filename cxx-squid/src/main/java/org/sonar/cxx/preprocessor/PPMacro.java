@@ -22,10 +22,14 @@ package org.sonar.cxx.preprocessor;
 import com.sonar.cxx.sslr.api.AstNode;
 import com.sonar.cxx.sslr.api.GenericTokenType;
 import com.sonar.cxx.sslr.api.Token;
+import com.sonar.cxx.sslr.impl.token.TokenUtils;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
 /**
@@ -44,6 +48,12 @@ final class PPMacro {
   public final boolean isVariadic; // (3, 4) => parameters, ...
   public final List<Token> replacementList;
 
+  // replacement list mapped to C++ tokens, created on first use: macros are shared between the parser threads (include
+  // file summaries), the immutable results are published with volatile writes, concurrent first calls create equal
+  // results
+  private volatile List<Token> cxxReplacementList = null;
+  private volatile Map<Token, List<Token>> cxxReplacementTokens = null;
+
   private PPMacro(String identifier,
                   @Nullable List<Token> parameterList,
                   @Nullable List<Token> replacementList,
@@ -135,6 +145,40 @@ final class PPMacro {
     return parameterNames;
   }
 
+  /**
+   * Object-like macro: replacement list (after concatenation) as C++ tokens.
+   *
+   * The replacement list is lexed only once, further calls return the same tokens.
+   */
+  List<Token> getCxxReplacementList() {
+    var tokens = cxxReplacementList;
+    if (tokens == null) {
+      tokens = TokenList.lex(TokenUtils.merge(PPConcatenation.concatenate(replacementList)));
+      cxxReplacementList = tokens;
+    }
+    return tokens;
+  }
+
+  /**
+   * Function-like macro: C++ tokens of a token of the replacement list.
+   *
+   * @param token token of the replacement list
+   * @return C++ tokens, null if the token is not part of the replacement list
+   */
+  @CheckForNull
+  List<Token> getCxxTokens(Token token) {
+    var tokens = cxxReplacementTokens;
+    if (tokens == null) {
+      var lexed = new IdentityHashMap<Token, List<Token>>(replacementList.size());
+      for (var replacementToken : replacementList) {
+        lexed.put(replacementToken, TokenList.lex(replacementToken.getValue()));
+      }
+      tokens = Collections.unmodifiableMap(lexed);
+      cxxReplacementTokens = tokens;
+    }
+    return tokens.get(token);
+  }
+
   int getParameterIndex(String parameterName) {
     if (isFunctionLikeMacro()) {
       for (int i = 0; i < parameterList.size(); i++) {
@@ -27,21 +27,23 @@ import org.sonar.cxx.sslr.grammar.GrammarRuleKey;
 
 final class PPParser {
 
+  // grammar is immutable after creation: share it (and the compiled grammar) between all preprocessor instances
+  private static final Grammar GRAMMAR = PPGrammarImpl.create();
+
   private PPParser() {
   }
 
   static Parser<Grammar> create(Charset charset) {
-    return Parser.builder(PPGrammarImpl.create())
+    return Parser.builder(GRAMMAR)
       .withLexer(PPLexer.create(charset))
       .build();
   }
 
   static Parser<Grammar> create(GrammarRuleKey rootRuleKey, Charset charset) {
-    var grammar = PPGrammarImpl.create();
-    Parser<Grammar> parser = Parser.builder(grammar)
+    Parser<Grammar> parser = Parser.builder(GRAMMAR)
       .withLexer(PPLexer.create(charset))
       .build();
-    parser.setRootRule(grammar.rule(rootRuleKey));
+    parser.setRootRule(GRAMMAR.rule(rootRuleKey));
     return parser;
   }
 
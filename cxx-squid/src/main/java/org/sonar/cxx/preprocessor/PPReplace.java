@@ -24,16 +24,25 @@ import com.sonar.cxx.sslr.api.Token;
 import com.sonar.cxx.sslr.api.TokenType;
 import com.sonar.cxx.sslr.impl.token.TokenUtils;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
 import org.sonar.cxx.parser.CxxKeyword;
+import org.sonar.cxx.parser.CxxPunctuator;
 import org.sonar.cxx.parser.CxxTokenType;
 
 /**
  * Replace text macros while possibly concatenating or quoting identifiers (controlled by directives #define and #undef,
  * and operators # and ##).
+ *
+ * Replacement is done on token level: replacement lists are lexed once per macro and arguments are expanded as tokens.
+ * Only tokens created by the operators # and ## are lexed again.
  */
 class PPReplace {
 
+  private static final Token COMMA = PPGeneratedToken.build(CxxPunctuator.COMMA, ",", 1, 0);
+
   private final CxxPreprocessor pp;
 
   PPReplace(CxxPreprocessor pp) {
@@ -46,7 +55,18 @@ class PPReplace {
    * Object-like macros replace every occurrence of defined identifier with replacement-list. Version (1) of the #define
    * directive behaves exactly like that.
    */
-  List<Token> replaceObjectLikeMacro(PPMacro macro, String macroExpression) {
+  List<Token> replaceObjectLikeMacro(PPMacro macro) {
+    List<Token> tokens = pp.tokenizeMacro(macro, macro.getCxxReplacementList());
+
+    // make sure that all expanded Tokens are marked as generated it will prevent
+    // them from being involved into NCLOC / complexity / highlighting
+    return PPGeneratedToken.markAllAsGenerated(tokens);
+  }
+
+  /**
+   * Replacement as text: macro expression is lexed again (fallback if replacement on token level is not possible).
+   */
+  private List<Token> replaceObjectLikeMacro(PPMacro macro, String macroExpression) {
     List<Token> tokens = pp.tokenizeMacro(macro, macroExpression);
 
     // make sure that all expanded Tokens are marked as generated it will prevent
@@ -61,26 +81,22 @@ class PPReplace {
    * number of arguments, which then replace corresponding occurrences of any of the parameters in the replacement-list.
    */
   int replaceFunctionLikeMacro(PPMacro macro, List<Token> restTokens, List<Token> expansion) {
-    List<Token> arguments = new ArrayList<>();
+    var arguments = new Arguments();
     int tokensConsumedMatchingArgs = extractArguments(restTokens, arguments);
 
     if (macro.checkArgumentsCount(arguments.size())) {
       if (arguments.size() > macro.parameterList.size()) {
         // group all arguments into the last one (__VA_ARGS__)
-        List<Token> vaargs = arguments.subList(macro.parameterList.size() - 1, arguments.size());
-        var firstToken = vaargs.get(0);
-        arguments = arguments.subList(0, macro.parameterList.size() - 1);
-        arguments.add(Token.builder()
-          .setLine(firstToken.getLine())
-          .setColumn(firstToken.getColumn())
-          .setURI(firstToken.getURI())
-          .setValueAndOriginalValue(TokenUtils.merge(vaargs, ","))
-          .setType(CxxTokenType.STRING)
-          .build());
+        arguments.group(macro.parameterList.size() - 1);
       }
       List<Token> replTokens = replaceParams(macro, arguments);
       replTokens = PPConcatenation.concatenate(replTokens);
-      expansion.addAll(replaceObjectLikeMacro(macro, TokenUtils.merge(replTokens)));
+      List<Token> cxxTokens = arguments.toCxxTokens(macro, replTokens);
+      if (cxxTokens != null) {
+        expansion.addAll(PPGeneratedToken.markAllAsGenerated(pp.tokenizeMacro(macro, cxxTokens)));
+      } else {
+        expansion.addAll(replaceObjectLikeMacro(macro, TokenUtils.merge(replTokens)));
+      }
     }
 
     return tokensConsumedMatchingArgs;
@@ -93,7 +109,7 @@ class PPReplace {
    * left and right parentheses.
    */
   @SuppressWarnings({"java:S3776", "java:S1541"})
-  private static int extractArguments(List<Token> tokens, List<Token> arguments) {
+  private static int extractArguments(List<Token> tokens, Arguments arguments) {
     // argument list must start with '('
     int size = tokens.size();
     if ((size < 1) || !"(".equals(tokens.get(0).getValue())) {
@@ -126,16 +142,7 @@ class PPReplace {
       // add argument to list
       if (addArgument) {
         if ((i - fromIndex) > 1) {
-          var matchedTokens = tokens.subList(fromIndex + 1, i);
-          var firstToken = matchedTokens.get(0);
-
-          arguments.add(Token.builder()
-            .setLine(firstToken.getLine())
-            .setColumn(firstToken.getColumn())
-            .setURI(firstToken.getURI())
-            .setValueAndOriginalValue(TokenUtils.merge(matchedTokens).trim()) // trim because of SONARPLUGINS-3060 issue
-            .setType(CxxTokenType.STRING)
-            .build());
+          arguments.add(tokens.subList(fromIndex + 1, i));
         }
         // end of parameter list: closing ')'
         if (nestingLevel < 0) {
@@ -158,7 +165,7 @@ class PPReplace {
    * Taking a number of arguments, which then replace corresponding occurrences of any of the parameters in the
    * replacement-list.
    */
-  private List<Token> replaceParams(PPMacro macro, List<Token> arguments) {
+  private List<Token> replaceParams(PPMacro macro, Arguments arguments) {
     var result = new ArrayList<Token>(macro.replacementList.size());
     handleOperators(macro.replacementList, macro.getParameterNames(), arguments, result);
     return result;
@@ -175,7 +182,7 @@ class PPReplace {
    *
    */
   @SuppressWarnings({"java:S3776"})
-  private void handleOperators(List<Token> replacementList, List<String> parameters, List<Token> arguments,
+  private void handleOperators(List<Token> replacementList, List<String> parameters, Arguments arguments,
     List<Token> result) {
 
     int tokensConsumed = 0;
@@ -188,6 +195,7 @@ class PPReplace {
 
       Token argument = token;
       String newValue = "";
+      List<Token> newTokens = null;
 
       int parameterIndex = getParameterIndex(token, parameters);
       if (parameterIndex == -1) {
@@ -195,7 +203,7 @@ class PPReplace {
         // not a token to be replaced by a macro argument
         //
         if (((i = handleVaOpt(view, parameters, arguments, result)) <= 0)
-          && ((i = handleConcatenation(view, parameters, arguments, result)) <= 0)) {
+          && ((i = handleConcatenation(view, parameters, arguments.values, result)) <= 0)) {
           result.add(token);
         }
       } else if (parameterIndex < arguments.size()) {
@@ -204,17 +212,26 @@ class PPReplace {
         //
         argument = arguments.get(parameterIndex);
 
-        if (((i = handleConcatenation(view, parameters, arguments, result)) <= 0)
+        if (((i = handleConcatenation(view, parameters, arguments.values, result)) <= 0)
           && (tokensConsumed < 1 || !handleStringification(
             replacementList.subList(tokensConsumed - 1, replacementList.size()), argument, result))) {
-          newValue = expand(argument.getValue());
+          if (arguments.tokens != null) {
+            newTokens = pp.preprocess(arguments.tokens.get(parameterIndex));
+            newValue = TokenUtils.merge(newTokens);
+          } else {
+            newValue = expand(argument.getValue());
+          }
         }
       }
 
       if (newValue.isEmpty()) {
         handleEmptyVaArgs(view, result);
       } else {
-        result.add(PPGeneratedToken.build(argument, argument.getType(), newValue));
+        var newToken = PPGeneratedToken.build(argument, argument.getType(), newValue);
+        if (newTokens != null) {
+          arguments.expanded.put(newToken, newTokens);
+        }
+        result.add(newToken);
       }
 
       tokensConsumed += (i + 1);
@@ -341,7 +358,7 @@ class PPReplace {
    * </code>
    */
   @SuppressWarnings({"java:S3776", "java:S1142"})
-  private int handleVaOpt(List<Token> replacementList, List<String> parameters, List<Token> arguments,
+  private int handleVaOpt(List<Token> replacementList, List<String> parameters, Arguments arguments,
     List<Token> result) {
     var firstIndex = -1;
     var lastIndex = -1;
@@ -384,4 +401,142 @@ class PPReplace {
     return consumedTokens;
   }
 
+  /**
+   * Arguments of a function-like macro invocation.
+   *
+   * Each argument is available as one token with the merged text (used for # and ##) and as list of the C++ tokens of
+   * the argument (used for the replacement on token level).
+   */
+  private static final class Arguments {
+
+    private final List<Token> values = new ArrayList<>();
+    private List<List<Token>> tokens = new ArrayList<>(); // null: replacement on token level is not possible
+    private final Map<Token, List<Token>> expanded = new IdentityHashMap<>(); // replaced parameter => its tokens
+
+    int size() {
+      return values.size();
+    }
+
+    Token get(int index) {
+      return values.get(index);
+    }
+
+    void add(List<Token> argumentTokens) {
+      var firstToken = argumentTokens.get(0);
+      values.add(Token.builder()
+        .setLine(firstToken.getLine())
+        .setColumn(firstToken.getColumn())
+        .setURI(firstToken.getURI())
+        .setValueAndOriginalValue(TokenUtils.merge(argumentTokens).trim()) // trim because of SONARPLUGINS-3060 issue
+        .setType(CxxTokenType.STRING)
+        .build());
+
+      if (tokens != null) {
+        if (isCxxTokens(argumentTokens)) {
+          tokens.add(argumentTokens);
+        } else {
+          tokens = null;
+        }
+      }
+    }
+
+    /**
+     * Group all arguments starting with index into one argument (separated by commas).
+     */
+    void group(int index) {
+      List<Token> vaargs = values.subList(index, values.size());
+      var firstToken = vaargs.get(0);
+      var vaarg = Token.builder()
+        .setLine(firstToken.getLine())
+        .setColumn(firstToken.getColumn())
+        .setURI(firstToken.getURI())
+        .setValueAndOriginalValue(TokenUtils.merge(vaargs, ","))
+        .setType(CxxTokenType.STRING)
+        .build();
+      vaargs.clear();
+      values.add(vaarg);
+
+      if (tokens != null) {
+        var vaargsTokens = tokens.subList(index, tokens.size());
+        var vaargTokens = new ArrayList<Token>();
+        for (var argumentTokens : vaargsTokens) {
+          if (!vaargTokens.isEmpty()) {
+            vaargTokens.add(COMMA);
+          }
+          vaargTokens.addAll(argumentTokens);
+        }
+        vaargsTokens.clear();
+        tokens.add(vaargTokens);
+      }
+    }
+
+    /**
+     * Map the result of the parameter replacement to C++ tokens: tokens of the replacement list and replaced parameters
+     * are already available, only tokens created by # and ## are lexed.
+     *
+     * @return C++ tokens, null if the result has to be lexed as text
+     */
+    @CheckForNull
+    List<Token> toCxxTokens(PPMacro macro, List<Token> replTokens) {
+      if (tokens == null) {
+        return null;
+      }
+      var result = new ArrayList<Token>(replTokens.size());
+      for (var token : replTokens) {
+        var cxxTokens = expanded.get(token);
+        if (cxxTokens == null) {
+          cxxTokens = macro.getCxxTokens(token);
+        }
+        if (cxxTokens == null) {
+          cxxTokens = lex(token.getValue());
+        }
+        if (cxxTokens == null) {
+          return null;
+        }
+        result.addAll(cxxTokens);
+      }
+      return isCxxTokens(result) ? result : null;
+    }
+
+    /**
+     * Lex a created token. Returns null if the value could be lexed differently in the context of the other tokens
+     * (comments, line continuation, preprocessor directives, unterminated literals).
+     */
+    @CheckForNull
+    private static List<Token> lex(String value) {
+      var result = TokenList.lex(value);
+      if ((result.size() == 1 && result.get(0).getValue().equals(value))
+            || value.chars().noneMatch(c -> c == '/' || c == '\\' || c == '#' || c == '"' || c == '\'')) {
+        return result;
+      }
+      return null;
+    }
+
+    /**
+     * Tokens can be used instead of lexing their merged values again (tokens with # can become preprocessor directives).
+     */
+    private static boolean isCxxTokens(List<Token> tokens) {
+      if (!tokens.isEmpty() && isSpecialIdentifier(tokens.get(0).getValue())) {
+        return false;
+      }
+      for (var token : tokens) {
+        var type = token.getType();
+        if ((type instanceof PPPunctuator) || (type instanceof PPKeyword) || token.getValue().startsWith("#")) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean isSpecialIdentifier(String value) {
+      for (var identifier : PPSpecialIdentifier.values()) {
+        if (identifier.getValue().equals(value)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+  }
+
 }
@@ -21,18 +21,29 @@ package org.sonar.cxx.preprocessor;
 
 import com.sonar.cxx.sslr.api.Token;
 import com.sonar.cxx.sslr.impl.Lexer;
+import com.sonar.cxx.sslr.impl.token.TokenUtils;
 import java.util.ArrayList;
 import java.util.List;
 import org.sonar.cxx.parser.CxxLexerPool;
 
 final class TokenList {
 
-  private static Lexer lexer = null;
+  // lexer is not thread-safe: one lazily created instance per thread
+  private static final ThreadLocal<Lexer> LEXER = ThreadLocal.withInitial(() -> CxxLexerPool.create().getLexer());
 
   private TokenList() {
 
   }
 
+  /**
+   * Lex a string with the CXX lexer (without preprocessing).
+   *
+   * @return tokens without EOF
+   */
+  static List<Token> lex(String value) {
+    return List.copyOf(TokenUtils.removeLastTokenIfEof(LEXER.get().lex(value)));
+  }
+
   /**
    * Adjust token positions to new position.
    */
@@ -54,10 +65,7 @@ final class TokenList {
    */
   static List<Token> transformToCxx(List<Token> ppTokens, Token newPos) {
     List<Token> result = new ArrayList<>(ppTokens.size());
-
-    if (lexer == null) { // lazy initialization
-      lexer = CxxLexerPool.create().getLexer();
-    }
+    var lexer = LEXER.get();
 
     for (var ppToken : ppTokens) {
       String value = ppToken.getValue();
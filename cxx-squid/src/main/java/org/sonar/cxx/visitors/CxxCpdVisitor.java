@@ -106,7 +106,7 @@ public class CxxCpdVisitor extends SquidAstVisitor<Grammar> implements AstAndTok
     public final int endCol;
     public final String token;
 
-    CpdToken(int startLine, int startCol, int endLine, int endCol, String token) {
+    public CpdToken(int startLine, int startCol, int endLine, int endCol, String token) {
       this.startLine = startLine;
       this.startCol = startCol;
       this.endLine = endLine;
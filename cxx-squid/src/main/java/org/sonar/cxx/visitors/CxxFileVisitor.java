@@ -21,15 +21,68 @@ package org.sonar.cxx.visitors;
 
 import com.sonar.cxx.sslr.api.AstNode;
 import com.sonar.cxx.sslr.api.Grammar;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.cxx.parser.CxxParser;
 import org.sonar.cxx.squidbridge.SquidAstVisitor;
+import org.sonar.cxx.squidbridge.api.SourceFile;
+import org.sonar.cxx.squidbridge.measures.CalculatedMetricFormula;
+import org.sonar.cxx.squidbridge.measures.MetricDef;
 
 public class CxxFileVisitor<GRAMMAR extends Grammar> extends SquidAstVisitor<GRAMMAR> {
 
+  /**
+   * @return include files processed by the preprocessor for the given file; empty if not available
+   */
+  @SuppressWarnings("unchecked")
+  public static Set<Path> getIncludedFiles(SourceFile sourceFile) {
+    var includedFiles = (Set<Path>) sourceFile.getData(DataKey.INCLUDED_FILES);
+    return includedFiles != null ? includedFiles : Collections.emptySet();
+  }
+
+  public static void eraseIncludedFiles(SourceFile sourceFile) {
+    sourceFile.removeMeasure(DataKey.INCLUDED_FILES);
+  }
+
   @Override
   public void visitFile(@Nullable AstNode node) {
-    CxxParser.finishedParsing();
+    if (getContext().peekSourceCode() instanceof SourceFile sourceFile) {
+      sourceFile.addData(DataKey.INCLUDED_FILES, Set.copyOf(CxxParser.getIncludedFiles(getContext())));
+    }
+    CxxParser.finishedParsing(getContext());
+  }
+
+  private enum DataKey implements MetricDef {
+    INCLUDED_FILES;
+
+    @Override
+    public String getName() {
+      return name();
+    }
+
+    @Override
+    public boolean isCalculatedMetric() {
+      return false;
+    }
+
+    @Override
+    public boolean aggregateIfThereIsAlreadyAValue() {
+      return false;
+    }
+
+    @Override
+    public boolean isThereAggregationFormula() {
+      return false;
+    }
+
+    @Override
+    @CheckForNull
+    public CalculatedMetricFormula getCalculatedMetricFormula() {
+      return null;
+    }
   }
 
 }
@@ -103,7 +103,7 @@ public class CxxHighlighterVisitor extends SquidAstVisitor<Grammar> implements A
     public final int endLineOffset;
     public final String typeOfText;
 
-    Highlight(int startLine, int startLineOffset, int endLine, int endLineOffset, String typeOfText) {
+    public Highlight(int startLine, int startLineOffset, int endLine, int endLineOffset, String typeOfText) {
       this.startLine = startLine;
       this.startLineOffset = startLineOffset;
       this.endLine = endLine;
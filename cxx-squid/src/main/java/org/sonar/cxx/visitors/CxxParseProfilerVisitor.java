@@ -0,0 +1,68 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.visitors;
+
+import com.sonar.cxx.sslr.api.AstNode;
+import com.sonar.cxx.sslr.api.Grammar;
+import com.sonar.cxx.sslr.impl.Parser;
+import javax.annotation.Nullable;
+import org.sonar.cxx.parser.CxxParseProfiler;
+import org.sonar.cxx.squidbridge.SquidAstVisitor;
+import org.sonar.cxx.sslr.internal.vm.MachineStatistics;
+
+/**
+ * Passes the counters of the parsing machine for each file to the profiler.
+ *
+ * The visitor must be used with the scanner of the parser: a file is parsed before it is visited, so the counters
+ * collected up to visitFile belong to this file.
+ */
+public class CxxParseProfilerVisitor<G extends Grammar> extends SquidAstVisitor<G> {
+
+  private final Parser<G> parser;
+  private final CxxParseProfiler profiler;
+  private MachineStatistics statistics;
+
+  public CxxParseProfilerVisitor(Parser<G> parser, CxxParseProfiler profiler) {
+    this.parser = parser;
+    this.profiler = profiler;
+  }
+
+  @Override
+  public void init() {
+    startFile();
+  }
+
+  @Override
+  public void visitFile(@Nullable AstNode astNode) {
+    profiler.add(getContext().getFile().getPath(), statistics);
+    startFile();
+  }
+
+  @Override
+  public void destroy() {
+    parser.setStatistics(null);
+  }
+
+  private void startFile() {
+    statistics = new MachineStatistics();
+    parser.setStatistics(statistics);
+  }
+
+}
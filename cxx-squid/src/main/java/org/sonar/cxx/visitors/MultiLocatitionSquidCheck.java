@@ -60,6 +60,13 @@ public class MultiLocatitionSquidCheck<G extends Grammar> extends SquidCheck<G>
     return issues != null && !issues.isEmpty();
   }
 
+  /**
+   * Set the multi-location issues of the given file (e.g. to restore them from a cache).
+   */
+  public static void setMultiLocationCheckMessages(SourceFile sourceFile, Set<CxxReportIssue> messages) {
+    setMultiLocationViolation(sourceFile, new HashSet<>(messages));
+  }
+
   public static void eraseMultilineCheckMessages(SourceFile sourceFile) {
     setMultiLocationViolation(sourceFile, null);
   }
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import static org.assertj.core.api.Assertions.*;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.Test;
@@ -30,7 +31,11 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.sonar.cxx.api.CxxMetric;
 import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.squidbridge.AstScanner;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.cxx.squidbridge.api.SourceCode;
 import org.sonar.cxx.squidbridge.api.SourceFile;
+import org.sonar.cxx.squidbridge.api.SourceFunction;
 import org.sonar.cxx.squidbridge.api.SourceProject;
 import org.sonar.cxx.squidbridge.indexer.QueryByType;
 
@@ -131,4 +136,90 @@ class CxxAstScannerTest {
     assertThat(file.getNoSonarTagLines()).containsOnly(3, 6, 9, 11);
   }
 
+  @Test
+  void parallelScan() throws IOException {
+    var inputFiles = new ArrayList<InputFile>();
+    for (var name : List.of("classes.cc", "comments.cc", "complexity.cc", "functions.cc", "namespace.cc",
+      "statements.cc", "trivial.cc")) {
+      inputFiles.add(CxxFileTesterHelper.create("src/test/resources/metrics/" + name, ".", "").asInputFile());
+    }
+
+    var sequential = CxxAstScanner.create(new CxxSquidConfiguration());
+    sequential.scanInputFiles(inputFiles);
+
+    var squidConfig = new CxxSquidConfiguration();
+    var parallel = CxxAstScanner.create(squidConfig);
+    parallel.scanInputFiles(inputFiles, 3, () -> CxxAstScanner.create(squidConfig));
+
+    var expected = sequential.getIndex().search(new QueryByType(SourceFile.class));
+    var actual = parallel.getIndex().search(new QueryByType(SourceFile.class));
+    assertThat(actual).hasSize(7).containsExactlyInAnyOrderElementsOf(expected);
+    assertThat(parallel.getIndex().search(new QueryByType(SourceFunction.class)))
+      .containsExactlyInAnyOrderElementsOf(sequential.getIndex().search(new QueryByType(SourceFunction.class)));
+
+    var softly = new SoftAssertions();
+    for (var metric : CxxMetric.values()) {
+      if (!metric.isCalculatedMetric()) {
+        softly.assertThat(project(parallel).getDouble(metric)).as(metric.getName())
+          .isEqualTo(project(sequential).getDouble(metric));
+      }
+    }
+    for (var file : expected) {
+      SourceCode other = parallel.getIndex().search(file.getKey());
+      softly.assertThat(other.getParent(SourceProject.class)).isSameAs(project(parallel));
+      softly.assertThat(other.getInt(CxxMetric.COMPLEXITY)).isEqualTo(file.getInt(CxxMetric.COMPLEXITY));
+      softly.assertThat(other.getInt(CxxMetric.LINES_OF_CODE)).isEqualTo(file.getInt(CxxMetric.LINES_OF_CODE));
+    }
+    softly.assertAll();
+  }
+
+  @Test
+  void fileScannedCallback() throws IOException {
+    var inputFiles = new ArrayList<InputFile>();
+    for (var name : List.of("classes.cc", "functions.cc", "statements.cc", "trivial.cc")) {
+      inputFiles.add(CxxFileTesterHelper.create("src/test/resources/metrics/" + name, ".", "").asInputFile());
+    }
+
+    var reference = CxxAstScanner.create(new CxxSquidConfiguration());
+    reference.scanInputFiles(inputFiles);
+
+    var sequentialFiles = new ArrayList<SourceCode>();
+    var sequential = CxxAstScanner.create(new CxxSquidConfiguration());
+    sequential.setFileScannedCallback(file -> {
+      // all visitors have left the file
+      assertThat(file.getData(CxxMetric.CPD_TOKENS_DATA)).isNotNull();
+      sequentialFiles.add(file);
+    });
+    sequential.scanInputFiles(inputFiles);
+
+    var parallelFiles = new ArrayList<SourceCode>();
+    var squidConfig = new CxxSquidConfiguration();
+    var parallel = CxxAstScanner.create(squidConfig);
+    parallel.setFileScannedCallback(parallelFiles::add);
+    parallel.scanInputFiles(inputFiles, 2, () -> CxxAstScanner.create(squidConfig));
+
+    assertThat(sequentialFiles)
+      .containsExactlyInAnyOrderElementsOf(reference.getIndex().search(new QueryByType(SourceFile.class)));
+    assertThat(parallelFiles)
+      .containsExactlyInAnyOrderElementsOf(reference.getIndex().search(new QueryByType(SourceFile.class)));
+
+    var softly = new SoftAssertions();
+    for (var metric : CxxMetric.values()) {
+      softly.assertThat(project(sequential).getDouble(metric)).as(metric.getName())
+        .isEqualTo(project(reference).getDouble(metric));
+      softly.assertThat(project(parallel).getDouble(metric)).as(metric.getName())
+        .isEqualTo(project(reference).getDouble(metric));
+    }
+    for (var file : sequentialFiles) {
+      SourceCode expected = reference.getIndex().search(file.getKey());
+      softly.assertThat(file.getInt(CxxMetric.FUNCTIONS)).isEqualTo(expected.getInt(CxxMetric.FUNCTIONS));
+      softly.assertThat(file.getInt(CxxMetric.COMPLEXITY)).isEqualTo(expected.getInt(CxxMetric.COMPLEXITY));
+    }
+    softly.assertAll();
+  }
+
+  private static SourceProject project(AstScanner<?> scanner) {
+    return (SourceProject) scanner.getIndex().search(new QueryByType(SourceProject.class)).iterator().next();
+  }
+
 }
@@ -278,6 +278,35 @@ class CxxSquidConfigurationTest {
     softly.assertAll();
   }
 
+  @Test
+  void testUnitAddedAfterSearch() {
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add("a/b/c", "key", "value1");
+    squidConfig.add(CxxSquidConfiguration.GLOBAL, "key", "value2");
+
+    var softly = new SoftAssertions();
+    softly.assertThat(squidConfig.getValues("d/e/f", "key")).containsExactly("value2");
+    squidConfig.add("d/e/f", "key", "value3");
+    softly.assertThat(squidConfig.getValues("d/e/f", "key")).containsExactly("value3", "value2");
+    softly.assertAll();
+  }
+
+  @Test
+  void testSharedValuesAreNotModified() {
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add("a/b/c", "key", List.of("value1", "value2"));
+    squidConfig.add("d/e/f", "key", List.of("value1", "value2"));
+
+    var softly = new SoftAssertions();
+    softly.assertThat(squidConfig.getLevelValues("a/b/c", "key")).containsExactly("value1", "value2");
+    softly.assertThat(squidConfig.getLevelValues("d/e/f", "key")).containsExactly("value1", "value2");
+    squidConfig.add("a/b/c", "key", "value3");
+    squidConfig.getLevelValues("d/e/f", "key").add("value4");
+    softly.assertThat(squidConfig.getLevelValues("a/b/c", "key")).containsExactly("value1", "value2", "value3");
+    softly.assertThat(squidConfig.getLevelValues("d/e/f", "key")).containsExactly("value1", "value2");
+    softly.assertAll();
+  }
+
   @Test
   void testPathNames() {
     var squidConfig = new CxxSquidConfiguration();
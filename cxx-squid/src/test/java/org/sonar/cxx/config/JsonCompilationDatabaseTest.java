@@ -22,11 +22,14 @@ package org.sonar.cxx.config;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import static org.assertj.core.api.Assertions.*;
+import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.sonar.api.internal.apachecommons.lang3.SystemUtils;
 
 class JsonCompilationDatabaseTest {
@@ -285,6 +288,68 @@ class JsonCompilationDatabaseTest {
       .contains(unifyPath("/usr/include"));
   }
 
+  @Test
+  void testFileFilter() throws Exception {
+    var squidConfig = new CxxSquidConfiguration();
+    var file = new File("src/test/resources/jsondb/compile_commands.json");
+
+    var filename = Path.of("test-with-arguments.cpp").toAbsolutePath().normalize();
+    var jsonDb = new JsonCompilationDatabase(squidConfig, filename::equals);
+    jsonDb.parse(file);
+
+    List<String> defines = squidConfig.getValues(filename.toString(), CxxSquidConfiguration.DEFINES);
+
+    assertThat(squidConfig.getFiles()).containsOnly(filename);
+    assertThat(defines)
+      .contains("ARG_DEFINE 1")
+      .contains("GLOBAL_DEFINE 1");
+  }
+
+  @Test
+  void testSameOptions(@TempDir Path tempDir) throws Exception {
+    var squidConfig = new CxxSquidConfiguration();
+    var file = tempDir.resolve("compile_commands.json");
+    Files.writeString(file, """
+      [
+        { "directory": ".", "file": "a.cpp", "command": "gcc -DA=1 -I inc -o a.o a.cpp" },
+        { "directory": ".", "file": "b.cpp", "command": "gcc -DA=1 -I inc -o b.o b.cpp" },
+        { "directory": ".", "file": "c.cpp", "command": "gcc -DA=1 -I -DB -o c.o c.cpp" }
+      ]
+      """);
+
+    var jsonDb = new JsonCompilationDatabase(squidConfig);
+    jsonDb.parse(file.toFile());
+
+    var a = Path.of("a.cpp").toAbsolutePath().normalize().toString();
+    var b = Path.of("b.cpp").toAbsolutePath().normalize().toString();
+    var c = Path.of("c.cpp").toAbsolutePath().normalize().toString();
+    var include = Path.of("inc").normalize().toString();
+
+    var softly = new SoftAssertions();
+    softly.assertThat(squidConfig.getValues(a, CxxSquidConfiguration.DEFINES)).containsExactly("A 1");
+    softly.assertThat(squidConfig.getValues(a, CxxSquidConfiguration.INCLUDE_DIRECTORIES)).containsExactly(include);
+    softly.assertThat(squidConfig.getValues(b, CxxSquidConfiguration.DEFINES)).containsExactly("A 1");
+    softly.assertThat(squidConfig.getValues(b, CxxSquidConfiguration.INCLUDE_DIRECTORIES)).containsExactly(include);
+    softly.assertThat(squidConfig.getValues(c, CxxSquidConfiguration.DEFINES)).containsOnly("A 1", "B 1");
+    softly.assertThat(squidConfig.getValues(c, CxxSquidConfiguration.INCLUDE_DIRECTORIES)).isEmpty();
+    softly.assertAll();
+  }
+
+  @Test
+  void testSingleCommandObject(@TempDir Path tempDir) throws Exception {
+    var squidConfig = new CxxSquidConfiguration();
+    var file = tempDir.resolve("compile_commands.json");
+    Files.writeString(file, """
+      { "directory": ".", "file": "a.cpp", "arguments": ["gcc", "-DA"], "unknown": { "x": [1, 2] } }
+      """);
+
+    var jsonDb = new JsonCompilationDatabase(squidConfig);
+    jsonDb.parse(file.toFile());
+
+    var a = Path.of("a.cpp").toAbsolutePath().normalize().toString();
+    assertThat(squidConfig.getValues(a, CxxSquidConfiguration.DEFINES)).containsExactly("A 1");
+  }
+
   @Test
   void testInvalidJson() {
     var squidConfig = new CxxSquidConfiguration();
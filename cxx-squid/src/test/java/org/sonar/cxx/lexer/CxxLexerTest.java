@@ -584,6 +584,26 @@ class CxxLexerTest {
     );
   }
 
+  @Test
+  void numberLiteralBoundaries() {
+    var values = new ArrayList<LiteralValuesBuilder>(Arrays.asList(
+      LiteralValuesBuilder.builder("0b2").tokenValue("0b2").tokenType(CxxTokenType.NUMBER).build(),
+      LiteralValuesBuilder.builder("0b12").tokenValue("0b1").tokenType(CxxTokenType.NUMBER).build(),
+      LiteralValuesBuilder.builder("0x").tokenValue("0x").tokenType(CxxTokenType.NUMBER).build(),
+      LiteralValuesBuilder.builder("0x1.8p+3").tokenValue("0x1.8p+3").tokenType(CxxTokenType.NUMBER).build(),
+      LiteralValuesBuilder.builder("1.e5").tokenValue("1.e5").tokenType(CxxTokenType.NUMBER).build(),
+      LiteralValuesBuilder.builder("1e+x").tokenValue("1e").tokenType(CxxTokenType.NUMBER).build(),
+      LiteralValuesBuilder.builder("1'").tokenValue("1").tokenType(CxxTokenType.NUMBER).build(),
+      LiteralValuesBuilder.builder("1''2").tokenValue("1").tokenType(CxxTokenType.NUMBER).build(),
+      LiteralValuesBuilder.builder(".5.5").tokenValue(".5").tokenType(CxxTokenType.NUMBER).build()
+    ));
+
+    values.forEach((LiteralValuesBuilder value)
+      -> assertThat(lexer.lex(value.lexerValue)).as("Literal %s", value.lexerValue).anySatisfy(token
+        -> assertThat(token).isValue(value.tokenValue).hasType(value.tokenType))
+    );
+  }
+
   /**
    * C++ Standard, Section 2.14.6 "Boolean literals"
    */
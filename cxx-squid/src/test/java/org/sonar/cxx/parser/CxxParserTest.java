@@ -167,6 +167,22 @@ class CxxParserTest {
     verify(root, erroneousSources, map);
   }
 
+  @Test
+  void testChangedConfiguration() {
+    var squidConfig = new CxxSquidConfiguration();
+    var grammar = CxxParser.create(context, squidConfig).getGrammar();
+    assertThat(CxxParser.create(context, squidConfig).getGrammar()).isSameAs(grammar);
+
+    // grammar depends on error recovery: configuration changed after the first parser was created
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.ERROR_RECOVERY_ENABLED,
+      "false");
+    Parser<Grammar> p = CxxParser.create(context, squidConfig);
+    assertThat(p.getGrammar()).isNotSameAs(grammar);
+    assertThatThrownBy(() -> {
+      parse(p, erroneousSources);
+    }).isInstanceOf(IllegalStateException.class);
+  }
+
   private List<File> listFiles(String[] dirs, String[] extensions) {
     var files = new ArrayList<File>();
     for (var dir : dirs) {
@@ -197,7 +213,7 @@ class CxxParserTest {
     AstNode root = null;
     try {
       root = parser.parse(file);
-      CxxParser.finishedParsing();
+      CxxParser.finishedParsing(context);
     } catch (Exception e) {
       throw new IllegalStateException(file.toString(), e);
     }
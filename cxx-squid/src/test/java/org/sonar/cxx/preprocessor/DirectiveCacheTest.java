@@ -0,0 +1,102 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import com.sonar.cxx.sslr.api.AstNode;
+import com.sonar.cxx.sslr.api.GenericTokenType;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+class DirectiveCacheTest {
+
+  private final List<String> parsed = new ArrayList<>();
+
+  private AstNode parse(String directive) {
+    parsed.add(directive);
+    return PPParser.lineParser(directive);
+  }
+
+  private AstNode parseError(String directive) {
+    parsed.add(directive);
+    return null;
+  }
+
+  private AstNode dummy(String directive) {
+    parsed.add(directive);
+    return new AstNode(GenericTokenType.IDENTIFIER, directive, null);
+  }
+
+  @Test
+  void parseOnlyOnce() {
+    var cache = new DirectiveCache();
+
+    var first = cache.get("#endif", this::parse);
+    var second = cache.get("#endif", this::parse);
+    cache.get("#else", this::parse);
+
+    assertThat(first).isNotNull();
+    assertThat(second).isSameAs(first);
+    assertThat(parsed).containsExactly("#endif", "#else");
+    assertThat(cache.getHits()).isEqualTo(1);
+    assertThat(cache.getMisses()).isEqualTo(2);
+  }
+
+  @Test
+  void parseErrorsAreNotCached() {
+    var cache = new DirectiveCache();
+
+    assertThat(cache.get("#if (", this::parseError)).isNull();
+    assertThat(cache.get("#if (", this::parseError)).isNull();
+
+    assertThat(parsed).hasSize(2);
+    assertThat(cache.getHits()).isZero();
+  }
+
+  @Test
+  void leastRecentlyUsedIsRemoved() {
+    var cache = new DirectiveCache();
+
+    cache.get("#define A", this::dummy);
+    cache.get("#define B", this::dummy);
+    for (int i = 0; i < 10_000; i++) {
+      cache.get("#define A", this::dummy);
+      cache.get("#define X" + i, this::dummy);
+    }
+    parsed.clear();
+    cache.get("#define A", this::dummy);
+    cache.get("#define B", this::dummy);
+
+    assertThat(parsed).containsExactly("#define B");
+  }
+
+  @Test
+  void clear() {
+    var cache = new DirectiveCache();
+
+    cache.get("#pragma once", this::parse);
+    cache.clear();
+    cache.get("#pragma once", this::parse);
+
+    assertThat(parsed).hasSize(2);
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import com.sonar.cxx.sslr.api.Token;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncludeFileCacheTest {
+
+  @TempDir
+  Path tempDir;
+
+  private final List<Path> lexed = new ArrayList<>();
+
+  private List<Token> lex(Path file, Charset charset) throws IOException {
+    lexed.add(file);
+    return IncludeFileLexer.create().lex(Files.readString(file, charset));
+  }
+
+  @Test
+  void lexOnlyOnce() throws IOException {
+    var file = Files.writeString(tempDir.resolve("a.h"), "#define A 1\n");
+    var cache = new IncludeFileCache();
+
+    var first = cache.getTokens(file, StandardCharsets.UTF_8, this::lex);
+    var second = cache.getTokens(file, StandardCharsets.UTF_8, this::lex);
+
+    assertThat(second).isSameAs(first);
+    assertThat(lexed).containsExactly(file);
+    assertThat(cache.getHits()).isEqualTo(1);
+    assertThat(cache.getMisses()).isEqualTo(1);
+  }
+
+  @Test
+  void invalidateOnChange() throws IOException {
+    var file = Files.writeString(tempDir.resolve("b.h"), "#define B 1\n");
+    var cache = new IncludeFileCache();
+    var first = cache.getTokens(file, StandardCharsets.UTF_8, this::lex);
+
+    Files.writeString(file, "#define B 1\n#define C 2\n");
+    var second = cache.getTokens(file, StandardCharsets.UTF_8, this::lex);
+    assertThat(second).isNotSameAs(first);
+
+    Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+    cache.getTokens(file, StandardCharsets.UTF_8, this::lex);
+    cache.getTokens(file, StandardCharsets.ISO_8859_1, this::lex);
+
+    assertThat(lexed).hasSize(4);
+    assertThat(cache.getHits()).isZero();
+  }
+
+  @Test
+  void clear() throws IOException {
+    var file = Files.writeString(tempDir.resolve("c.h"), "#define C 1\n");
+    var cache = new IncludeFileCache();
+    cache.getTokens(file, StandardCharsets.UTF_8, this::lex);
+    cache.clear();
+    cache.getTokens(file, StandardCharsets.UTF_8, this::lex);
+
+    assertThat(lexed).hasSize(2);
+  }
+
+  @Test
+  void missingFile() {
+    var cache = new IncludeFileCache();
+    var file = tempDir.resolve("missing.h");
+    assertThatThrownBy(() -> cache.getTokens(file, StandardCharsets.UTF_8, this::lex))
+      .isInstanceOf(IOException.class);
+    assertThat(lexed).containsExactly(file);
+  }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+class IncludeFileSummaryTest {
+
+  private final List<List<Path>> environment = List.of(List.of(Path.of("inc")), List.of());
+
+  @Test
+  void recordInputsAndEffects() {
+    var summary = new IncludeFileSummary(List.of(), environment);
+    var a = PPMacro.create("#define A 1");
+    summary.macroRead("A", a);
+    summary.macroRead("A", null); // first value wins
+    summary.macroWritten("B", PPMacro.create("#define B 2"));
+    summary.macroRead("B", null); // internal read
+    summary.macroWritten("A", null);
+    summary.includeRead(Path.of("x.h"), false);
+    summary.includeWritten(Path.of("x.h"));
+    summary.includeRead(Path.of("x.h"), true); // internal read
+    summary.missingFile();
+
+    var macros = new HashMap<String, PPMacro>();
+    macros.put("A", PPMacro.create("#define A 1"));
+    assertThat(summary.matches(List.of(), environment, macros::get, Set.of()::contains)).isTrue();
+    assertThat(summary.matches(List.of(), environment, name -> null, Set.of()::contains)).isFalse();
+    assertThat(summary.matches(List.of(), environment, macros::get, Set.of(Path.of("x.h"))::contains)).isFalse();
+    assertThat(summary.matches(List.of(), List.of(List.of(), List.of()), macros::get, Set.of()::contains)).isFalse();
+
+    assertThat(summary.getMacroWrites()).containsOnlyKeys("A", "B");
+    assertThat(summary.getMacroWrites().get("A")).isNull();
+    assertThat(summary.getIncludeWrites()).containsExactly(Path.of("x.h"));
+    assertThat(summary.getMissingFiles()).isEqualTo(1);
+  }
+
+  @Test
+  void replayToIncludingFile() {
+    var nested = new IncludeFileSummary(List.of(), environment);
+    nested.macroRead("A", null);
+    nested.macroWritten("B", PPMacro.create("#define B 2"));
+    nested.includeRead(Path.of("y.h"), true);
+    nested.includeWritten(Path.of("x.h"));
+    nested.missingFile();
+
+    var target = new IncludeFileSummary(List.of(), environment);
+    target.macroWritten("A", PPMacro.create("#define A 1"));
+    nested.replayTo(target);
+
+    assertThat(target.matches(List.of(), environment, name -> null, Set.of()::contains)).isFalse();
+    assertThat(target.matches(List.of(), environment, name -> null, Set.of(Path.of("y.h"))::contains)).isTrue();
+    assertThat(target.getMacroWrites()).containsOnlyKeys("A", "B");
+    assertThat(target.getIncludeWrites()).containsExactly(Path.of("x.h"));
+    assertThat(target.getMissingFiles()).isEqualTo(1);
+  }
+
+  @Test
+  void sameMacro() {
+    var macro = PPMacro.create("#define F(a, b) a + b");
+    assertThat(IncludeFileSummary.isSameMacro(null, null)).isTrue();
+    assertThat(IncludeFileSummary.isSameMacro(macro, macro)).isTrue();
+    assertThat(IncludeFileSummary.isSameMacro(macro, PPMacro.create("#define F(a, b) a + b"))).isTrue();
+    assertThat(IncludeFileSummary.isSameMacro(macro, null)).isFalse();
+    assertThat(IncludeFileSummary.isSameMacro(macro, PPMacro.create("#define F(a, b) a - b"))).isFalse();
+    assertThat(IncludeFileSummary.isSameMacro(macro, PPMacro.create("#define F(a, c) a + c"))).isFalse();
+    assertThat(IncludeFileSummary.isSameMacro(macro, PPMacro.create("#define F(a, b) a +b"))).isFalse();
+    assertThat(IncludeFileSummary.isSameMacro(macro, PPMacro.create("#define F (a, b) a + b"))).isFalse();
+  }
+
+}
@@ -53,4 +53,17 @@ class JoinStringsPreprocessorTest {
       .matches(t -> "\"B\"".equals(t.get(1).getValue()));
   }
 
+  @Test
+  void testProcessStopsAtFirstNonString() {
+    List<Token> tokens = lexer.lex("\"A\"\"B\"\"C\" x \"D\"");
+    PreprocessorAction result = pp.process(tokens);
+    assertThat(result.getNumberOfConsumedTokens()).isEqualTo(3);
+    assertThat(result.getTokensToInject())
+      .hasSize(1)
+      .matches(t -> "\"ABC\"".equals(t.get(0).getValue()));
+
+    assertThat(pp.process(tokens.subList(0, 2))).isSameAs(PreprocessorAction.NO_OPERATION); // min 3 tokens
+    assertThat(pp.process(tokens.subList(3, tokens.size()))).isSameAs(PreprocessorAction.NO_OPERATION);
+  }
+
 }
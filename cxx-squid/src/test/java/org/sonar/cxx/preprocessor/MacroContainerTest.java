@@ -21,6 +21,7 @@ package org.sonar.cxx.preprocessor;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Map;
 import static org.assertj.core.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -75,6 +76,37 @@ class MacroContainerTest {
     assertThat(mc.get("k")).isEqualTo("v");
   }
 
+  @Test
+  void baseMapping() {
+    var base = Map.of("k1", "v1", "k2", "v2");
+    mc = new MacroContainer<>(base);
+    assertThat(mc.get("k1")).isEqualTo("v1");
+    assertThat(mc.put("k1", "x1")).isEqualTo("v1");
+    assertThat(mc.get("k1")).isEqualTo("x1");
+    assertThat(mc.remove("k2")).isEqualTo("v2");
+    assertThat(mc.get("k2")).isNull();
+    assertThat(mc.put("k2", "x2")).isNull();
+    assertThat(mc.get("k2")).isEqualTo("x2");
+    assertThat(base).containsOnly(entry("k1", "v1"), entry("k2", "v2"));
+  }
+
+  @Test
+  void snapshot() {
+    var base = Map.of("k1", "v1", "k2", "v2");
+    mc = new MacroContainer<>(base);
+    assertThat(mc.snapshot()).isSameAs(base);
+
+    mc.remove("k1");
+    mc.put("k3", "v3");
+    var snapshot = mc.snapshot();
+    assertThat(snapshot).containsOnly(entry("k2", "v2"), entry("k3", "v3"));
+
+    var other = new MacroContainer<>(snapshot);
+    other.put("k4", "v4");
+    assertThat(other.get("k3")).isEqualTo("v3");
+    assertThat(mc.get("k4")).isNull();
+  }
+
   @Test
   void persistentStorage(@TempDir Path tempDir) throws IOException, ClassNotFoundException {
     Path fileName = tempDir.resolve("container.test");
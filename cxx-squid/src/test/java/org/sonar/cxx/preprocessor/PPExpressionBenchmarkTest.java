@@ -0,0 +1,109 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.cxx.preprocessor;
+
+import com.sonar.cxx.sslr.api.AstNode;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.regex.Pattern;
+import static org.assertj.core.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.parser.CxxLexerPool;
+import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
+
+/**
+ * Benchmark of the evaluation of #if and #elif conditions of real source code.
+ *
+ * The file is preprocessed first, so the conditions are evaluated with the macros defined by the file and its include
+ * files. The benchmark is skipped by default, run it with
+ * {@code mvn test -Dtest=PPExpressionBenchmarkTest -Dcxx.benchmark=true [-Dcxx.benchmark.file=...]}.
+ */
+@EnabledIfSystemProperty(named = "cxx.benchmark", matches = "true")
+class PPExpressionBenchmarkTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PPExpressionBenchmarkTest.class);
+
+  private static final String DEFAULT_FILE
+    = "../integration-tests/testdata/googletest_project/tests/gtest-1.7.0/gtest/gtest.h";
+  private static final Pattern CONDITION = Pattern.compile("^\\s*#\\s*(?:if|elif)\\s+(.+)$", Pattern.MULTILINE);
+  private static final int EVALUATIONS = 1_000_000;
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int ROUNDS = 20;
+
+  @Test
+  void evaluateConditions() throws IOException {
+    var file = new File(System.getProperty("cxx.benchmark.file", DEFAULT_FILE)).getAbsoluteFile();
+    var text = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+
+    var context = mock(SquidAstVisitorContext.class);
+    when(context.getFile()).thenReturn(file);
+    var squidConfig = new CxxSquidConfiguration();
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.INCLUDE_DIRECTORIES,
+      file.getParentFile().getParent());
+    var pp = new CxxPreprocessor(context, squidConfig);
+    pp.init();
+    CxxLexerPool.create(squidConfig.getCharset(), pp).getLexer().lex(text);
+
+    var parser = PPParser.create(PPGrammarImpl.constantExpression, squidConfig.getCharset());
+    var conditions = new ArrayList<AstNode>();
+    var matcher = CONDITION.matcher(text);
+    while (matcher.find()) {
+      var condition = matcher.group(1).replaceAll("//.*|/\\*.*", "").trim();
+      if (!condition.endsWith("\\")) {
+        conditions.add(parser.parse(condition));
+      }
+    }
+    assertThat(conditions).isNotEmpty();
+
+    var expression = new PPExpression(pp);
+    int iterations = Math.max(1, EVALUATIONS / conditions.size());
+    var times = new ArrayList<Double>();
+    long trueConditions = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (var condition : conditions) {
+          if (expression.evaluate(condition)) {
+            trueConditions++;
+          }
+        }
+      }
+      if (round >= WARMUP_ROUNDS) {
+        times.add((System.nanoTime() - start) / ((double) iterations * conditions.size()));
+      }
+    }
+    Collections.sort(times);
+
+    LOG.info("PPExpression benchmark '{}': {} conditions ({} true), median {} ns per condition", file,
+      conditions.size(), trueConditions / ((long) iterations * (WARMUP_ROUNDS + ROUNDS)),
+      String.format("%.0f", times.get(times.size() / 2)));
+  }
+
+}
@@ -300,12 +300,64 @@ class PPExpressionTest {
     assertThat(evaluate("~0xFFFFFFFFFFFFFFFF")).isFalse();
   }
 
+  @Test
+  void longOverflow() {
+    var softly = new SoftAssertions();
+    softly.assertThat(evaluate("9223372036854775807 + 1 > 9223372036854775807")).isTrue();
+    softly.assertThat(evaluate("-9223372036854775807 - 2 < -9223372036854775807")).isTrue();
+    softly.assertThat(evaluate("4294967296 * 4294967296 == 0")).isFalse();
+    softly.assertThat(evaluate("-(-9223372036854775807 - 1) > 0")).isTrue();
+    softly.assertThat(evaluate("0xFFFFFFFFFFFFFFFF > 0")).isTrue();
+    softly.assertThat(evaluate("0xFFFFFFFFFFFFFFFF == 18446744073709551615")).isTrue();
+    softly.assertThat(evaluate("0xFFFFFFFFFFFFFFFF + 1 == 0")).isFalse();
+    softly.assertThat(evaluate("~0 == 0xFFFFFFFFFFFFFFFF")).isTrue();
+    softly.assertThat(evaluate("~(-1) == 0")).isTrue();
+    softly.assertThat(evaluate("1 << 62 == 4611686018427387904")).isTrue();
+    softly.assertThat(evaluate("1 << 63 > 0")).isTrue();
+    softly.assertThat(evaluate("1 << 64")).isFalse();
+    softly.assertThat(evaluate("3 << 63 == 0x8000000000000000")).isTrue();
+    softly.assertThat(evaluate("-1 >> 100 == -1")).isTrue();
+    softly.assertThat(evaluate("1 >> 100")).isFalse();
+    softly.assertThat(evaluate("(-9223372036854775807 - 1) / -1 > 0")).isTrue();
+    softly.assertThat(evaluate("(-7) / 2 == -3")).isTrue();
+    softly.assertThat(evaluate("(-7) % 2 == 1")).isTrue();
+    softly.assertAll();
+  }
+
+  @Test
+  void unsignedArithmetic() {
+    // the usual arithmetic conversions are not applied: unsigned values are evaluated like signed values
+    var softly = new SoftAssertions();
+    softly.assertThat(evaluate("-1 < 0u")).isTrue();
+    softly.assertThat(evaluate("0u - 1 < 0")).isTrue();
+    softly.assertThat(evaluate("(0u - 1) / 2 == 0")).isTrue();
+    softly.assertThat(evaluate("-1 >> 1u == -1")).isTrue();
+    softly.assertThat(evaluate("0xFFFFFFFFFFFFFFFFu > -1")).isTrue();
+    softly.assertThat(evaluate("0xFFFFFFFFFFFFFFFFu + 1 > 0xFFFFFFFFFFFFFFFFu")).isTrue();
+    softly.assertAll();
+  }
+
   @Test
   void identifierDefined() {
     doReturn(PPMacro.create("#define LALA 1")).when(pp).getMacro("LALA");
     assertThat(evaluate("LALA")).isTrue();
   }
 
+  @Test
+  void identifierDefinedAsNumber() {
+    doReturn(PPMacro.create("#define WINVER 0x0601")).when(pp).getMacro("WINVER");
+    doReturn(PPMacro.create("#define CPLUSPLUS 201402L")).when(pp).getMacro("CPLUSPLUS");
+    doReturn(PPMacro.create("#define ZERO 0")).when(pp).getMacro("ZERO");
+
+    var softly = new SoftAssertions();
+    softly.assertThat(evaluate("WINVER >= 0x0600")).isTrue();
+    softly.assertThat(evaluate("WINVER > 0x0601")).isFalse();
+    softly.assertThat(evaluate("CPLUSPLUS > 201103L")).isTrue();
+    softly.assertThat(evaluate("ZERO")).isFalse();
+    softly.assertThat(evaluate("-ZERO - 1 < 0")).isTrue();
+    softly.assertAll();
+  }
+
   @Test
   void selfReferentialIdentifier0() {
     doReturn(PPMacro.create("#define A A")).when(pp).getMacro("A");
@@ -378,6 +430,7 @@ class PPExpressionTest {
   void functionlikeMacroUndefined() {
     doReturn(null).when(pp).getMacro(any());
     assertThat(evaluate("has_feature(URG)")).isFalse();
+    assertThat(evaluate("has_feature(URG) + 1 == 1")).isTrue();
   }
 
   @Test
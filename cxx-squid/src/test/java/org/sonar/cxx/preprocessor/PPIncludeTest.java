@@ -36,6 +36,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import org.sonar.cxx.parser.CxxLexerPool;
 import org.sonar.cxx.squidbridge.SquidAstVisitorContext;
 
 class PPIncludeTest {
@@ -244,34 +245,73 @@ class PPIncludeTest {
   @Test
   void gettingSourceCode1() throws IOException {
     include = new PPInclude(pp, Path.of("dummy"));
-    assertThat(include.getSourceCode(expected1, Charset.defaultCharset())).isEqualTo("source code");
+    assertThat(include.getSourceCode(expected1, Charset.defaultCharset())).hasToString("source code");
   }
 
   @Test
   void gettingSourceCode2() throws IOException {
     include = new PPInclude(pp, Path.of("dummy"));
-    assertThat(include.getSourceCode(expected2, Charset.defaultCharset())).isEqualTo("source code");
+    assertThat(include.getSourceCode(expected2, Charset.defaultCharset())).hasToString("source code");
   }
 
   @Test
   void gettingSourceCodeUtf8() throws IOException {
     include = new PPInclude(pp, Path.of("dummy"));
     assertThat(include.getSourceCode(root.resolve("./utf-8.hh"),
-      Charset.defaultCharset())).isEqualTo("UTF-8");
+      Charset.defaultCharset())).hasToString("UTF-8");
   }
 
   @Test
   void gettingSourceCodeUtf8Bom() throws IOException {
     include = new PPInclude(pp, Path.of("dummy"));
     assertThat(include.getSourceCode(root.resolve("./utf-8-bom.hh"),
-      Charset.defaultCharset())).isEqualTo("UTF-8-BOM");
+      Charset.defaultCharset())).hasToString("UTF-8-BOM");
   }
 
   @Test
   void gettingSourceCodeUtf16LeBom() throws IOException {
     include = new PPInclude(pp, Path.of("dummy"));
     assertThat(include.getSourceCode(root.resolve("./utf-16le-bom.hh"),
-      Charset.defaultCharset())).isEqualTo("UTF-16LE-BOM");
+      Charset.defaultCharset())).hasToString("UTF-16LE-BOM");
+  }
+
+  @Test
+  void applyMacroEffectsOfIncludeFile() throws IOException {
+    var header = Files.writeString(tempDir.toPath().resolve("effects.h"), """
+      #ifndef EFFECTS_H
+      #define EFFECTS_H
+      #ifdef FEATURE
+      #define VALUE 1
+      #else
+      #define VALUE 2
+      #endif
+      #endif
+      """);
+    var includeLine = "#include \"" + header.toAbsolutePath() + "\"\n";
+
+    var context = mock(SquidAstVisitorContext.class);
+    var unitPreprocessor = new CxxPreprocessor(context);
+    var lexer = CxxLexerPool.create(unitPreprocessor).getLexer();
+    long hits = PPInclude.getSummaryHits();
+
+    when(context.getFile()).thenReturn(new File("unit1.cpp"));
+    assertThat(lexer.lex(includeLine + "VALUE\n").get(0).getValue()).isEqualTo("2");
+    unitPreprocessor.finishedPreprocessing();
+    assertThat(PPInclude.getSummaryHits()).isEqualTo(hits);
+
+    when(context.getFile()).thenReturn(new File("unit2.cpp"));
+    assertThat(lexer.lex(includeLine + includeLine + "VALUE\n").get(0).getValue()).isEqualTo("2");
+    unitPreprocessor.finishedPreprocessing();
+    assertThat(PPInclude.getSummaryHits()).isEqualTo(hits + 1);
+
+    when(context.getFile()).thenReturn(new File("unit3.cpp"));
+    assertThat(lexer.lex("#define FEATURE\n" + includeLine + "VALUE\n").get(0).getValue()).isEqualTo("1");
+    unitPreprocessor.finishedPreprocessing();
+
+    when(context.getFile()).thenReturn(new File("unit4.cpp"));
+    assertThat(lexer.lex("#define EFFECTS_H\n" + includeLine + "VALUE\n").get(0).getValue()).isEqualTo("VALUE");
+    unitPreprocessor.finishedPreprocessing();
+    assertThat(PPInclude.getSummaryHits()).isEqualTo(hits + 1);
   }
 
 }
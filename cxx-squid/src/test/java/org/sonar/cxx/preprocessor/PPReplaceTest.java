@@ -19,6 +19,7 @@
  */
 package org.sonar.cxx.preprocessor;
 
+import com.sonar.cxx.sslr.api.GenericTokenType;
 import com.sonar.cxx.sslr.api.Token;
 import com.sonar.cxx.sslr.impl.Lexer;
 import java.io.File;
@@ -27,6 +28,9 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.sonar.cxx.parser.CxxLexerPool;
+import org.sonar.cxx.parser.CxxPunctuator;
+import org.sonar.cxx.parser.CxxTokenType;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
@@ -50,8 +54,8 @@ class PPReplaceTest {
 
   @Test
   void testReplaceObjectLikeMacro() {
-    PPMacro macro = pp.parseMacroDefinition("#define DUMMY"); // only necessary to call replaceObjectLikeMacro
-    List<Token> result = replace.replaceObjectLikeMacro(macro, "__LINE__");
+    PPMacro macro = pp.parseMacroDefinition("#define DUMMY __LINE__");
+    List<Token> result = replace.replaceObjectLikeMacro(macro);
     assertThat(result)
       .hasSize(1)
       .matches(t -> "1".equals(t.get(0).getValue()));
@@ -71,4 +75,36 @@ class PPReplaceTest {
       .matches(t -> "2".equals(t.get(2).getValue()));
   }
 
+  @Test
+  void testReplaceFunctionLikeMacroOperators() {
+    List<Token> args = CxxLexerPool.create().getLexer().lex("(x, y, 1, 2)");
+    PPMacro macro = pp.parseMacroDefinition("#define TEST(a, b, ...) a ## b = #a + f(__VA_ARGS__)");
+
+    var result = new ArrayList<Token>();
+    int num = replace.replaceFunctionLikeMacro(macro, args, result);
+    assertThat(num).isEqualTo(args.size() - 1);
+    assertThat(result)
+      .extracting(Token::getValue)
+      .containsExactly("xy", "=", "\"x\"", "+", "f", "(", "1", ",", "2", ")");
+    assertThat(result)
+      .extracting(Token::getType)
+      .containsExactly(GenericTokenType.IDENTIFIER, CxxPunctuator.ASSIGN, CxxTokenType.STRING, CxxPunctuator.PLUS,
+                       GenericTokenType.IDENTIFIER, CxxPunctuator.BR_LEFT, CxxTokenType.NUMBER, CxxPunctuator.COMMA,
+                       CxxTokenType.NUMBER, CxxPunctuator.BR_RIGHT);
+  }
+
+  @Test
+  void testReplaceFunctionLikeMacroNested() {
+    pp.setMacro("INNER", pp.parseMacroDefinition("#define INNER(a) (a * 2)"));
+    List<Token> args = CxxLexerPool.create().getLexer().lex("(INNER(3))");
+    PPMacro macro = pp.parseMacroDefinition("#define OUTER(a) a + a");
+
+    var result = new ArrayList<Token>();
+    replace.replaceFunctionLikeMacro(macro, args, result);
+    assertThat(result)
+      .extracting(Token::getValue)
+      .containsExactly("(", "3", "*", "2", ")", "+", "(", "3", "*", "2", ")");
+    assertThat(result).allMatch(Token::isGeneratedCode);
+  }
+
 }
@@ -23,6 +23,7 @@
  */
 package com.sonar.cxx.sslr.api; // cxx: in use
 
+import java.util.Collections;
 import java.util.List;
 import javax.annotation.Nullable;
 
@@ -42,6 +43,17 @@ public interface AstVisitor {
    */
   List<AstNodeType> getAstNodeTypesToVisit();
 
+  /**
+   * The AST node names that this check must be registered for. Use this if only the names of the nodes are known, e.g.
+   * for the node tests of an XPath query. A visitor should not subscribe to a node by type and by name, otherwise it is
+   * called twice for this node.
+   *
+   * @return the AST node names this must be registered for.
+   */
+  default List<String> getAstNodeNamesToVisit() {
+    return Collections.emptyList();
+  }
+
   /**
    * Called before starting visiting a computation unit tree. Ideal place to initialize information that is to be
    * collected while processing the tree.
@@ -113,6 +113,11 @@ public abstract class Preprocessor {
    * list parameter is immutable.
    * </p>
    *
+   * <p>
+   * The tokens of a chained preprocessor are generated on demand by the previous preprocessor: prefer get/iterator
+   * over size/subList to look only at the tokens needed. The list is only valid during this call.
+   * </p>
+   *
    * @param tokens
    * An unmodifiable list of the remaining tokens.
    * @return
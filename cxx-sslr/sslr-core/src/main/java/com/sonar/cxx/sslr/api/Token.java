@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -40,28 +41,21 @@ public final class Token {
 
   private final TokenType type;
   private final String value;
-  private final String originalValue;
   private final int line;
   private final int column;
   private final URI uri;
-  private final boolean generatedCode;
   private final List<Trivia> trivia;
-  private final boolean copyBook;
-  private final int copyBookOriginalLine;
-  private final String copyBookOriginalFileName;
+  @CheckForNull
+  private final Details details;
 
   private Token(Builder builder) {
     this.type = builder.type;
     this.value = builder.value;
-    this.originalValue = builder.originalValue;
     this.line = builder.line;
     this.column = builder.column;
     this.uri = builder.uri;
-    this.generatedCode = builder.generatedCode;
-    this.trivia = builder.trivia.isEmpty() ? Collections.emptyList() : new ArrayList<>(builder.trivia);
-    this.copyBook = builder.copyBook;
-    this.copyBookOriginalLine = builder.copyBookOriginalLine;
-    this.copyBookOriginalFileName = builder.copyBookOriginalFileName;
+    this.trivia = builder.triviaOwned ? List.copyOf(builder.trivia) : builder.trivia;
+    this.details = Details.create(builder);
   }
 
   /**
@@ -89,7 +83,7 @@ public final class Token {
    * @return the original value of the token
    */
   public String getOriginalValue() {
-    return originalValue;
+    return details == null || details.originalValue == null ? value : details.originalValue;
   }
 
   /**
@@ -120,7 +114,7 @@ public final class Token {
   }
 
   public boolean isCopyBook() {
-    return copyBook;
+    return details != null && details.copyBookOriginalFileName != null;
   }
 
   /**
@@ -129,7 +123,7 @@ public final class Token {
    * @return true if token is part of generated code.
    */
   public boolean isGeneratedCode() {
-    return generatedCode;
+    return details != null && details.generatedCode;
   }
 
   /**
@@ -152,11 +146,11 @@ public final class Token {
   }
 
   public int getCopyBookOriginalLine() {
-    return copyBookOriginalLine;
+    return isCopyBook() ? details.copyBookOriginalLine : -1;
   }
 
   public String getCopyBookOriginalFileName() {
-    return copyBookOriginalFileName;
+    return isCopyBook() ? details.copyBookOriginalFileName : "";
   }
 
   /**
@@ -193,6 +187,40 @@ public final class Token {
     return new Builder(token);
   }
 
+  /**
+   * Attributes which are rarely set. They are kept out of the token to keep the (many) tokens small: tokens without
+   * such attributes don't have details at all, generated tokens share one instance.
+   */
+  private static final class Details {
+
+    private static final Details GENERATED = new Details(null, true, null, -1);
+
+    @CheckForNull
+    private final String originalValue;
+    private final boolean generatedCode;
+    @CheckForNull
+    private final String copyBookOriginalFileName;
+    private final int copyBookOriginalLine;
+
+    private Details(@Nullable String originalValue, boolean generatedCode, @Nullable String copyBookOriginalFileName,
+                    int copyBookOriginalLine) {
+      this.originalValue = originalValue;
+      this.generatedCode = generatedCode;
+      this.copyBookOriginalFileName = copyBookOriginalFileName;
+      this.copyBookOriginalLine = copyBookOriginalLine;
+    }
+
+    @CheckForNull
+    private static Details create(Builder builder) {
+      var originalValue = builder.value.equals(builder.originalValue) ? null : builder.originalValue;
+      if (originalValue == null && !builder.copyBook) {
+        return builder.generatedCode ? GENERATED : null;
+      }
+      return new Details(originalValue, builder.generatedCode,
+                         builder.copyBook ? builder.copyBookOriginalFileName : null, builder.copyBookOriginalLine);
+    }
+  }
+
   /**
    * Instances can be reused - it is safe to call {@link #build} multiple times to build multiple tokens in series.
    */
@@ -205,6 +233,7 @@ public final class Token {
     private int line = 0;
     private int column = -1;
     private List<Trivia> trivia = Collections.emptyList();
+    private boolean triviaOwned = false; // false: trivia is immutable and can be shared with the token
     private boolean generatedCode = false;
     private boolean copyBook = false;
     private int copyBookOriginalLine = -1;
@@ -216,15 +245,15 @@ public final class Token {
     private Builder(Token token) {
       type = token.type;
       value = token.value;
-      originalValue = token.originalValue;
+      originalValue = token.getOriginalValue();
       uri = token.uri;
       line = token.line;
       column = token.column;
       trivia = token.trivia;
-      generatedCode = token.generatedCode;
-      copyBook = token.copyBook;
-      copyBookOriginalLine = token.copyBookOriginalLine;
-      copyBookOriginalFileName = token.copyBookOriginalFileName;
+      generatedCode = token.isGeneratedCode();
+      copyBook = token.isCopyBook();
+      copyBookOriginalLine = token.getCopyBookOriginalLine();
+      copyBookOriginalFileName = token.getCopyBookOriginalFileName();
     }
 
     /**
@@ -325,7 +354,8 @@ public final class Token {
     public Builder setTrivia(@Nonnull List<Trivia> trivia) {
       Objects.requireNonNull(trivia, "trivia can't be null");
 
-      this.trivia = new ArrayList<>(trivia);
+      this.trivia = List.copyOf(trivia);
+      this.triviaOwned = false;
       return this;
     }
 
@@ -338,8 +368,9 @@ public final class Token {
     public Builder addTrivia(@Nonnull Trivia trivia) {
       Objects.requireNonNull(trivia, "trivia can't be null");
 
-      if (this.trivia.isEmpty()) {
-        this.trivia = new ArrayList<>();
+      if (!triviaOwned) {
+        this.trivia = new ArrayList<>(this.trivia);
+        this.triviaOwned = true;
       }
 
       this.trivia.add(trivia);
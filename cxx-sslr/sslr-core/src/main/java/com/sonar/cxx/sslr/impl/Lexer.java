@@ -29,19 +29,21 @@ import com.sonar.cxx.sslr.api.Token;
 import com.sonar.cxx.sslr.api.Trivia;
 import java.io.File;
 import java.io.InputStreamReader;
-import java.io.Reader;
-import java.io.StringReader;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.RandomAccess;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import org.sonar.cxx.sslr.channel.Channel;
 import org.sonar.cxx.sslr.channel.ChannelDispatcher;
@@ -57,7 +59,7 @@ public final class Lexer {
   private final Preprocessor[] preprocessors;
 
   private URI uri;
-  private final List<Trivia> trivia = new LinkedList<>();
+  private final List<Trivia> trivia = new ArrayList<>();
   private List<Token> tokens = new ArrayList<>();
 
   private Lexer(Builder builder) {
@@ -92,7 +94,7 @@ public final class Lexer {
 
     try (var reader = new InputStreamReader(url.openStream(), charset)) {
       this.uri = url.toURI();
-      return lex(reader);
+      return lex(new CodeReader(reader, configuration));
 
     } catch (Exception e) {
       throw new LexerException("Unable to lex url: " + getURI(), e);
@@ -110,17 +112,32 @@ public final class Lexer {
     Objects.requireNonNull(sourceCode, "sourceCode cannot be null");
 
     try {
-      return lex(new StringReader(sourceCode));
+      return lex(new CodeReader(sourceCode, configuration));
     } catch (Exception e) {
       throw new LexerException("Unable to lex string source code \"" + sourceCode + "\"", e);
     }
   }
 
-  private List<Token> lex(Reader reader) {
+  /**
+   * Lex source code without copying it (if sourceCode is a char[] backed CharBuffer).
+   *
+   * @param sourceCode source code to lex, must not be changed during lexing
+   * @return tokens of the source code
+   */
+  public List<Token> lex(@Nonnull CharSequence sourceCode) {
+    Objects.requireNonNull(sourceCode, "sourceCode cannot be null");
+
+    try {
+      return lex(new CodeReader(sourceCode, configuration));
+    } catch (Exception e) {
+      throw new LexerException("Unable to lex source code in file : " + uri, e);
+    }
+  }
+
+  private List<Token> lex(CodeReader code) {
     tokens = new ArrayList<>();
 
     initPreprocessors();
-    var code = new CodeReader(reader, configuration);
     try {
       channelDispatcher.consume(code, this);
 
@@ -141,40 +158,33 @@ public final class Lexer {
     }
   }
 
+  /**
+   * Preprocessors are chained lazily: each stage reads its input from the output of the previous stage, which is
+   * only filled on demand. So besides the tokens of the channels only the final result is materialized.
+   */
   private void preprocess() {
-    for (var preprocessor : preprocessors) {
-      preprocess(preprocessor);
+    if (preprocessors.length == 0) {
+      return;
     }
-  }
-
-  private void preprocess(Preprocessor preprocessor) {
-    var remainingTokens = Collections.unmodifiableList(new ArrayList<>(tokens));
-    tokens.clear();
-
-    int i = 0;
-    while (i < remainingTokens.size()) {
-      var action = preprocessor.process(remainingTokens.subList(i, remainingTokens.size()));
-      Objects.requireNonNull(action, "A preprocessor cannot return a null PreprocessorAction");
-
-      addTrivia(action.getTriviaToInject());
-
-      for (int j = 0; j < action.getNumberOfConsumedTokens(); j++) {
-        var removedToken = remainingTokens.get(i);
-        i++;
-        addTrivia(removedToken.getTrivia());
-      }
 
-      for (var tokenToInject : action.getTokensToInject()) {
-        addToken(tokenToInject);
+    var input = new TokenBuffer(tokens);
+    var result = new ArrayList<Token>(tokens.size());
+    PreprocessorStage stage = null;
+    for (int i = 0; i < preprocessors.length; i++) {
+      if (i == preprocessors.length - 1) {
+        stage = new PreprocessorStage(preprocessors[i], input, result);
+      } else {
+        var output = new ArrayList<Token>();
+        stage = new PreprocessorStage(preprocessors[i], input, output);
+        input = new TokenBuffer(output);
+        input.upstream = stage;
       }
+    }
 
-      if (action.getNumberOfConsumedTokens() == 0) {
-        var removedToken = remainingTokens.get(i);
-        i++;
-        addTrivia(removedToken.getTrivia());
-        addToken(removedToken);
-      }
+    while (stage.step()) {
+      // pulls the tokens through all stages
     }
+    tokens = result;
   }
 
   private void initPreprocessors() {
@@ -198,21 +208,20 @@ public final class Lexer {
       throw new IllegalArgumentException("at least one token must be given");
     }
 
-    var firstToken = tokens[0];
-    Token firstTokenWithTrivia;
+    addToken(this.tokens, trivia, tokens[0]);
+    if (tokens.length > 1) {
+      this.tokens.addAll(Arrays.asList(tokens).subList(1, tokens.length));
+    }
+  }
 
+  private static void addToken(List<Token> target, List<Trivia> trivia, Token token) {
     // Performance optimization: no need to rebuild token, if there is no trivia
-    if (trivia.isEmpty() && !firstToken.hasTrivia()) {
-      firstTokenWithTrivia = firstToken;
+    if (trivia.isEmpty() && !token.hasTrivia()) {
+      target.add(token);
     } else {
-      firstTokenWithTrivia = Token.builder(firstToken).setTrivia(trivia).build();
+      target.add(Token.builder(token).setTrivia(trivia).build());
       trivia.clear();
     }
-
-    this.tokens.add(firstTokenWithTrivia);
-    if (tokens.length > 1) {
-      this.tokens.addAll(Arrays.asList(tokens).subList(1, tokens.length));
-    }
   }
 
   public List<Token> getTokens() {
@@ -227,6 +236,134 @@ public final class Lexer {
     return new Builder();
   }
 
+  /**
+   * One preprocessor in the chain: reads tokens from its input and writes the result to its output.
+   */
+  private static final class PreprocessorStage {
+
+    private final Preprocessor preprocessor;
+    private final TokenBuffer input;
+    private final List<Token> output;
+    private final List<Trivia> trivia = new ArrayList<>();
+
+    private PreprocessorStage(Preprocessor preprocessor, TokenBuffer input, List<Token> output) {
+      this.preprocessor = preprocessor;
+      this.input = input;
+      this.output = output;
+    }
+
+    /**
+     * Process the next token(s) of the input.
+     *
+     * @return false if the input is exhausted
+     */
+    private boolean step() {
+      if (input.isEmpty()) {
+        return false;
+      }
+
+      var action = preprocessor.process(input);
+      Objects.requireNonNull(action, "A preprocessor cannot return a null PreprocessorAction");
+
+      trivia.addAll(action.getTriviaToInject());
+
+      int consumed = action.getNumberOfConsumedTokens();
+      for (int j = 0; j < consumed; j++) {
+        trivia.addAll(input.get(j).getTrivia());
+      }
+
+      for (var tokenToInject : action.getTokensToInject()) {
+        addToken(output, trivia, tokenToInject);
+      }
+
+      if (consumed == 0) {
+        var removedToken = input.get(0);
+        trivia.addAll(removedToken.getTrivia());
+        addToken(output, trivia, removedToken);
+        consumed = 1;
+      }
+
+      input.consume(consumed);
+      return true;
+    }
+  }
+
+  /**
+   * Remaining tokens of a preprocessor stage. Consumed tokens are skipped by moving a cursor instead of copying the
+   * list, tokens of the upstream stage are pulled on demand.
+   */
+  private static final class TokenBuffer extends AbstractList<Token> implements RandomAccess {
+
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final List<Token> tokens;
+    private int start = 0;
+    @CheckForNull
+    private PreprocessorStage upstream;
+
+    private TokenBuffer(List<Token> tokens) {
+      this.tokens = tokens;
+    }
+
+    private boolean isAvailable(int index) {
+      while (start + index >= tokens.size()) {
+        if (upstream == null || !upstream.step()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void consume(int n) {
+      start += n;
+      if (start >= COMPACT_THRESHOLD && start >= tokens.size() / 2) {
+        tokens.subList(0, start).clear();
+        start = 0;
+      }
+    }
+
+    @Override
+    public Token get(int index) {
+      if (index < 0 || !isAvailable(index)) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+      }
+      return tokens.get(start + index);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return !isAvailable(0);
+    }
+
+    @Override
+    public int size() {
+      while (upstream != null && upstream.step()) {
+        // size is only known after the upstream stage is exhausted
+      }
+      return tokens.size() - start;
+    }
+
+    @Override
+    public Iterator<Token> iterator() {
+      return new Iterator<>() {
+        private int index = 0;
+
+        @Override
+        public boolean hasNext() {
+          return isAvailable(index);
+        }
+
+        @Override
+        public Token next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return tokens.get(start + index++);
+        }
+      };
+    }
+  }
+
   public static final class Builder {
 
     private Charset charset = Charset.defaultCharset();
@@ -234,6 +371,7 @@ public final class Lexer {
     private final CodeReaderConfiguration configuration = new CodeReaderConfiguration();
     private final List<Channel<Lexer>> channels = new ArrayList<>();
     private boolean failIfNoChannelToConsumeOneCharacter = false;
+    private boolean dispatchOnFirstCharacter = false;
 
     private Builder() {
     }
@@ -262,6 +400,15 @@ public final class Lexer {
       return this;
     }
 
+    /**
+     * Ask only channels able to start with the next character to consume it, see
+     * {@link ChannelDispatcher.Builder#dispatchOnFirstCharacter()}.
+     */
+    public Builder withDispatchOnFirstCharacter(boolean dispatchOnFirstCharacter) {
+      this.dispatchOnFirstCharacter = dispatchOnFirstCharacter;
+      return this;
+    }
+
     private ChannelDispatcher<Lexer> getChannelDispatcher() {
       var builder = ChannelDispatcher.builder()
         .addChannels(channels.toArray(Channel[]::new));
@@ -269,6 +416,9 @@ public final class Lexer {
       if (failIfNoChannelToConsumeOneCharacter) {
         builder.failIfNoChannelToConsumeOneCharacter();
       }
+      if (dispatchOnFirstCharacter) {
+        builder.dispatchOnFirstCharacter();
+      }
 
       return builder.build();
     }
@@ -31,8 +31,12 @@ import com.sonar.cxx.sslr.api.Token;
 import com.sonar.cxx.sslr.impl.matcher.RuleDefinition;
 import java.io.File;
 import java.util.List;
+import javax.annotation.Nullable;
+import org.sonar.cxx.sslr.internal.grammar.MutableGrammar;
 import org.sonar.cxx.sslr.internal.matchers.LexerfulAstCreator;
+import org.sonar.cxx.sslr.internal.vm.CompiledGrammar;
 import org.sonar.cxx.sslr.internal.vm.Machine;
+import org.sonar.cxx.sslr.internal.vm.MachineStatistics;
 import org.sonar.cxx.sslr.internal.vm.MutableGrammarCompiler;
 import org.sonar.cxx.sslr.parser.ParserAdapter;
 
@@ -45,8 +49,10 @@ import org.sonar.cxx.sslr.parser.ParserAdapter;
 public class Parser<G extends Grammar> {
 
   private RuleDefinition rootRule;
+  private CompiledGrammar compiledGrammar;
   private final Lexer lexer;
   private final G grammar;
+  private MachineStatistics statistics;
 
   /**
    * @since 1.16
@@ -81,9 +87,18 @@ public class Parser<G extends Grammar> {
   }
 
   public AstNode parse(List<Token> tokens) {
-    // TODO can be compiled only once
-    var g = MutableGrammarCompiler.compile(rootRule);
-    return LexerfulAstCreator.create(Machine.parse(tokens, g), tokens);
+    return LexerfulAstCreator.create(Machine.parse(tokens, getCompiledGrammar(), statistics), tokens);
+  }
+
+  private CompiledGrammar getCompiledGrammar() {
+    if (compiledGrammar == null) {
+      if (grammar instanceof MutableGrammar mutableGrammar) {
+        compiledGrammar = mutableGrammar.compile(rootRule);
+      } else {
+        compiledGrammar = MutableGrammarCompiler.compile(rootRule);
+      }
+    }
+    return compiledGrammar;
   }
 
   public G getGrammar() {
@@ -94,8 +109,18 @@ public class Parser<G extends Grammar> {
     return rootRule;
   }
 
+  /**
+   * Collect counters of the parsing machine (memo hits/misses, backtracks per rule) for the following parses.
+   *
+   * @param statistics counters are added to this object, null to disable
+   */
+  public void setStatistics(@Nullable MachineStatistics statistics) {
+    this.statistics = statistics;
+  }
+
   public void setRootRule(Rule rootRule) {
     this.rootRule = (RuleDefinition) rootRule;
+    this.compiledGrammar = null;
   }
 
   public static <G extends Grammar> Builder<G> builder(G grammar) {
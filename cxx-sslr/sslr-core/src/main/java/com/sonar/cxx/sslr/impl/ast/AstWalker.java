@@ -30,13 +30,17 @@ import com.sonar.cxx.sslr.api.AstVisitor;
 import com.sonar.cxx.sslr.api.Token;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
 public final class AstWalker {
 
+  private static final AstVisitor[] NO_VISITORS = new AstVisitor[0];
+
   private final Map<AstNodeType, AstVisitor[]> visitorsByNodeType = new IdentityHashMap<>();
+  private final Map<String, AstVisitor[]> visitorsByNodeName = new HashMap<>();
   private final List<AstVisitor> visitors = new ArrayList<>();
   private AstAndTokenVisitor[] astAndTokenVisitors = new AstAndTokenVisitor[0];
   private Token lastVisitedToken = null;
@@ -58,6 +62,12 @@ public final class AstWalker {
       visitorsByType.add(visitor);
       putAstVisitors(type, visitorsByType);
     }
+    for (var name : visitor.getAstNodeNamesToVisit()) {
+      var visitorsByName = visitorsByNodeName.getOrDefault(name, NO_VISITORS);
+      visitorsByName = Arrays.copyOf(visitorsByName, visitorsByName.length + 1);
+      visitorsByName[visitorsByName.length - 1] = visitor;
+      visitorsByNodeName.put(name, visitorsByName);
+    }
     if (visitor instanceof AstAndTokenVisitor astAndTokenVisitor) {
       List<AstAndTokenVisitor> tokenVisitorsList = new ArrayList<>(Arrays.asList(astAndTokenVisitors));
       tokenVisitorsList.add(astAndTokenVisitor);
@@ -77,9 +87,12 @@ public final class AstWalker {
 
   private void visit(AstNode ast) {
     var nodeVisitors = getNodeVisitors(ast);
+    var nameVisitors = getNameVisitors(ast);
     visitNode(ast, nodeVisitors);
+    visitNode(ast, nameVisitors);
     visitToken(ast);
     visitChildren(ast);
+    leaveNode(ast, nameVisitors);
     leaveNode(ast, nodeVisitors);
   }
 
@@ -118,6 +131,13 @@ public final class AstWalker {
     return nodeVisitors;
   }
 
+  private AstVisitor[] getNameVisitors(AstNode ast) {
+    if (visitorsByNodeName.isEmpty()) {
+      return NO_VISITORS;
+    }
+    return visitorsByNodeName.getOrDefault(ast.getName(), NO_VISITORS);
+  }
+
   private void putAstVisitors(AstNodeType type, List<AstVisitor> visitors) {
     visitorsByNodeType.put(type, visitors.toArray(AstVisitor[]::new));
   }
@@ -56,6 +56,11 @@ public class BlackHoleChannel extends Channel<Lexer> {
     return code.popTo(matcher, EmptyAppendable.INSTANCE) != -1;
   }
 
+  @Override
+  public boolean canStartWith(char ch) {
+    return canStartWith(matcher.pattern(), ch);
+  }
+
   private static class EmptyAppendable implements Appendable {
 
     private static final Appendable INSTANCE = new EmptyAppendable();
@@ -80,4 +80,9 @@ public class CommentRegexpChannel extends Channel<Lexer> {
         e);
     }
   }
+
+  @Override
+  public boolean canStartWith(char ch) {
+    return canStartWith(matcher.pattern(), ch);
+  }
 }
@@ -91,6 +91,16 @@ public class PunctuatorChannel extends Channel<Lexer> {
     return false;
   }
 
+  @Override
+  public boolean canStartWith(char ch) {
+    for (var chars : sortedPunctuatorsChars) {
+      if (chars.length == 0 || chars[0] == ch) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Expected that length of second array can be less than length of first.
    */
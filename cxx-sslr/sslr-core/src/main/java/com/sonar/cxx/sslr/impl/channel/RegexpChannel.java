@@ -84,4 +84,9 @@ public class RegexpChannel extends Channel<Lexer> {
         e);
     }
   }
+
+  @Override
+  public boolean canStartWith(char ch) {
+    return canStartWith(matcher.pattern(), ch);
+  }
 }
@@ -36,6 +36,8 @@ import org.sonar.cxx.sslr.channel.CodeReader;
 
 public final class TokenUtils {
 
+  private static final URI UNIT_TEST_URI = createUnitTestUri();
+
   private TokenUtils() {
   }
 
@@ -94,16 +96,20 @@ public final class TokenUtils {
     return tokens;
   }
 
-  @SuppressWarnings("java:S1075")
   public static Token tokenBuilder(TokenType type, String value, int line, int column) {
+    return Token.builder()
+      .setType(type)
+      .setValueAndOriginalValue(value)
+      .setURI(UNIT_TEST_URI)
+      .setLine(line)
+      .setColumn(column).
+      build();
+  }
+
+  @SuppressWarnings({"java:S1075", "java:S112"})
+  private static URI createUnitTestUri() {
     try {
-      return Token.builder()
-        .setType(type)
-        .setValueAndOriginalValue(value)
-        .setURI(new URI("tests://unittest"))
-        .setLine(line)
-        .setColumn(column).
-        build();
+      return new URI("tests://unittest");
     } catch (URISyntaxException e) {
       throw new RuntimeException(e);
     }
@@ -23,6 +23,8 @@
  */
 package org.sonar.cxx.sslr.channel; // cxx: in use
 
+import java.util.regex.Pattern;
+
 public abstract class Channel<O> {
 
   /**
@@ -36,4 +38,32 @@ public abstract class Channel<O> {
    * @return false if the Channel doesn't want to consume the character stream, true otherwise.
    */
   public abstract boolean consume(CodeReader code, O output);
+
+  /**
+   * Tells if the Channel could consume a character stream starting with the given character. Used by
+   * {@link org.sonar.cxx.sslr.channel.ChannelDispatcher} to skip Channels not able to consume the character stream.
+   * A Channel returning false must not consume the character stream and must not change its state for this
+   * character.
+   *
+   * @param ch
+   *          the first character of the character stream
+   * @return false if the Channel never consumes a character stream starting with ch, true otherwise (default).
+   */
+  public boolean canStartWith(char ch) {
+    return true;
+  }
+
+  /**
+   * Tells if a regular expression could match a character stream starting with the given character.
+   *
+   * @param pattern
+   *          regular expression used to match the character stream
+   * @param ch
+   *          the first character of the character stream
+   * @return false if the regular expression never matches a character stream starting with ch, true otherwise.
+   */
+  protected static boolean canStartWith(Pattern pattern, char ch) {
+    var matcher = pattern.matcher(String.valueOf(ch));
+    return matcher.lookingAt() || matcher.hitEnd();
+  }
 }
@@ -28,13 +28,20 @@ import java.util.List;
 
 public final class ChannelDispatcher<O> extends Channel<O> {
 
+  // size of the first character lookup table: characters outside are dispatched to all channels
+  private static final int LOOKUP_TABLE_SIZE = 128;
+
   private final boolean failIfNoChannelToConsumeOneCharacter;
 
   private final Channel<O>[] channels;
 
+  // candidate channels for each first character, in the order of the channels (null: no lookup table)
+  private final Channel<O>[][] lookupTable;
+
   private ChannelDispatcher(Builder builder) {
     this.channels = builder.channels.toArray(Channel[]::new);
     this.failIfNoChannelToConsumeOneCharacter = builder.failIfNoChannelToConsumeOneCharacter;
+    this.lookupTable = builder.dispatchOnFirstCharacter ? createLookupTable(channels) : null;
   }
 
   @Override
@@ -42,7 +49,7 @@ public final class ChannelDispatcher<O> extends Channel<O> {
     int nextChar = code.peek();
     while (nextChar != -1) {
       var characterConsumed = false;
-      for (var channel : channels) {
+      for (var channel : getChannels(nextChar)) {
         if (channel.consume(code, output)) {
           characterConsumed = true;
           break;
@@ -62,10 +69,43 @@ public final class ChannelDispatcher<O> extends Channel<O> {
     return true;
   }
 
+  @Override
+  public boolean canStartWith(char ch) {
+    for (var channel : getChannels(ch)) {
+      if (channel.canStartWith(ch)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   Channel[] getChannels() {
     return channels;
   }
 
+  private Channel<O>[] getChannels(int ch) {
+    if (lookupTable != null && ch < LOOKUP_TABLE_SIZE) {
+      return lookupTable[ch];
+    }
+    return channels;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <O> Channel<O>[][] createLookupTable(Channel<O>[] channels) {
+    var table = new Channel[LOOKUP_TABLE_SIZE][];
+    var candidates = new ArrayList<Channel<O>>(channels.length);
+    for (var ch = 0; ch < LOOKUP_TABLE_SIZE; ch++) {
+      for (var channel : channels) {
+        if (channel.canStartWith((char) ch)) {
+          candidates.add(channel);
+        }
+      }
+      table[ch] = candidates.toArray(Channel[]::new);
+      candidates.clear();
+    }
+    return table;
+  }
+
   /**
    * Get a Builder instance to build a new ChannelDispatcher
    */
@@ -77,6 +117,7 @@ public final class ChannelDispatcher<O> extends Channel<O> {
 
     private final List<Channel> channels = new ArrayList<>();
     private boolean failIfNoChannelToConsumeOneCharacter = false;
+    private boolean dispatchOnFirstCharacter = false;
 
     private Builder() {
     }
@@ -102,6 +143,17 @@ public final class ChannelDispatcher<O> extends Channel<O> {
       return this;
     }
 
+    /**
+     * If this option is activated, only channels able to start with the next character (see
+     * {@link Channel#canStartWith(char)}) are asked to consume it. Candidate channels for ASCII characters are looked
+     * up in a table, all other characters are dispatched to all channels. Channels are always asked in the order they
+     * were added, the result is the same as without this option.
+     */
+    public Builder dispatchOnFirstCharacter() {
+      dispatchOnFirstCharacter = true;
+      return this;
+    }
+
     public <O> ChannelDispatcher<O> build() {
       return new ChannelDispatcher<>(this);
     }
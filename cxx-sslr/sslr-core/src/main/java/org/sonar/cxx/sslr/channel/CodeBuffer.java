@@ -23,10 +23,11 @@
  */
 package org.sonar.cxx.sslr.channel;
 
+import java.io.CharArrayReader;
 import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
+import java.nio.CharBuffer;
 
 /**
  * The CodeBuffer class provides all the basic features required to manipulate a source code character stream. Those
@@ -48,19 +49,47 @@ public class CodeBuffer implements CharSequence {
   private Cursor cursor;
   private char[] buffer;
   private int bufferPosition = 0;
+  private int bufferEnd;
   private int tabWidth;
 
   private boolean recordingMode = false;
   private StringBuilder recordedCharacters = new StringBuilder();
 
   protected CodeBuffer(String code, CodeReaderConfiguration configuration) {
-    this(new StringReader(code), configuration);
+    this((CharSequence) code, configuration);
+  }
+
+  /**
+   * Without CodeReaderFilters the characters are not copied if code is a char[] backed CharBuffer (e.g.
+   * CharBuffer.wrap(char[]) or the result of a CharsetDecoder). In this case the content of the CharBuffer must not be
+   * changed as long as the CodeBuffer is in use.
+   */
+  protected CodeBuffer(CharSequence code, CodeReaderConfiguration configuration) {
+    if (configuration.getCodeReaderFilters().length > 0) {
+      initBuffer(new CharArrayReader(toCharArray(code)), configuration);
+      return;
+    }
+
+    cursor = new Cursor();
+    tabWidth = configuration.getTabWidth();
+    if (code instanceof CharBuffer charBuffer && charBuffer.hasArray()) {
+      buffer = charBuffer.array();
+      bufferPosition = charBuffer.arrayOffset() + charBuffer.position();
+      bufferEnd = charBuffer.arrayOffset() + charBuffer.limit();
+    } else {
+      buffer = toCharArray(code);
+      bufferEnd = buffer.length;
+    }
   }
 
   /**
    * Note that this constructor will read everything from reader and will close it.
    */
   protected CodeBuffer(Reader initialCodeReader, CodeReaderConfiguration configuration) {
+    initBuffer(initialCodeReader, configuration);
+  }
+
+  private void initBuffer(Reader initialCodeReader, CodeReaderConfiguration configuration) {
 
     /* Make sure the reader passed-in gets closed when done. */
     try (var reader = initialCodeReader) {
@@ -78,6 +107,7 @@ public class CodeBuffer implements CharSequence {
       /* Make sure to close the filtered reader when done (cascading through the lot) */
       try (var usedReader = filteredReader) {
         buffer = read(usedReader);
+        bufferEnd = buffer.length;
       }
 
     } catch (IOException e) {
@@ -95,13 +125,24 @@ public class CodeBuffer implements CharSequence {
     return sb.toString().toCharArray();
   }
 
+  private static char[] toCharArray(CharSequence code) {
+    if (code instanceof String string) {
+      return string.toCharArray();
+    }
+    var result = new char[code.length()];
+    for (var i = 0; i < result.length; i++) {
+      result[i] = code.charAt(i);
+    }
+    return result;
+  }
+
   /**
    * Read and consume the next character
    *
    * @return the next character or -1 if the end of the stream is reached
    */
   public final int pop() {
-    if (bufferPosition >= buffer.length) {
+    if (bufferPosition >= bufferEnd) {
       return -1;
     }
     int character = buffer[bufferPosition];
@@ -215,7 +256,7 @@ public class CodeBuffer implements CharSequence {
   }
 
   protected final int intAt(int index) {
-    if (bufferPosition + index >= buffer.length) {
+    if (bufferPosition + index >= bufferEnd) {
       return -1;
     }
     return buffer[bufferPosition + index];
@@ -226,7 +267,7 @@ public class CodeBuffer implements CharSequence {
    */
   @Override
   public final int length() {
-    return buffer.length - bufferPosition;
+    return bufferEnd - bufferPosition;
   }
 
   @Override
@@ -71,6 +71,17 @@ public class CodeReader extends CodeBuffer {
     super(code, configuration);
   }
 
+  /**
+   * Creates a code reader with specific configuration parameters. The characters of a char[] backed CharBuffer are
+   * used without copying them.
+   *
+   * @param code the code itself
+   * @param configuration the configuration parameters
+   */
+  public CodeReader(CharSequence code, CodeReaderConfiguration configuration) {
+    super(code, configuration);
+  }
+
   /**
    * Read and consume the next character
    *
@@ -67,4 +67,9 @@ public abstract class RegexChannel<O> extends Channel<O> {
    */
   protected abstract void consume(CharSequence token, O output);
 
+  @Override
+  public boolean canStartWith(char ch) {
+    return canStartWith(matcher.pattern(), ch);
+  }
+
 }
@@ -97,12 +97,16 @@ public final class LexerfulGrammarBuilder extends GrammarBuilder {
    * @see #buildWithMemoizationOfMatchesForAllRules()
    */
   public Grammar build() {
+    return build(1);
+  }
+
+  private Grammar build(int memoWays) {
     for (var rule : definitions.values()) {
       if (rule.getExpression() == null) {
         throw new GrammarException("The rule '" + rule.getRuleKey() + "' hasn't been defined.");
       }
     }
-    return new MutableGrammar(definitions, rootRuleKey);
+    return new MutableGrammar(definitions, rootRuleKey, memoWays);
   }
 
   /**
@@ -113,10 +117,28 @@ public final class LexerfulGrammarBuilder extends GrammarBuilder {
    * @see #build()
    */
   public Grammar buildWithMemoizationOfMatchesForAllRules() {
+    return buildWithMemoizationOfMatchesForAllRules(1);
+  }
+
+  /**
+   * Constructs grammar with memoization of matches for all rules, keeping several matches per token.
+   *
+   * With one match per token, rules starting at the same token evict each other. More matches per token avoid parsing
+   * the same rule again after backtracking, at the cost of more memory.
+   *
+   * @param memoWays number of matches memoized per token
+   * @throws GrammarException if some of rules were used, but not defined
+   * @return grammar
+   * @see #buildWithMemoizationOfMatchesForAllRules()
+   */
+  public Grammar buildWithMemoizationOfMatchesForAllRules(int memoWays) {
+    if (memoWays < 1) {
+      throw new IllegalArgumentException("memoWays must be greater or equal than 1");
+    }
     for (var rule : definitions.values()) {
       rule.enableMemoization();
     }
-    return build();
+    return build(memoWays);
   }
 
   /**
@@ -24,20 +24,37 @@
 package org.sonar.cxx.sslr.internal.grammar;
 
 import com.sonar.cxx.sslr.api.Rule;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.sonar.cxx.sslr.grammar.GrammarRuleKey;
 import org.sonar.cxx.sslr.internal.vm.CompilableGrammarRule;
+import org.sonar.cxx.sslr.internal.vm.CompiledGrammar;
+import org.sonar.cxx.sslr.internal.vm.MutableGrammarCompiler;
 import org.sonar.cxx.sslr.parser.LexerlessGrammar;
 
-import java.util.Map;
-
 public class MutableGrammar extends LexerlessGrammar {
 
   private final Map<GrammarRuleKey, ? extends CompilableGrammarRule> rules;
   private final GrammarRuleKey rootRuleKey;
+  private final int memoWays;
+
+  // compiled grammars are immutable: compile only once for each root rule and share them between all parsers
+  private final Map<CompilableGrammarRule, CompiledGrammar> compiledGrammars = new ConcurrentHashMap<>();
 
   public MutableGrammar(Map<GrammarRuleKey, ? extends CompilableGrammarRule> rules, GrammarRuleKey rootRuleKey) {
+    this(rules, rootRuleKey, 1);
+  }
+
+  /**
+   * @param rules rules of the grammar
+   * @param rootRuleKey key of the root rule
+   * @param memoWays number of memo entries per input position of the parsing machine
+   */
+  public MutableGrammar(Map<GrammarRuleKey, ? extends CompilableGrammarRule> rules, GrammarRuleKey rootRuleKey,
+    int memoWays) {
     this.rules = rules;
     this.rootRuleKey = rootRuleKey;
+    this.memoWays = memoWays;
   }
 
   @Override
@@ -50,4 +67,20 @@ public class MutableGrammar extends LexerlessGrammar {
     return rule(rootRuleKey);
   }
 
+  /**
+   * Returns the compiled grammar for a root rule.
+   *
+   * Rules of this grammar are compiled only once, the result is cached and shared (also between threads). Rules which
+   * are not part of this grammar (e.g. wrapper rules created on the fly) are compiled with each call.
+   *
+   * @param rootRule rule to start with
+   * @return compiled grammar
+   */
+  public CompiledGrammar compile(CompilableGrammarRule rootRule) {
+    if (rules.get(rootRule.getRuleKey()) != rootRule) {
+      return MutableGrammarCompiler.compile(rootRule, memoWays);
+    }
+    return compiledGrammars.computeIfAbsent(rootRule, rule -> MutableGrammarCompiler.compile(rule, memoWays));
+  }
+
 }
@@ -27,19 +27,36 @@ import java.util.Map;
 import org.sonar.cxx.sslr.grammar.GrammarRuleKey;
 import org.sonar.cxx.sslr.internal.matchers.Matcher;
 
+/**
+ * Result of the compilation of a grammar: instructions of the parsing machine and the rule offsets.
+ *
+ * Instances are immutable and can therefore be shared by several parsers and threads.
+ *
+ * @see MutableGrammarCompiler
+ */
 public class CompiledGrammar {
 
   private final Map<GrammarRuleKey, CompilableGrammarRule> rules;
   private final Instruction[] instructions;
   private final GrammarRuleKey rootRuleKey;
   private final int rootRuleOffset;
+  private final int memoWays;
 
   public CompiledGrammar(Instruction[] instructions, Map<GrammarRuleKey, CompilableGrammarRule> rules,
     GrammarRuleKey rootRuleKey, int rootRuleOffset) {
+    this(instructions, rules, rootRuleKey, rootRuleOffset, 1);
+  }
+
+  public CompiledGrammar(Instruction[] instructions, Map<GrammarRuleKey, CompilableGrammarRule> rules,
+    GrammarRuleKey rootRuleKey, int rootRuleOffset, int memoWays) {
+    if (memoWays < 1) {
+      throw new IllegalArgumentException("memoWays must be greater or equal than 1");
+    }
     this.instructions = instructions;
-    this.rules = rules;
+    this.rules = Map.copyOf(rules);
     this.rootRuleKey = rootRuleKey;
     this.rootRuleOffset = rootRuleOffset;
+    this.memoWays = memoWays;
   }
 
   public Instruction[] getInstructions() {
@@ -58,4 +75,13 @@ public class CompiledGrammar {
     return rootRuleOffset;
   }
 
+  /**
+   * Number of memo entries per input position of the parsing machine.
+   *
+   * @return number of memo entries per input position
+   */
+  public int getMemoWays() {
+    return memoWays;
+  }
+
 }
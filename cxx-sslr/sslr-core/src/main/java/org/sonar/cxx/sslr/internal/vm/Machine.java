@@ -48,7 +48,9 @@ public class Machine implements CharSequence {
   private int address;
   private boolean matched = true;
 
-  private final ParseNode[] memos;
+  private final MemoTable memos;
+  @Nullable
+  private final MachineHandler profiler;
 
   // Number of instructions in grammar for Java is about 2000.
   private final int[] calls;
@@ -67,6 +69,11 @@ public class Machine implements CharSequence {
 
   private Machine(@Nullable char[] input, @Nullable Token[] tokens, Instruction[] instructions,
     MachineHandler handler) {
+    this(input, tokens, instructions, handler, 1, null);
+  }
+
+  private Machine(@Nullable char[] input, @Nullable Token[] tokens, Instruction[] instructions,
+    MachineHandler handler, int memoWays, @Nullable MachineHandler profiler) {
     this.input = input;
     this.tokens = tokens;
     if (input != null) {
@@ -78,7 +85,8 @@ public class Machine implements CharSequence {
     }
 
     this.handler = handler;
-    this.memos = new ParseNode[inputLength + 1];
+    this.memos = new MemoTable(inputLength, memoWays);
+    this.profiler = profiler;
     this.stack = new MachineStack();
     stack = stack.getOrCreateChild();
     stack.setIndex(-1);
@@ -92,12 +100,34 @@ public class Machine implements CharSequence {
   }
 
   public static ParseNode parse(List<Token> tokens, CompiledGrammar grammar) {
+    return parse(tokens, grammar, null);
+  }
+
+  /**
+   * Parse tokens with a compiled grammar.
+   *
+   * @param tokens tokens to parse
+   * @param grammar compiled grammar, defines also the number of memo entries per token
+   * @param statistics counters of this parse are added to statistics (null: no statistics)
+   * @return root node
+   */
+  public static ParseNode parse(List<Token> tokens, CompiledGrammar grammar, @Nullable MachineStatistics statistics) {
     var inputTokens = tokens.toArray(Token[]::new);
 
     var errorLocatingHandler = new ErrorLocatingHandler();
-    var machine = new Machine(null, inputTokens, grammar.getInstructions(), errorLocatingHandler);
-    machine.execute(grammar.getMatcher(grammar.getRootRuleKey()),
-      grammar.getRootRuleOffset(), grammar.getInstructions());
+    var machineStatistics = statistics == null ? null : new MachineStatistics();
+    var machine = new Machine(null, inputTokens, grammar.getInstructions(), errorLocatingHandler,
+      grammar.getMemoWays(), machineStatistics);
+    long start = System.nanoTime();
+    try {
+      machine.execute(grammar.getMatcher(grammar.getRootRuleKey()),
+        grammar.getRootRuleOffset(), grammar.getInstructions());
+    } finally {
+      if (statistics != null) {
+        machineStatistics.parsed(inputTokens.length, System.nanoTime() - start);
+        statistics.add(machineStatistics);
+      }
+    }
 
     if (machine.matched) {
       return machine.stack.subNodes().get(0);
@@ -120,7 +150,7 @@ public class Machine implements CharSequence {
     var instructions = grammar.getInstructions();
 
     var errorLocatingHandler = new ErrorLocatingHandler();
-    var machine = new Machine(input, null, instructions, errorLocatingHandler);
+    var machine = new Machine(input, null, instructions, errorLocatingHandler, grammar.getMemoWays(), null);
     machine.execute(grammar.getMatcher(grammar.getRootRuleKey()), grammar.getRootRuleOffset(), instructions);
 
     if (machine.matched) {
@@ -196,11 +226,17 @@ public class Machine implements CharSequence {
   }
 
   public void pushReturn(int returnOffset, Matcher matcher, int callOffset) {
-    var memo = memos[index];
-    if (memo != null && memo.getMatcher() == matcher) {
-      stack.subNodes().add(memo);
-      index = memo.getEndIndex();
+    var memo = memos.get(index, matcher);
+    if (profiler != null) {
+      profiler.onCall(this, matcher, memo != null);
+    }
+    if (memo instanceof ParseNode node) {
+      stack.subNodes().add(node);
+      index = node.getEndIndex();
       address += returnOffset;
+    } else if (memo != null) {
+      // rule is known to fail at this position
+      backtrack();
     } else {
       push(address + returnOffset);
       stack.setMatcher(matcher);
@@ -243,6 +279,13 @@ public class Machine implements CharSequence {
       if (!ignoreErrors) {
         handler.onBacktrack(this);
       }
+      if (profiler != null) {
+        profiler.onFailure(this, stack.matcher(), stack.index());
+      }
+      if (!ignoreErrors && stack.matcher() instanceof MemoParsingExpression exp && exp.shouldMemoize()) {
+        // only if errors are reported: a memo hit skips reporting the errors of the rule again
+        memos.putFailure(stack.index(), stack.matcher());
+      }
 
       popReturn();
     }
@@ -263,8 +306,11 @@ public class Machine implements CharSequence {
   public void createNode() {
     var node = new ParseNode(stack.index(), index, stack.subNodes(), stack.matcher());
     stack.parent().subNodes().add(node);
+    if (profiler != null) {
+      profiler.onMatch(this, stack.matcher(), stack.index());
+    }
     if (stack.matcher() instanceof MemoParsingExpression exp && exp.shouldMemoize()) {
-      memos[stack.index()] = node;
+      memos.putMatch(stack.index(), node);
     }
   }
 
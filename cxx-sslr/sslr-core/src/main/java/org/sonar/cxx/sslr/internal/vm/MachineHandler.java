@@ -23,8 +23,43 @@
  */
 package org.sonar.cxx.sslr.internal.vm;
 
+import org.sonar.cxx.sslr.internal.matchers.Matcher;
+
 public interface MachineHandler {
 
   void onBacktrack(Machine machine);
 
+  /**
+   * Called for each invocation of a rule (only for the profiling handler of the machine).
+   *
+   * @param machine parsing machine, index is the start of the invocation
+   * @param matcher invoked rule
+   * @param memoHit true if the result of the invocation is taken from the memo table
+   */
+  default void onCall(Machine machine, Matcher matcher, boolean memoHit) {
+    // nop
+  }
+
+  /**
+   * Called if a rule matched (only for the profiling handler of the machine).
+   *
+   * @param machine parsing machine, index is the end of the match
+   * @param matcher matched rule
+   * @param startIndex start of the match
+   */
+  default void onMatch(Machine machine, Matcher matcher, int startIndex) {
+    // nop
+  }
+
+  /**
+   * Called if a rule failed and the machine backtracks (only for the profiling handler of the machine).
+   *
+   * @param machine parsing machine, index is the position of the failure
+   * @param matcher failed rule
+   * @param startIndex start of the failed invocation
+   */
+  default void onFailure(Machine machine, Matcher matcher, int startIndex) {
+    // nop
+  }
+
 }
@@ -0,0 +1,228 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+/**
+ * fork of SonarSource Language Recognizer: https://github.com/SonarSource/sslr
+ * Copyright (C) 2010-2021 SonarSource SA / mailto:info AT sonarsource DOT com / license: LGPL v3
+ */
+package org.sonar.cxx.sslr.internal.vm;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonar.cxx.sslr.internal.matchers.Matcher;
+
+/**
+ * Counters of the parsing machine to find hot spots of a grammar (profiling handler of the machine): invocations,
+ * memo hits/misses of memoized rules, backtracks (failed invocations) and the cumulative token span per rule.
+ *
+ * A machine counts in its own instance, the counters are added to the shared instance at the end of a parse. So one
+ * instance can collect the counters of several parsers and threads.
+ */
+public final class MachineStatistics implements MachineHandler {
+
+  private static final int INVOCATIONS = 0;
+  private static final int MEMO_HITS = 1;
+  private static final int MEMO_MISSES = 2;
+  private static final int BACKTRACKS = 3;
+  private static final int TOKEN_SPAN = 4;
+
+  private long parses = 0;
+  private long tokens = 0;
+  private long parseNanos = 0;
+  private long memoHits = 0;
+  private long memoMisses = 0;
+  private final Map<Matcher, long[]> rules = new IdentityHashMap<>();
+
+  /**
+   * Counters of a rule.
+   *
+   * @param name rule name
+   * @param invocations number of invocations (including memo hits)
+   * @param memoHits number of invocations taken from the memo table
+   * @param memoMisses number of invocations of a memoized rule not found in the memo table
+   * @param backtracks number of failed invocations
+   * @param tokenSpan sum of the tokens consumed by the executed invocations (up to the failure for failed ones)
+   */
+  public record Rule(String name, long invocations, long memoHits, long memoMisses, long backtracks, long tokenSpan) {
+
+  }
+
+  @Override
+  public void onBacktrack(Machine machine) {
+    // failures of all invocations are counted in onFailure
+  }
+
+  @Override
+  public void onCall(Machine machine, Matcher matcher, boolean memoHit) {
+    var counters = counters(matcher);
+    counters[INVOCATIONS]++;
+    if (memoHit) {
+      memoHits++;
+      counters[MEMO_HITS]++;
+    } else if (matcher instanceof MemoParsingExpression expression && expression.shouldMemoize()) {
+      memoMisses++;
+      counters[MEMO_MISSES]++;
+    }
+  }
+
+  @Override
+  public void onMatch(Machine machine, Matcher matcher, int startIndex) {
+    counters(matcher)[TOKEN_SPAN] += machine.getIndex() - startIndex;
+  }
+
+  @Override
+  public void onFailure(Machine machine, Matcher matcher, int startIndex) {
+    var counters = counters(matcher);
+    counters[BACKTRACKS]++;
+    counters[TOKEN_SPAN] += Math.max(machine.getIndex() - startIndex, 0);
+  }
+
+  void parsed(int tokenCount, long nanos) {
+    parses++;
+    tokens += tokenCount;
+    parseNanos += nanos;
+  }
+
+  private long[] counters(Matcher matcher) {
+    return rules.computeIfAbsent(matcher, k -> new long[TOKEN_SPAN + 1]);
+  }
+
+  /**
+   * Add the counters of another instance, e.g. to sum up the counters of several files.
+   *
+   * @param other counters to add
+   */
+  public synchronized void add(MachineStatistics other) {
+    parses += other.parses;
+    tokens += other.tokens;
+    parseNanos += other.parseNanos;
+    memoHits += other.memoHits;
+    memoMisses += other.memoMisses;
+    for (var entry : other.rules.entrySet()) {
+      var counters = counters(entry.getKey());
+      for (int i = 0; i < counters.length; i++) {
+        counters[i] += entry.getValue()[i];
+      }
+    }
+  }
+
+  /**
+   * Number of parsed inputs.
+   */
+  public synchronized long getParses() {
+    return parses;
+  }
+
+  /**
+   * Number of parsed tokens (all inputs).
+   */
+  public synchronized long getTokens() {
+    return tokens;
+  }
+
+  /**
+   * Time spent in the parsing machine (all inputs).
+   */
+  public synchronized long getParseNanos() {
+    return parseNanos;
+  }
+
+  public synchronized long getMemoHits() {
+    return memoHits;
+  }
+
+  public synchronized long getMemoMisses() {
+    return memoMisses;
+  }
+
+  /**
+   * Backtracks per rule, sorted by number of backtracks (descending).
+   *
+   * @return rule name and number of backtracks
+   */
+  public synchronized Map<String, Long> getBacktracks() {
+    return sorted(BACKTRACKS);
+  }
+
+  /**
+   * Memo hits per rule, sorted by number of hits (descending).
+   *
+   * @return rule name and number of memo hits
+   */
+  public synchronized Map<String, Long> getMemoHitsPerRule() {
+    return sorted(MEMO_HITS);
+  }
+
+  /**
+   * Memo misses per rule, sorted by number of misses (descending).
+   *
+   * @return rule name and number of memo misses
+   */
+  public synchronized Map<String, Long> getMemoMissesPerRule() {
+    return sorted(MEMO_MISSES);
+  }
+
+  /**
+   * Counters of all invoked rules, sorted by number of backtracks and invocations (descending).
+   *
+   * @return counters per rule
+   */
+  public synchronized List<Rule> getRules() {
+    var byName = byName();
+    var result = new ArrayList<Rule>(byName.size());
+    for (var entry : byName.entrySet()) {
+      var c = entry.getValue();
+      result.add(new Rule(entry.getKey(), c[INVOCATIONS], c[MEMO_HITS], c[MEMO_MISSES], c[BACKTRACKS], c[TOKEN_SPAN]));
+    }
+    result.sort(Comparator.comparingLong(Rule::backtracks).thenComparingLong(Rule::invocations).reversed());
+    return result;
+  }
+
+  private Map<String, long[]> byName() {
+    // several grammars can have rules with the same name: sum up by name
+    var byName = new HashMap<String, long[]>();
+    for (var entry : rules.entrySet()) {
+      var counters = byName.computeIfAbsent(entry.getKey().toString(), k -> new long[TOKEN_SPAN + 1]);
+      for (int i = 0; i < counters.length; i++) {
+        counters[i] += entry.getValue()[i];
+      }
+    }
+    return byName;
+  }
+
+  private Map<String, Long> sorted(int counter) {
+    var result = new LinkedHashMap<String, Long>();
+    byName().entrySet().stream()
+      .filter(e -> e.getValue()[counter] > 0)
+      .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[counter]).reversed())
+      .forEach(e -> result.put(e.getKey(), e.getValue()[counter]));
+    return result;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "memo hits: " + memoHits + ", memo misses: " + memoMisses;
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+/**
+ * fork of SonarSource Language Recognizer: https://github.com/SonarSource/sslr
+ * Copyright (C) 2010-2021 SonarSource SA / mailto:info AT sonarsource DOT com / license: LGPL v3
+ */
+package org.sonar.cxx.sslr.internal.vm;
+
+import javax.annotation.CheckForNull;
+import org.sonar.cxx.sslr.internal.matchers.Matcher;
+import org.sonar.cxx.sslr.internal.matchers.ParseNode;
+
+/**
+ * Packrat memo of the parsing machine: results of memoized rules per input position.
+ *
+ * An entry is either the node of a successful match or the matcher itself for a failed match. Each position has a
+ * fixed number of entries (ways). With one way, rules starting at the same position evict each other. With more ways,
+ * entries of other rules survive until the entries of the position are exhausted; then the oldest entry is replaced.
+ */
+final class MemoTable {
+
+  private final int ways;
+  private final Object[] entries;
+
+  MemoTable(int inputLength, int ways) {
+    if (ways < 1) {
+      throw new IllegalArgumentException("ways must be greater or equal than 1");
+    }
+    this.ways = ways;
+    this.entries = new Object[(inputLength + 1) * ways];
+  }
+
+  /**
+   * Search result of a rule at a position.
+   *
+   * @return node of a successful match, the matcher of a failed match, or null if there is no memo
+   */
+  @CheckForNull
+  Object get(int index, Matcher matcher) {
+    int start = index * ways;
+    for (int i = start; i < start + ways; i++) {
+      var memo = entries[i];
+      if (memo == null) {
+        return null;
+      }
+      if (memo == matcher || (memo instanceof ParseNode node && node.getMatcher() == matcher)) {
+        return memo;
+      }
+    }
+    return null;
+  }
+
+  void putMatch(int index, ParseNode node) {
+    put(index, node.getMatcher(), node);
+  }
+
+  void putFailure(int index, Matcher matcher) {
+    if (!(get(index, matcher) instanceof ParseNode)) {
+      // a rule matching at a position can't fail there: keep the match
+      put(index, matcher, matcher);
+    }
+  }
+
+  private void put(int index, Matcher matcher, Object memo) {
+    int start = index * ways;
+    int end = start + ways - 1;
+    int i = start;
+    while (i < end && entries[i] != null && entries[i] != matcher
+             && !(entries[i] instanceof ParseNode node && node.getMatcher() == matcher)) {
+      i++;
+    }
+    // entries are ordered from newest to oldest: insert in front, drop the replaced (or the oldest) entry
+    System.arraycopy(entries, start, entries, start + 1, i - start);
+    entries[start] = memo;
+  }
+
+}
@@ -38,10 +38,21 @@ public class MutableGrammarCompiler extends CompilationHandler {
   private final Map<GrammarRuleKey, Integer> offsets = new HashMap<>();
 
   public static CompiledGrammar compile(CompilableGrammarRule rule) {
-    return new MutableGrammarCompiler().doCompile(rule);
+    return compile(rule, 1);
   }
 
-  private CompiledGrammar doCompile(CompilableGrammarRule start) {
+  /**
+   * Compile a rule and all rules referenced by it.
+   *
+   * @param rule rule to start with
+   * @param memoWays number of memo entries per input position of the parsing machine
+   * @return compiled grammar
+   */
+  public static CompiledGrammar compile(CompilableGrammarRule rule, int memoWays) {
+    return new MutableGrammarCompiler().doCompile(rule, memoWays);
+  }
+
+  private CompiledGrammar doCompile(CompilableGrammarRule start, int memoWays) {
     List<Instruction> instructions = new ArrayList<>();
 
     // Compile
@@ -68,7 +79,7 @@ public class MutableGrammarCompiler extends CompilationHandler {
       }
     }
 
-    return new CompiledGrammar(result, matchers, start.getRuleKey(), offsets.get(start.getRuleKey()));
+    return new CompiledGrammar(result, matchers, start.getRuleKey(), offsets.get(start.getRuleKey()), memoWays);
   }
 
   @Override
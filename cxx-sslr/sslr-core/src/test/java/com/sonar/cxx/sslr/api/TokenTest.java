@@ -0,0 +1,92 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+/**
+ * fork of SonarSource Language Recognizer: https://github.com/SonarSource/sslr
+ * Copyright (C) 2010-2021 SonarSource SA / mailto:info AT sonarsource DOT com / license: LGPL v3
+ */
+package com.sonar.cxx.sslr.api;
+
+import static com.sonar.cxx.sslr.api.GenericTokenType.COMMENT;
+import static com.sonar.cxx.sslr.api.GenericTokenType.IDENTIFIER;
+import java.net.URI;
+import static org.assertj.core.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+class TokenTest {
+
+  private static final URI URI = java.net.URI.create("tests://unittest");
+
+  private static Token.Builder identifier(String value) {
+    return Token.builder()
+      .setType(IDENTIFIER)
+      .setValueAndOriginalValue(value)
+      .setURI(URI)
+      .setLine(1)
+      .setColumn(0);
+  }
+
+  @Test
+  void testDefaults() {
+    var token = identifier("a").build();
+    assertThat(token.getValue()).isEqualTo("a");
+    assertThat(token.getOriginalValue()).isEqualTo("a");
+    assertThat(token.isGeneratedCode()).isFalse();
+    assertThat(token.isCopyBook()).isFalse();
+    assertThat(token.getCopyBookOriginalLine()).isEqualTo(-1);
+    assertThat(token.getCopyBookOriginalFileName()).isEmpty();
+    assertThat(token.hasTrivia()).isFalse();
+  }
+
+  @Test
+  void testRareAttributes() {
+    var token = identifier("A")
+      .setValueAndOriginalValue("A", "a")
+      .setGeneratedCode(true)
+      .setCopyBook("file", 42)
+      .build();
+    assertThat(token.getValue()).isEqualTo("A");
+    assertThat(token.getOriginalValue()).isEqualTo("a");
+    assertThat(token.isGeneratedCode()).isTrue();
+    assertThat(token.isCopyBook()).isTrue();
+    assertThat(token.getCopyBookOriginalLine()).isEqualTo(42);
+    assertThat(token.getCopyBookOriginalFileName()).isEqualTo("file");
+
+    var copy = Token.builder(token).notCopyBook().build();
+    assertThat(copy.getOriginalValue()).isEqualTo("a");
+    assertThat(copy.isGeneratedCode()).isTrue();
+    assertThat(copy.isCopyBook()).isFalse();
+    assertThat(copy.getCopyBookOriginalLine()).isEqualTo(-1);
+    assertThat(copy.getCopyBookOriginalFileName()).isEmpty();
+  }
+
+  @Test
+  void testTriviaOfCopyIsIndependent() {
+    var comment = Trivia.createComment(Token.builder().setType(COMMENT).setValueAndOriginalValue("//")
+      .setURI(URI).setLine(1).setColumn(0).build());
+    var token = identifier("a").addTrivia(comment).build();
+    var copy = Token.builder(token).addTrivia(comment).build();
+
+    assertThat(token.getTrivia()).hasSize(1);
+    assertThat(copy.getTrivia()).hasSize(2);
+    assertThat(Token.builder(token).build().getTrivia()).isSameAs(token.getTrivia());
+    assertThatThrownBy(() -> token.getTrivia().add(comment)).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+}
@@ -56,6 +56,60 @@ class ChannelDispatcherTest {
     assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
   }
 
+  @Test
+  void shouldDispatchOnFirstCharacter() {
+    var dispatcher = ChannelDispatcher.builder()
+      .addChannels(new CharacterChannel('a', "A"), new CharacterChannel('b', "B"), new CharacterChannel('\u00E4', "AE"),
+        new SpaceDeletionChannel())
+      .dispatchOnFirstCharacter()
+      .build();
+    var output = new StringBuilder();
+    dispatcher.consume(new CodeReader("ab c\u00E4"), output);
+    assertThat(output).hasToString("ABcAE");
+    assertThat(dispatcher.canStartWith('a')).isTrue();
+  }
+
+  @Test
+  void shouldNotDispatchToChannelsNotStartingWithCharacter() {
+    var dispatcher = ChannelDispatcher.builder()
+      .addChannels(new CharacterChannel('a', "A"))
+      .dispatchOnFirstCharacter()
+      .failIfNoChannelToConsumeOneCharacter()
+      .build();
+    assertThat(dispatcher.canStartWith('b')).isFalse();
+
+    var thrown = catchThrowableOfType(IllegalStateException.class, () -> {
+      dispatcher.consume(new CodeReader("ab"), new StringBuilder());
+    });
+    assertThat(thrown).isExactlyInstanceOf(IllegalStateException.class);
+  }
+
+  private static class CharacterChannel extends Channel<StringBuilder> {
+
+    private final char ch;
+    private final String value;
+
+    CharacterChannel(char ch, String value) {
+      this.ch = ch;
+      this.value = value;
+    }
+
+    @Override
+    public boolean consume(CodeReader code, StringBuilder output) {
+      if (code.peek() == ch) {
+        code.pop();
+        output.append(value);
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public boolean canStartWith(char c) {
+      return c == ch;
+    }
+  }
+
   private static class SpaceDeletionChannel extends Channel<StringBuilder> {
 
     @Override
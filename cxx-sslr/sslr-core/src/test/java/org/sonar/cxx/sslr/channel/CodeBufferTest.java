@@ -24,6 +24,7 @@
 package org.sonar.cxx.sslr.channel;
 
 import java.io.IOException;
+import java.nio.CharBuffer;
 import java.util.regex.Pattern;
 import static org.assertj.core.api.Assertions.*;
 import org.junit.jupiter.api.Test;
@@ -59,6 +60,26 @@ class CodeBufferTest {
     assertThat(code.peek()).isEqualTo(-1);
   }
 
+  @Test
+  void testCharBuffer() {
+    var chars = "--pa--".toCharArray();
+    var code = new CodeBuffer(CharBuffer.wrap(chars, 2, 2), defaulConfiguration);
+    assertThat(code).hasSize(2);
+    assertThat(code.charAt(1)).isEqualTo('a');
+    assertThat((char) code.pop()).isEqualTo('p');
+    assertThat((char) code.pop()).isEqualTo('a');
+    assertThat(code.pop()).isEqualTo(-1);
+    assertThat(code.peek()).isEqualTo(-1);
+  }
+
+  @Test
+  void testCharSequence() {
+    var code = new CodeBuffer(new StringBuilder("pa"), defaulConfiguration);
+    assertThat((char) code.pop()).isEqualTo('p');
+    assertThat((char) code.pop()).isEqualTo('a');
+    assertThat(code.pop()).isEqualTo(-1);
+  }
+
   @Test
   void testLastCharacter() {
     var reader = new CodeBuffer("bar", defaulConfiguration);
@@ -28,6 +28,7 @@ import static org.assertj.core.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import static org.mockito.Mockito.mock;
 import org.sonar.cxx.sslr.grammar.GrammarRuleKey;
+import org.sonar.cxx.sslr.grammar.LexerfulGrammarBuilder;
 import org.sonar.cxx.sslr.internal.vm.CompilableGrammarRule;
 
 class MutableGrammarTest {
@@ -46,4 +47,25 @@ class MutableGrammarTest {
     assertThat(grammar.getRootRule()).isSameAs(rootRule);
   }
 
+  @Test
+  void compileOnlyOnce() {
+    var ruleKey = mock(GrammarRuleKey.class);
+    var rootRuleKey = mock(GrammarRuleKey.class);
+    var b = LexerfulGrammarBuilder.create();
+    b.rule(ruleKey).is("bar");
+    b.rule(rootRuleKey).is("foo", ruleKey);
+    b.setRootRule(rootRuleKey);
+    var grammar = (MutableGrammar) b.build();
+
+    var rootRule = (CompilableGrammarRule) grammar.getRootRule();
+    var compiled = grammar.compile(rootRule);
+    assertThat(compiled.getRootRuleKey()).isSameAs(rootRuleKey);
+    assertThat(grammar.compile(rootRule)).isSameAs(compiled);
+    assertThat(grammar.compile((CompilableGrammarRule) grammar.rule(ruleKey))).isNotSameAs(compiled);
+
+    var foreignRule = new MutableParsingRule(rootRuleKey);
+    foreignRule.setExpression(rootRule.getExpression());
+    assertThat(grammar.compile(foreignRule)).isNotSameAs(grammar.compile(foreignRule));
+  }
+
 }
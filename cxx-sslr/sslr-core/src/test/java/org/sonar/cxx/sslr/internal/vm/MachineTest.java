@@ -23,11 +23,17 @@
  */
 package org.sonar.cxx.sslr.internal.vm;
 
+import static com.sonar.cxx.sslr.api.GenericTokenType.EOF;
+import static com.sonar.cxx.sslr.api.GenericTokenType.IDENTIFIER;
+import com.sonar.cxx.sslr.impl.token.TokenUtils;
 import static org.assertj.core.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import org.sonar.cxx.sslr.grammar.GrammarException;
+import org.sonar.cxx.sslr.grammar.GrammarRuleKey;
+import org.sonar.cxx.sslr.grammar.LexerfulGrammarBuilder;
+import org.sonar.cxx.sslr.internal.grammar.MutableGrammar;
 import org.sonar.cxx.sslr.internal.matchers.Matcher;
 
 class MachineTest {
@@ -246,4 +252,51 @@ class MachineTest {
     assertThat(machine.peek().subNodes()).isEmpty();
   }
 
+  @Test
+  void shouldUseMemoOfFailure() {
+    var machine = new Machine("foo", new Instruction[4]);
+    var matcher = mock(MemoParsingExpression.class);
+    when(matcher.shouldMemoize()).thenReturn(true);
+    machine.pushBacktrack(0);
+    machine.pushReturn(1, matcher, 2);
+    machine.backtrack();
+    machine.pushBacktrack(3);
+    machine.pushReturn(1, matcher, 2);
+    assertThat(machine.getAddress()).isEqualTo(3);
+    assertThat(machine.getIndex()).isZero();
+  }
+
+  @Test
+  void shouldCountStatistics() {
+    var b = LexerfulGrammarBuilder.create();
+    b.rule(Keys.ROOT).is(b.firstOf(Keys.B, Keys.C), EOF);
+    b.rule(Keys.A).is(IDENTIFIER);
+    b.rule(Keys.B).is(Keys.A, "x");
+    b.rule(Keys.C).is(Keys.A, "y");
+    b.setRootRule(Keys.ROOT);
+    var grammar = (MutableGrammar) b.buildWithMemoizationOfMatchesForAllRules(2);
+    var compiledGrammar = grammar.compile((CompilableGrammarRule) grammar.getRootRule());
+    assertThat(compiledGrammar.getMemoWays()).isEqualTo(2);
+
+    var statistics = new MachineStatistics();
+    Machine.parse(TokenUtils.lex("foo y EOF"), compiledGrammar, statistics);
+    Machine.parse(TokenUtils.lex("foo y EOF"), compiledGrammar, statistics);
+
+    assertThat(statistics.getMemoHits()).isEqualTo(2);
+    assertThat(statistics.getMemoHitsPerRule()).containsExactly(entry("A", 2L));
+    assertThat(statistics.getMemoMissesPerRule()).containsOnly(entry("A", 2L), entry("B", 2L), entry("C", 2L));
+    assertThat(statistics.getBacktracks()).containsExactly(entry("B", 2L));
+    assertThat(statistics.getParses()).isEqualTo(2);
+    assertThat(statistics.getTokens()).isEqualTo(6);
+    assertThat(statistics.getRules()).containsExactly(
+      new MachineStatistics.Rule("B", 2, 0, 2, 2, 2),
+      new MachineStatistics.Rule("A", 4, 2, 2, 0, 2),
+      new MachineStatistics.Rule("C", 2, 0, 2, 0, 4),
+      new MachineStatistics.Rule("ROOT", 0, 0, 0, 0, 6));
+  }
+
+  private enum Keys implements GrammarRuleKey {
+    ROOT, A, B, C
+  }
+
 }
@@ -0,0 +1,85 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+/**
+ * fork of SonarSource Language Recognizer: https://github.com/SonarSource/sslr
+ * Copyright (C) 2010-2021 SonarSource SA / mailto:info AT sonarsource DOT com / license: LGPL v3
+ */
+package org.sonar.cxx.sslr.internal.vm;
+
+import static org.assertj.core.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import org.sonar.cxx.sslr.internal.matchers.Matcher;
+import org.sonar.cxx.sslr.internal.matchers.ParseNode;
+
+class MemoTableTest {
+
+  private final Matcher a = mock(Matcher.class);
+  private final Matcher b = mock(Matcher.class);
+  private final Matcher c = mock(Matcher.class);
+
+  @Test
+  void oneWayEvictsOtherRules() {
+    var memos = new MemoTable(3, 1);
+    var nodeA = new ParseNode(1, 2, a);
+    var nodeB = new ParseNode(1, 3, b);
+    memos.putMatch(1, nodeA);
+    assertThat(memos.get(1, a)).isSameAs(nodeA);
+    memos.putMatch(1, nodeB);
+    assertThat(memos.get(1, a)).isNull();
+    assertThat(memos.get(1, b)).isSameAs(nodeB);
+    assertThat(memos.get(0, b)).isNull();
+  }
+
+  @Test
+  void severalWaysEvictOldestEntry() {
+    var memos = new MemoTable(3, 2);
+    var nodeA = new ParseNode(1, 2, a);
+    var nodeC = new ParseNode(1, 3, c);
+    memos.putMatch(1, nodeA);
+    memos.putFailure(1, b);
+    assertThat(memos.get(1, a)).isSameAs(nodeA);
+    assertThat(memos.get(1, b)).isSameAs(b);
+    assertThat(memos.get(1, c)).isNull();
+
+    memos.putMatch(1, nodeC);
+    assertThat(memos.get(1, a)).isNull();
+    assertThat(memos.get(1, b)).isSameAs(b);
+    assertThat(memos.get(1, c)).isSameAs(nodeC);
+  }
+
+  @Test
+  void replacesEntryOfSameRule() {
+    var memos = new MemoTable(3, 2);
+    var nodeA = new ParseNode(1, 2, a);
+    var nodeB = new ParseNode(1, 3, b);
+    memos.putMatch(1, nodeA);
+    memos.putFailure(1, b);
+    memos.putMatch(1, nodeB);
+    assertThat(memos.get(1, a)).isSameAs(nodeA);
+    assertThat(memos.get(1, b)).isSameAs(nodeB);
+  }
+
+  @Test
+  void waysMustBePositive() {
+    assertThatThrownBy(() -> new MemoTable(3, 0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
@@ -109,6 +109,23 @@ class AstWalkerTest {
     verify(astVisitor, never()).visitNode(ast11);
   }
 
+  @Test
+  void testVisitNodeByName() {
+    when(astVisitor.getAstNodeTypesToVisit()).thenReturn(Arrays.asList(dog));
+    when(astVisitor.getAstNodeNamesToVisit()).thenReturn(Arrays.asList("121", "13"));
+    walker.addVisitor(astVisitor);
+    walker.walkAndVisit(ast1);
+    var inOrder = inOrder(astVisitor);
+    inOrder.verify(astVisitor).visitNode(ast11);
+    inOrder.verify(astVisitor).leaveNode(ast11);
+    inOrder.verify(astVisitor).visitNode(ast121);
+    inOrder.verify(astVisitor).leaveNode(ast121);
+    inOrder.verify(astVisitor).visitNode(ast13);
+    inOrder.verify(astVisitor).leaveNode(ast13);
+    verify(astVisitor, never()).visitNode(ast1);
+    verify(astVisitor, never()).visitNode(ast12);
+  }
+
   @Test
   void testAddVisitor() {
     var walker1 = new AstWalker();
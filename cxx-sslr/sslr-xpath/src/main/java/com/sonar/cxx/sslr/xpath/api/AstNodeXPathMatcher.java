@@ -0,0 +1,393 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.sonar.cxx.sslr.xpath.api;
+
+import com.sonar.cxx.sslr.api.AstNode;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Compiled form of the common XPath location paths, which can be evaluated on a single AstNode without traversing the
+ * tree.
+ *
+ * <p>
+ * Supported are absolute location paths with child ({@code /}) and descendant ({@code //}) steps, name tests (
+ * {@code *} only for inner steps) and predicates comparing the attributes {@code @tokenValue}, {@code @tokenLine} and
+ * {@code @tokenColumn} with a string or number literal (combined with {@code and} and {@code or}), for example:</p>
+ *
+ * <pre>
+ *   //declaration
+ *   //functionDefinition//IDENTIFIER[@tokenValue='goto']
+ *   /translationUnit/declaration[@tokenLine &gt; 100 and @tokenColumn = 1]
+ * </pre>
+ *
+ * The nodes selected by such a query are all nodes with the name of the last step (see {@link #getNodeName()}) for
+ * which {@link #matches(AstNode)} returns true. So the query can be evaluated together with other visitors in a single
+ * walk over the tree, see {@link com.sonar.cxx.sslr.api.AstVisitor#getAstNodeNamesToVisit()}. For all other queries
+ * {@link #create(String)} returns null and {@link AstNodeXPathQuery} has to be used.
+ */
+public final class AstNodeXPathMatcher {
+
+  private final Step[] steps;
+
+  private AstNodeXPathMatcher(Step[] steps) {
+    this.steps = steps;
+  }
+
+  /**
+   * Compiles an XPath query, if it is supported.
+   *
+   * @param xpath The query to compile
+   * @return The compiled XPath query or null if the query is not supported
+   */
+  @CheckForNull
+  public static AstNodeXPathMatcher create(String xpath) {
+    var steps = new Parser(xpath).parse();
+    if (steps == null || steps.isEmpty() || steps.get(steps.size() - 1).name == null) {
+      return null;
+    }
+    return new AstNodeXPathMatcher(steps.toArray(Step[]::new));
+  }
+
+  /**
+   * Name of the nodes selected by the query.
+   *
+   * @return node name of the last step of the location path
+   */
+  public String getNodeName() {
+    return steps[steps.length - 1].name;
+  }
+
+  /**
+   * Checks whether the query selects the given node (evaluated on the root of the tree).
+   *
+   * @param astNode node to check
+   * @return true if the node is selected
+   */
+  public boolean matches(AstNode astNode) {
+    return matches(astNode, steps.length - 1);
+  }
+
+  private boolean matches(AstNode astNode, int stepIndex) {
+    var step = steps[stepIndex];
+    if (!step.test(astNode)) {
+      return false;
+    }
+    var parent = getParent(astNode);
+    if (stepIndex == 0) {
+      // first step of an absolute location path: child of the document node is the root of the tree
+      return step.descendant || parent == null;
+    }
+    if (!step.descendant) {
+      return parent != null && matches(parent, stepIndex - 1);
+    }
+    for (var ancestor = parent; ancestor != null; ancestor = getParent(ancestor)) {
+      if (matches(ancestor, stepIndex - 1)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Parent of a node, null for the root of the tree.
+   *
+   * AstNodeXPathQuery adds a document node (without type, named {@code [root]}) as parent of the root of the tree.
+   */
+  @CheckForNull
+  private static AstNode getParent(AstNode astNode) {
+    var parent = astNode.getParent();
+    if (parent != null && parent.getType() == null && "[root]".equals(parent.getName())) {
+      return null;
+    }
+    return parent;
+  }
+
+  private record Step(boolean descendant, @Nullable String name, List<List<Comparison>> predicates) {
+
+    boolean test(AstNode astNode) {
+      if (name != null && !name.equals(astNode.getName())) {
+        return false;
+      }
+      // each predicate is a disjunction of conjunctions
+      for (var predicate : predicates) {
+        if (!test(astNode, predicate)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean test(AstNode astNode, List<Comparison> disjunction) {
+      for (var comparison : disjunction) {
+        if (comparison.test(astNode)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+  }
+
+  /**
+   * Comparison of an attribute with a literal, a null operator checks only the existence of the attribute. Several
+   * comparisons combined with {@code and} are chained with {@code next}.
+   */
+  private record Comparison(String attribute, @Nullable String operator, @Nullable String string, double number,
+    @Nullable Comparison next) {
+
+    boolean test(AstNode astNode) {
+      if (!astNode.hasToken()) {
+        // nodes without token have no attributes: the comparison with an empty node set is always false
+        return false;
+      }
+      if (operator != null && !compare(value(astNode))) {
+        return false;
+      }
+      return next == null || next.test(astNode);
+    }
+
+    private String value(AstNode astNode) {
+      var token = astNode.getToken();
+      return switch (attribute) {
+        case "tokenLine" ->
+          Integer.toString(token.getLine());
+        case "tokenColumn" ->
+          Integer.toString(token.getColumn());
+        default ->
+          token.getValue();
+      };
+    }
+
+    private boolean compare(String value) {
+      if (string != null && ("=".equals(operator) || "!=".equals(operator))) {
+        return string.equals(value) == "=".equals(operator);
+      }
+      var left = toNumber(value);
+      double right = string != null ? toNumber(string) : number;
+      return switch (operator) {
+        case "=" ->
+          left == right;
+        case "!=" ->
+          left != right;
+        case "<" ->
+          left < right;
+        case "<=" ->
+          left <= right;
+        case ">" ->
+          left > right;
+        default ->
+          left >= right;
+      };
+    }
+
+    private static double toNumber(String value) {
+      var text = value.trim();
+      if (!text.matches("-?(\\d+(\\.\\d*)?|\\.\\d+)")) {
+        return Double.NaN;
+      }
+      return Double.parseDouble(text);
+    }
+
+  }
+
+  /**
+   * Parser of the supported subset of XPath, returns null for all other expressions.
+   */
+  private static final class Parser {
+
+    private final String xpath;
+    private int pos = 0;
+
+    Parser(String xpath) {
+      this.xpath = xpath;
+    }
+
+    @CheckForNull
+    List<Step> parse() {
+      var steps = new ArrayList<Step>();
+      skipWhitespace();
+      while (pos < xpath.length()) {
+        if (!consume("/")) {
+          return null;
+        }
+        boolean descendant = consume("/");
+        var step = step(descendant);
+        if (step == null) {
+          return null;
+        }
+        steps.add(step);
+        skipWhitespace();
+      }
+      return steps;
+    }
+
+    @CheckForNull
+    private Step step(boolean descendant) {
+      skipWhitespace();
+      String name = null;
+      if (!consume("*")) {
+        name = name();
+        if (name == null) {
+          return null;
+        }
+      }
+      var predicates = new ArrayList<List<Comparison>>();
+      skipWhitespace();
+      while (consume("[")) {
+        var predicate = predicate();
+        skipWhitespace();
+        if (predicate == null || !consume("]")) {
+          return null;
+        }
+        predicates.add(predicate);
+        skipWhitespace();
+      }
+      return new Step(descendant, name, predicates);
+    }
+
+    @CheckForNull
+    private List<Comparison> predicate() {
+      var disjunction = new ArrayList<Comparison>();
+      do {
+        var comparison = conjunction();
+        if (comparison == null) {
+          return null;
+        }
+        disjunction.add(comparison);
+      } while (keyword("or"));
+      return disjunction;
+    }
+
+    @CheckForNull
+    private Comparison conjunction() {
+      var comparisons = new ArrayList<Comparison>();
+      do {
+        var comparison = comparison();
+        if (comparison == null) {
+          return null;
+        }
+        comparisons.add(comparison);
+      } while (keyword("and"));
+
+      Comparison result = null;
+      for (int i = comparisons.size() - 1; i >= 0; i--) {
+        var c = comparisons.get(i);
+        result = new Comparison(c.attribute(), c.operator(), c.string(), c.number(), result);
+      }
+      return result;
+    }
+
+    @CheckForNull
+    private Comparison comparison() {
+      skipWhitespace();
+      if (!consume("@")) {
+        return null;
+      }
+      var attribute = name();
+      if (!"tokenValue".equals(attribute) && !"tokenLine".equals(attribute) && !"tokenColumn".equals(attribute)) {
+        return null;
+      }
+      skipWhitespace();
+      var operator = operator();
+      if (operator == null) {
+        return new Comparison(attribute, null, null, 0, null);
+      }
+      skipWhitespace();
+      if (pos < xpath.length() && (xpath.charAt(pos) == '\'' || xpath.charAt(pos) == '"')) {
+        int end = xpath.indexOf(xpath.charAt(pos), pos + 1);
+        if (end < 0) {
+          return null;
+        }
+        var string = xpath.substring(pos + 1, end);
+        pos = end + 1;
+        return new Comparison(attribute, operator, string, 0, null);
+      }
+      int start = pos;
+      consume("-");
+      while (pos < xpath.length() && (Character.isDigit(xpath.charAt(pos)) || xpath.charAt(pos) == '.')) {
+        pos++;
+      }
+      var number = Comparison.toNumber(xpath.substring(start, pos));
+      if (Double.isNaN(number)) {
+        return null;
+      }
+      return new Comparison(attribute, operator, null, number, null);
+    }
+
+    @CheckForNull
+    private String operator() {
+      for (var operator : new String[]{"!=", "<=", ">=", "=", "<", ">"}) {
+        if (consume(operator)) {
+          return operator;
+        }
+      }
+      return null;
+    }
+
+    @CheckForNull
+    private String name() {
+      int start = pos;
+      if (pos < xpath.length() && (Character.isLetter(xpath.charAt(pos)) || xpath.charAt(pos) == '_')) {
+        pos++;
+        while (pos < xpath.length() && isNameChar(xpath.charAt(pos))) {
+          pos++;
+        }
+      }
+      if (start == pos || (pos < xpath.length() && (xpath.charAt(pos) == ':' || xpath.charAt(pos) == '('))) {
+        // no name, qualified name, axis or function call
+        return null;
+      }
+      return xpath.substring(start, pos);
+    }
+
+    private boolean keyword(String keyword) {
+      skipWhitespace();
+      int end = pos + keyword.length();
+      if (xpath.startsWith(keyword, pos) && end < xpath.length() && !isNameChar(xpath.charAt(end))) {
+        pos = end;
+        return true;
+      }
+      return false;
+    }
+
+    private boolean consume(String text) {
+      if (xpath.startsWith(text, pos)) {
+        pos += text.length();
+        return true;
+      }
+      return false;
+    }
+
+    private void skipWhitespace() {
+      while (pos < xpath.length() && Character.isWhitespace(xpath.charAt(pos))) {
+        pos++;
+      }
+    }
+
+    private static boolean isNameChar(char c) {
+      return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+    }
+
+  }
+
+}
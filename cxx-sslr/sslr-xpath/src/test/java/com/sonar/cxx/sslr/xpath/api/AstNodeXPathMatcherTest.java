@@ -0,0 +1,149 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.sonar.cxx.sslr.xpath.api;
+
+import com.sonar.cxx.sslr.api.AstNode;
+import com.sonar.cxx.sslr.api.AstNodeType;
+import com.sonar.cxx.sslr.api.GenericTokenType;
+import com.sonar.cxx.sslr.api.Token;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class AstNodeXPathMatcherTest {
+
+  private static final AstNodeType TYPE = new AstNodeType() {
+  };
+
+  private AstNode tree;
+
+  @BeforeEach
+  void setUp() throws URISyntaxException {
+    //  unit
+    //   |__ func
+    //   |    |__ stmt 'goto'
+    //   |    |__ stmt 'return'
+    //   |    |__ expr
+    //   |         |__ IDENTIFIER 'x'
+    //   |__ func
+    //        |__ stmt 'goto'
+    tree = node("unit", "int", 1, 0);
+    var func1 = node("func", "int", 1, 0);
+    func1.addChild(node("stmt", "goto", 2, 2));
+    func1.addChild(node("stmt", "return", 3, 2));
+    var expr = new AstNode(TYPE, "expr", null);
+    expr.addChild(node("IDENTIFIER", "x", 3, 9));
+    func1.addChild(expr);
+    var func2 = node("func", "void", 5, 0);
+    func2.addChild(node("stmt", "goto", 6, 2));
+    tree.addChild(func1);
+    tree.addChild(func2);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+    "//stmt",
+    "//func",
+    "//unit",
+    "/unit",
+    "/func",
+    "/unit/func",
+    "/unit//stmt",
+    "//func/stmt",
+    "//func/IDENTIFIER",
+    "//func//IDENTIFIER",
+    "//*/IDENTIFIER",
+    "/*/*/stmt",
+    "//stmt[@tokenValue='goto']",
+    "//stmt[@tokenValue = \"goto\"]",
+    "//stmt[@tokenValue!='goto']",
+    "//stmt[@tokenLine=6]",
+    "//stmt[@tokenLine > 2 and @tokenColumn = 2]",
+    "//stmt[@tokenLine <= 2 or @tokenValue='return']",
+    "//stmt[@tokenLine >= '3']",
+    "//func[@tokenValue='void']/stmt",
+    "//func[@tokenLine][@tokenValue='int']//stmt",
+    "//expr[@tokenValue='x']"
+  })
+  void sameResultAsXPathQuery(String xpath) {
+    var matcher = AstNodeXPathMatcher.create(xpath);
+    assertThat(matcher).isNotNull();
+
+    List<AstNode> expected = AstNodeXPathQuery.<AstNode>create(xpath).selectNodes(tree);
+    assertThat(select(matcher, tree)).containsExactlyElementsOf(expected);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+    "",
+    "//",
+    "stmt",
+    "./stmt",
+    "//*",
+    "//stmt/..",
+    "//stmt/@tokenValue",
+    "//stmt | //func",
+    "//descendant::stmt",
+    "//stmt[1]",
+    "//stmt[count(*) = 0]",
+    "//stmt[@foo='bar']",
+    "//stmt['goto'=@tokenValue]",
+    "//stmt[@tokenValue='goto'",
+    "//stmt/text()",
+    "count(//stmt) > 0"
+  })
+  void unsupportedQueries(String xpath) {
+    assertThat(AstNodeXPathMatcher.create(xpath)).isNull();
+  }
+
+  @Test
+  void nodeName() {
+    assertThat(AstNodeXPathMatcher.create("//func//stmt[@tokenValue='goto']").getNodeName()).isEqualTo("stmt");
+  }
+
+  private static List<AstNode> select(AstNodeXPathMatcher matcher, AstNode astNode) {
+    var result = new ArrayList<AstNode>();
+    if (matcher.matches(astNode)) {
+      result.add(astNode);
+    }
+    for (var child : astNode.getChildren()) {
+      result.addAll(select(matcher, child));
+    }
+    return result;
+  }
+
+  private static AstNode node(String name, String value, int line, int column) throws URISyntaxException {
+    var token = Token.builder()
+      .setURI(new URI("tests://unittest"))
+      .setType(GenericTokenType.IDENTIFIER)
+      .setLine(line)
+      .setColumn(column)
+      .setValueAndOriginalValue(value)
+      .build();
+    return new AstNode(TYPE, name, token);
+  }
+
+}
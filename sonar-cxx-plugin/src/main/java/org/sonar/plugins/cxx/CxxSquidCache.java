@@ -0,0 +1,535 @@
+/*
+ * C++ Community Plugin (cxx plugin)
+ * Copyright (C) SonarOpenCommunity
+ * http://github.com/SonarOpenCommunity/sonar-cxx
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.cxx;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.cache.ReadCache;
+import org.sonar.api.batch.sensor.cache.WriteCache;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.cxx.api.CxxMetric;
+import org.sonar.cxx.config.CxxSquidConfiguration;
+import org.sonar.cxx.squidbridge.api.CheckMessage;
+import org.sonar.cxx.squidbridge.api.SourceFile;
+import org.sonar.cxx.utils.CxxReportIssue;
+import org.sonar.cxx.utils.CxxReportLocation;
+import org.sonar.cxx.visitors.CxxCpdVisitor;
+import org.sonar.cxx.visitors.CxxFileVisitor;
+import org.sonar.cxx.visitors.CxxHighlighterVisitor;
+import org.sonar.cxx.visitors.MultiLocatitionSquidCheck;
+
+/**
+ * Persistent cache of the squid results of a source file, used for incremental analysis.
+ *
+ * The results of a file are stored in the analysis cache of the scanner (keyed by the input file key) and reused by the
+ * next analysis if the file itself, its preprocessor context (unit specific macros, include directories and forced
+ * includes) and all include files processed for the file are unchanged: the entry contains the hashes of the include
+ * files. Changes of the global configuration (settings, active rules, plugin version) invalidate all entries.
+ *
+ * The cache does not detect newly created include files which would hide an already used include file in the search
+ * path: in this case a full analysis is necessary.
+ *
+ * An entry is written with DataOutput in an explicit format starting with a magic number and the format version, entries
+ * of other versions are ignored.
+ */
+final class CxxSquidCache {
+
+  static final String KEY_PREFIX = "cxx-squid:";
+
+  private static final Logger LOG = LoggerFactory.getLogger(CxxSquidCache.class);
+  private static final int MAGIC = 0x43585843; // CXXC
+  private static final int VERSION = 2;
+
+  private static final List<CxxMetric> MEASURES = List.of(
+    CxxMetric.FILES, CxxMetric.LINES, CxxMetric.LINES_OF_CODE, CxxMetric.LINES_OF_CODE_IN_FUNCTION_BODY,
+    CxxMetric.STATEMENTS, CxxMetric.FUNCTIONS, CxxMetric.CLASSES, CxxMetric.COMPLEXITY, CxxMetric.COGNITIVE_COMPLEXITY,
+    CxxMetric.COMMENT_LINES, CxxMetric.PUBLIC_API, CxxMetric.PUBLIC_UNDOCUMENTED_API, CxxMetric.COMPLEX_FUNCTIONS,
+    CxxMetric.COMPLEX_FUNCTIONS_LOC, CxxMetric.LOC_IN_FUNCTIONS, CxxMetric.BIG_FUNCTIONS, CxxMetric.BIG_FUNCTIONS_LOC
+  );
+
+  private final ReadCache previousCache;
+  private final WriteCache nextCache;
+  private final String globalHash;
+  private final CxxSquidConfiguration squidConfig;
+  private final Map<Path, String> contentHashes = new ConcurrentHashMap<>();
+  private final AtomicInteger reusedFiles = new AtomicInteger();
+
+  CxxSquidCache(ReadCache previousCache, WriteCache nextCache, String globalHash, CxxSquidConfiguration squidConfig) {
+    this.previousCache = previousCache;
+    this.nextCache = nextCache;
+    this.globalHash = globalHash;
+    this.squidConfig = squidConfig;
+  }
+
+  /**
+   * Create the cache for the analysis of the given context, the analysis cache of the context must be enabled.
+   *
+   * @param context sensor context of the analysis
+   * @param squidConfig configuration of the analysis
+   * @param properties settings which have an effect on the results of all files
+   * @return the cache
+   */
+  static CxxSquidCache create(SensorContext context, CxxSquidConfiguration squidConfig, List<String> properties) {
+    var global = new StringBuilder(512);
+    global.append(VERSION).append('\n')
+      .append(CxxSquidCache.class.getPackage().getImplementationVersion()).append('\n')
+      .append(squidConfig.getCharset()).append('\n');
+    for (var key : properties) {
+      global.append(key).append('=').append(String.join(",", context.config().getStringArray(key))).append('\n');
+    }
+
+    var activeRules = new ArrayList<>(context.activeRules().findAll());
+    activeRules.sort(Comparator.comparing((ActiveRule rule) -> rule.ruleKey().toString()));
+    for (var rule : activeRules) {
+      global.append(rule.ruleKey()).append(':').append(rule.severity()).append(new TreeMap<>(rule.params()))
+        .append('\n');
+    }
+
+    // global forced includes are processed only once for all units
+    for (var file : squidConfig.getValues(CxxSquidConfiguration.GLOBAL, CxxSquidConfiguration.FORCE_INCLUDES)) {
+      if (!file.isEmpty()) {
+        var path = Path.of(squidConfig.getBaseDir()).resolve(file);
+        global.append(file).append(':').append(readHash(path)).append('\n');
+      }
+    }
+
+    return new CxxSquidCache(context.previousCache(), context.nextCache(), hash(global.toString()), squidConfig);
+  }
+
+  /**
+   * Read the results of a file from the cache of the previous analysis, a restored entry is kept for the next analysis.
+   *
+   * @param inputFile file to restore
+   * @param checks returns the check instance for a rule key, {@code null} if there is none
+   * @return restored source file or {@code null} if there is no valid entry for the file
+   */
+  @CheckForNull
+  SourceFile restore(InputFile inputFile, Function<RuleKey, Object> checks) {
+    var key = key(inputFile);
+    if (!previousCache.contains(key)) {
+      return null;
+    }
+
+    Entry entry;
+    try (var stream = new DataInputStream(new BufferedInputStream(previousCache.read(key)))) {
+      entry = Entry.read(stream);
+    } catch (IOException | IllegalArgumentException e) {
+      LOG.debug("Cannot read squid cache entry '{}'", key, e);
+      return null;
+    }
+
+    if (entry == null || !isValid(entry, inputFile)) {
+      return null;
+    }
+
+    var file = new File(inputFile.uri().getPath());
+    var sourceFile = new SourceFile(file.getAbsolutePath(), file.getName());
+    entry.measures.forEach((name, value) -> sourceFile.setMeasure(CxxMetric.valueOf(name), value));
+    sourceFile.addNoSonarTagLines(entry.noSonarLines);
+    sourceFile.addData(CxxMetric.NCLOC_DATA, entry.linesOfCode);
+    sourceFile.addData(CxxMetric.EXECUTABLE_LINES_DATA, entry.executableLines);
+    sourceFile.addData(CxxMetric.CPD_TOKENS_DATA, entry.cpdTokens);
+    sourceFile.addData(CxxMetric.HIGHLIGTHING_DATA, entry.highlights);
+    for (var message : entry.messages) {
+      var check = checks.apply(RuleKey.parse(message.ruleKey));
+      if (check == null) {
+        return null;
+      }
+      var checkMessage = new CheckMessage(check, message.text);
+      if (message.line != null) {
+        checkMessage.setLine(message.line);
+      }
+      sourceFile.log(checkMessage);
+    }
+    if (!entry.multiLocationIssues.isEmpty()) {
+      MultiLocatitionSquidCheck.setMultiLocationCheckMessages(sourceFile, entry.multiLocationIssues);
+    }
+
+    nextCache.copyFromPrevious(key);
+    reusedFiles.incrementAndGet();
+    return sourceFile;
+  }
+
+  /**
+   * Write the results of a scanned file to the cache of the next analysis.
+   *
+   * @param inputFile scanned file
+   * @param sourceFile results of the file, must be called before the results are saved and released
+   * @param ruleKeys returns the rule key for a check instance, {@code null} if there is none
+   */
+  @SuppressWarnings("unchecked")
+  void put(InputFile inputFile, SourceFile sourceFile, Function<Object, RuleKey> ruleKeys) {
+    var entry = new Entry(inputFile.uri().toString(), globalHash, fileHash(inputFile));
+    for (var include : CxxFileVisitor.getIncludedFiles(sourceFile)) {
+      entry.includes.put(include.toString(), contentHash(include));
+    }
+    for (var metric : MEASURES) {
+      entry.measures.put(metric.name(), sourceFile.getInt(metric));
+    }
+    entry.noSonarLines.addAll(sourceFile.getNoSonarTagLines());
+    entry.linesOfCode.addAll((List<Integer>) sourceFile.getData(CxxMetric.NCLOC_DATA));
+    entry.executableLines.addAll((List<Integer>) sourceFile.getData(CxxMetric.EXECUTABLE_LINES_DATA));
+    entry.cpdTokens.addAll((List<CxxCpdVisitor.CpdToken>) sourceFile.getData(CxxMetric.CPD_TOKENS_DATA));
+    entry.highlights.addAll((List<CxxHighlighterVisitor.Highlight>) sourceFile.getData(CxxMetric.HIGHLIGTHING_DATA));
+    if (sourceFile.hasCheckMessages()) {
+      for (var message : sourceFile.getCheckMessages()) {
+        var ruleKey = ruleKeys.apply(message.getCheck());
+        if (ruleKey != null) {
+          entry.messages.add(new Message(ruleKey.toString(), message.getLine(), message.getText(Locale.ENGLISH)));
+        }
+      }
+    }
+    if (MultiLocatitionSquidCheck.hasMultiLocationCheckMessages(sourceFile)) {
+      entry.multiLocationIssues.addAll(MultiLocatitionSquidCheck.getMultiLocationCheckMessages(sourceFile));
+    }
+
+    var bytes = new ByteArrayOutputStream(4096);
+    try (var stream = new DataOutputStream(bytes)) {
+      entry.write(stream);
+    } catch (IOException e) {
+      LOG.debug("Cannot write squid cache entry '{}'", key(inputFile), e);
+      return;
+    }
+    nextCache.write(key(inputFile), bytes.toByteArray());
+  }
+
+  /**
+   * @return number of files restored from the cache
+   */
+  int getReusedFiles() {
+    return reusedFiles.get();
+  }
+
+  private boolean isValid(Entry entry, InputFile inputFile) {
+    if (!entry.key.equals(inputFile.uri().toString())
+          || !entry.globalHash.equals(globalHash)
+          || !entry.fileHash.equals(fileHash(inputFile))) {
+      return false;
+    }
+    for (var include : entry.includes.entrySet()) {
+      if (!include.getValue().equals(contentHash(Path.of(include.getKey())))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Hash of the file content and its unit specific preprocessor configuration.
+   */
+  private String fileHash(InputFile inputFile) {
+    var level = new File(inputFile.uri().getPath()).getAbsolutePath();
+    var text = new StringBuilder(256);
+    text.append(inputFile.md5Hash()).append('\n');
+    for (var key : List.of(CxxSquidConfiguration.DEFINES, CxxSquidConfiguration.INCLUDE_DIRECTORIES,
+                           CxxSquidConfiguration.FORCE_INCLUDES)) {
+      text.append(key).append('=').append(squidConfig.getValues(level, key)).append('\n');
+    }
+    return hash(text.toString());
+  }
+
+  /**
+   * Hash of the content of a file, calculated only once per analysis.
+   */
+  private String contentHash(Path file) {
+    return contentHashes.computeIfAbsent(file, CxxSquidCache::readHash);
+  }
+
+  private static String key(InputFile inputFile) {
+    return KEY_PREFIX + inputFile.key();
+  }
+
+  private static String readHash(Path file) {
+    try (InputStream stream = Files.newInputStream(file)) {
+      var digest = digest();
+      var buffer = new byte[8192];
+      int read;
+      while ((read = stream.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (IOException e) {
+      return "";
+    }
+  }
+
+  private static String hash(String text) {
+    return HexFormat.of().formatHex(digest().digest(text.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static MessageDigest digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported", e);
+    }
+  }
+
+  private static final class Entry {
+
+    private final String key;
+    private final String globalHash;
+    private final String fileHash;
+    private final HashMap<String, String> includes = new HashMap<>();
+    private final HashMap<String, Integer> measures = new HashMap<>();
+    private final HashSet<Integer> noSonarLines = new HashSet<>();
+    private final ArrayList<Integer> linesOfCode = new ArrayList<>();
+    private final ArrayList<Integer> executableLines = new ArrayList<>();
+    private final ArrayList<CxxCpdVisitor.CpdToken> cpdTokens = new ArrayList<>();
+    private final ArrayList<CxxHighlighterVisitor.Highlight> highlights = new ArrayList<>();
+    private final ArrayList<Message> messages = new ArrayList<>();
+    private final HashSet<CxxReportIssue> multiLocationIssues = new HashSet<>();
+
+    private Entry(String key, String globalHash, String fileHash) {
+      this.key = key;
+      this.globalHash = globalHash;
+      this.fileHash = fileHash;
+    }
+
+    /**
+     * @return the entry or {@code null} if it was written by another version
+     */
+    @CheckForNull
+    static Entry read(DataInputStream in) throws IOException {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return null;
+      }
+      var entry = new Entry(readString(in), readString(in), readString(in));
+      for (int i = in.readInt(); i > 0; i--) {
+        entry.includes.put(readString(in), readString(in));
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        entry.measures.put(readString(in), in.readInt());
+      }
+      readInts(in, entry.noSonarLines);
+      readInts(in, entry.linesOfCode);
+      readInts(in, entry.executableLines);
+      for (int i = in.readInt(); i > 0; i--) {
+        entry.cpdTokens.add(new CxxCpdVisitor.CpdToken(in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+          readString(in)));
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        entry.highlights.add(new CxxHighlighterVisitor.Highlight(in.readInt(), in.readInt(), in.readInt(),
+          in.readInt(), readString(in)));
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        var ruleKey = readString(in);
+        var line = in.readBoolean() ? in.readInt() : null;
+        entry.messages.add(new Message(ruleKey, line, readString(in)));
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        entry.multiLocationIssues.add(readIssue(in));
+      }
+      return entry;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      writeString(out, key);
+      writeString(out, globalHash);
+      writeString(out, fileHash);
+      out.writeInt(includes.size());
+      for (var include : includes.entrySet()) {
+        writeString(out, include.getKey());
+        writeString(out, include.getValue());
+      }
+      out.writeInt(measures.size());
+      for (var measure : measures.entrySet()) {
+        writeString(out, measure.getKey());
+        out.writeInt(measure.getValue());
+      }
+      writeInts(out, noSonarLines);
+      writeInts(out, linesOfCode);
+      writeInts(out, executableLines);
+      out.writeInt(cpdTokens.size());
+      for (var token : cpdTokens) {
+        out.writeInt(token.startLine);
+        out.writeInt(token.startCol);
+        out.writeInt(token.endLine);
+        out.writeInt(token.endCol);
+        writeString(out, token.token);
+      }
+      out.writeInt(highlights.size());
+      for (var highlight : highlights) {
+        out.writeInt(highlight.startLine);
+        out.writeInt(highlight.startLineOffset);
+        out.writeInt(highlight.endLine);
+        out.writeInt(highlight.endLineOffset);
+        writeString(out, highlight.typeOfText);
+      }
+      out.writeInt(messages.size());
+      for (var message : messages) {
+        writeString(out, message.ruleKey);
+        out.writeBoolean(message.line != null);
+        if (message.line != null) {
+          out.writeInt(message.line);
+        }
+        writeString(out, message.text);
+      }
+      out.writeInt(multiLocationIssues.size());
+      for (var issue : multiLocationIssues) {
+        writeIssue(out, issue);
+      }
+    }
+
+    private static CxxReportIssue readIssue(DataInputStream in) throws IOException {
+      var ruleId = readString(in);
+      var locations = readLocations(in);
+      if (locations.isEmpty()) {
+        throw new IOException("issue without location");
+      }
+      var first = locations.get(0);
+      var issue = new CxxReportIssue(ruleId, first.getFile(), first.getLine(), first.getColumn(), first.getInfo());
+      for (var location : locations.subList(1, locations.size())) {
+        issue.addLocation(location.getFile(), location.getLine(), location.getColumn(), location.getInfo());
+      }
+      // flow elements are prepended: add them in reverse order
+      var flow = readLocations(in);
+      for (int i = flow.size() - 1; i >= 0; i--) {
+        var location = flow.get(i);
+        issue.addFlowElement(location.getFile(), location.getLine(), location.getColumn(), location.getInfo());
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        issue.addAliasRuleId(readString(in));
+      }
+      return issue;
+    }
+
+    private static void writeIssue(DataOutputStream out, CxxReportIssue issue) throws IOException {
+      writeString(out, issue.getRuleId());
+      writeLocations(out, issue.getLocations());
+      writeLocations(out, issue.getFlow());
+      out.writeInt(issue.getAliasRuleIds().size());
+      for (var aliasRuleId : issue.getAliasRuleIds()) {
+        writeString(out, aliasRuleId);
+      }
+    }
+
+    private static List<CxxReportLocation> readLocations(DataInputStream in) throws IOException {
+      var locations = new ArrayList<CxxReportLocation>();
+      for (int i = in.readInt(); i > 0; i--) {
+        locations.add(new CxxReportLocation(readNullableString(in), readNullableString(in), readNullableString(in),
+          readString(in)));
+      }
+      return locations;
+    }
+
+    private static void writeLocations(DataOutputStream out, List<CxxReportLocation> locations) throws IOException {
+      out.writeInt(locations.size());
+      for (var location : locations) {
+        writeString(out, location.getFile());
+        writeString(out, location.getLine());
+        writeString(out, location.getColumn());
+        writeString(out, location.getInfo());
+      }
+    }
+
+    private static void readInts(DataInputStream in, Collection<Integer> values) throws IOException {
+      for (int i = in.readInt(); i > 0; i--) {
+        values.add(in.readInt());
+      }
+    }
+
+    private static void writeInts(DataOutputStream out, Collection<Integer> values) throws IOException {
+      out.writeInt(values.size());
+      for (var value : values) {
+        out.writeInt(value);
+      }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+      var value = readNullableString(in);
+      if (value == null) {
+        throw new IOException("unexpected null value");
+      }
+      return value;
+    }
+
+    // writeUTF is limited to 64K, strings are written as length (-1 for null) and UTF-8 bytes
+    @CheckForNull
+    private static String readNullableString(DataInputStream in) throws IOException {
+      int length = in.readInt();
+      if (length < 0) {
+        return null;
+      }
+      var bytes = in.readNBytes(length);
+      if (bytes.length != length) {
+        throw new EOFException();
+      }
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+      if (value == null) {
+        out.writeInt(-1);
+      } else {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    }
+  }
+
+  private static final class Message {
+
+    private final String ruleKey;
+    private final Integer line;
+    private final String text;
+
+    private Message(String ruleKey, @Nullable Integer line, String text) {
+      this.ruleKey = ruleKey;
+      this.line = line;
+      this.text = text;
+    }
+  }
+
+}
@@ -23,18 +23,21 @@ import com.sonar.cxx.sslr.api.Grammar;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.StreamSupport;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,12 +64,13 @@ import org.sonar.cxx.api.CxxMetric;
 import org.sonar.cxx.checks.CheckList;
 import org.sonar.cxx.config.CxxSquidConfiguration;
 import org.sonar.cxx.config.MsBuild;
+import org.sonar.cxx.parser.CxxGrammarImpl;
+import org.sonar.cxx.parser.CxxParseProfiler;
 import org.sonar.cxx.sensors.utils.CxxUtils;
 import org.sonar.cxx.squidbridge.SquidAstVisitor;
-import org.sonar.cxx.squidbridge.api.SourceCode;
 import org.sonar.cxx.squidbridge.api.SourceFile;
-import org.sonar.cxx.squidbridge.indexer.QueryByType;
 import org.sonar.cxx.visitors.CxxCpdVisitor;
+import org.sonar.cxx.visitors.CxxFileVisitor;
 import org.sonar.cxx.visitors.CxxHighlighterVisitor;
 import org.sonar.cxx.visitors.CxxPublicApiVisitor;
 import org.sonar.cxx.visitors.MultiLocatitionSquidCheck;
@@ -77,9 +81,14 @@ import org.sonar.cxx.visitors.MultiLocatitionSquidCheck;
 public class CxxSquidSensor implements ProjectSensor {
 
   public static final String SQUID_DISABLED_KEY = "sonar.cxx.squid.disabled";
+  public static final String SQUID_THREADS_KEY = "sonar.cxx.squid.threads";
+  public static final String SQUID_INCREMENTAL_KEY = "sonar.cxx.squid.incremental";
+  public static final String SQUID_MEMO_WAYS_KEY = "sonar.cxx.squid.memoWays";
+  public static final String SQUID_PROFILE_KEY = "sonar.cxx.squid.profile";
   public static final String DEFINES_KEY = "sonar.cxx.defines";
   public static final String INCLUDE_DIRECTORIES_KEY = "sonar.cxx.includeDirectories";
   public static final String ERROR_RECOVERY_KEY = "sonar.cxx.errorRecoveryEnabled";
+  public static final String REPORT_THREADS_KEY = "sonar.cxx.reports.threads";
   public static final String FORCE_INCLUDES_KEY = "sonar.cxx.forceIncludes";
   public static final String JSON_COMPILATION_DATABASE_KEY = "sonar.cxx.jsonCompilationDatabase";
   public static final String JSON_COMPILATION_DATABASE_ONLY_CONTAINED_FILES_KEY
@@ -94,10 +103,14 @@ public class CxxSquidSensor implements ProjectSensor {
   private static final Logger LOG = LoggerFactory.getLogger(CxxSquidSensor.class);
 
   private final FileLinesContextFactory fileLinesContextFactory;
+  private final CheckFactory checkFactory;
+  private final CustomCxxRulesDefinition[] customRulesDefinition;
   private final CxxChecks checks;
+  private final List<CxxChecks> workerChecks = new ArrayList<>();
   private final NoSonarFilter noSonarFilter;
 
   private SensorContext context;
+  private CxxSquidCache cache;
 
   /**
    * {@inheritDoc}
@@ -115,9 +128,9 @@ public class CxxSquidSensor implements ProjectSensor {
     CheckFactory checkFactory,
     NoSonarFilter noSonarFilter,
     @Nullable CustomCxxRulesDefinition[] customRulesDefinition) {
-    this.checks = CxxChecks.createCxxCheck(checkFactory)
-      .addChecks(CheckList.REPOSITORY_KEY, CheckList.getChecks())
-      .addCustomChecks(customRulesDefinition);
+    this.checkFactory = checkFactory;
+    this.customRulesDefinition = customRulesDefinition;
+    this.checks = createChecks();
     this.fileLinesContextFactory = fileLinesContextFactory;
     this.noSonarFilter = noSonarFilter;
   }
@@ -161,6 +174,67 @@ public class CxxSquidSensor implements ProjectSensor {
         .onConfigScopes(Set.of(PropertyDefinition.ConfigScope.PROJECT))
         .type(PropertyType.BOOLEAN)
         .build(),
+      PropertyDefinition.builder(SQUID_THREADS_KEY)
+        .defaultValue("1")
+        .name("Number of Threads")
+        .description("""
+          Number of threads used to parse the source files in parallel. Each thread uses its own preprocessor, \
+          parser and checks, the results are identical to a sequential analysis. A value of `0` uses one thread for \
+          each available processor (default is `1`).""")
+        .category(category)
+        .subCategory("(1) General")
+        .onConfigScopes(Set.of(PropertyDefinition.ConfigScope.PROJECT))
+        .type(PropertyType.INTEGER)
+        .build(),
+      PropertyDefinition.builder(REPORT_THREADS_KEY)
+        .defaultValue("1")
+        .name("Number of Threads to Read Reports")
+        .description("""
+          Number of threads used to read the report files of an external analyzer or coverage tool in parallel. \
+          The results are saved in the order of the reports and are identical to a sequential import. A value of \
+          `0` uses one thread for each available processor (default is `1`).""")
+        .category(category)
+        .subCategory("(1) General")
+        .onConfigScopes(Set.of(PropertyDefinition.ConfigScope.PROJECT))
+        .type(PropertyType.INTEGER)
+        .build(),
+      PropertyDefinition.builder(SQUID_INCREMENTAL_KEY)
+        .defaultValue(Boolean.FALSE.toString())
+        .name("Incremental Analysis")
+        .description("""
+          Reuse the results of the previous analysis for unchanged files. The results are stored in the analysis \
+          cache of the scanner, a file is analyzed again if the file itself, its preprocessor configuration or one \
+          of its include files has changed. Changes of the settings or the quality profile lead to a full analysis. \
+          Has no effect if the analysis cache is disabled (default is `False`).""")
+        .category(category)
+        .subCategory("(1) General")
+        .onConfigScopes(Set.of(PropertyDefinition.ConfigScope.PROJECT))
+        .type(PropertyType.BOOLEAN)
+        .build(),
+      PropertyDefinition.builder(SQUID_MEMO_WAYS_KEY)
+        .defaultValue(Integer.toString(CxxGrammarImpl.DEFAULT_MEMO_WAYS))
+        .name("Parser Memo Size")
+        .description("""
+          Number of parse results the parser keeps per token to avoid parsing the same code again after \
+          backtracking. Higher values can speed up parsing of ambiguous code, but need more memory while parsing a \
+          file. The results are identical for all values (default is `4`).""")
+        .category(category)
+        .subCategory("(1) General")
+        .onConfigScopes(Set.of(PropertyDefinition.ConfigScope.PROJECT))
+        .type(PropertyType.INTEGER)
+        .build(),
+      PropertyDefinition.builder(SQUID_PROFILE_KEY)
+        .defaultValue(Boolean.FALSE.toString())
+        .name("Parser Profiling")
+        .description("""
+          Count the invocations, backtracks, memo hits and parsed tokens of each grammar rule while parsing. The \
+          worst rules and the worst files are written to `cxx-parse-profile.json` in the working directory. \
+          Profiling slows down the analysis, use it only to find the cause of long parse times (default is `False`).""")
+        .category(category)
+        .subCategory("(1) General")
+        .onConfigScopes(Set.of(PropertyDefinition.ConfigScope.PROJECT))
+        .type(PropertyType.BOOLEAN)
+        .build(),
       PropertyDefinition.builder(DEFINES_KEY)
         .name("(2.1) Macros")
         .description("""
@@ -299,24 +373,42 @@ public class CxxSquidSensor implements ProjectSensor {
   @Override
   public void execute(SensorContext context) {
     this.context = context;
-
-    // add visitor only if corresponding rule is active
-    var visitors = new ArrayList<SquidAstVisitor<Grammar>>();
-    for (var check : checks.all()) {
-      RuleKey key = checks.ruleKey(check);
-      if ((key != null) && (context.activeRules().find(key) != null)) {
-        visitors.add(check);
-      }
-    }
+    workerChecks.clear();
 
     var squidConfig = createConfiguration();
-    var scanner = CxxAstScanner.create(squidConfig, visitors.toArray(SquidAstVisitor[]::new));
+    var profiler = context.config().getBoolean(SQUID_PROFILE_KEY).orElse(Boolean.FALSE)
+      ? new CxxParseProfiler() : null;
+    var scanner = CxxAstScanner.create(squidConfig, profiler, activeChecks(checks));
+
+    // save the results of each file immediately after it is scanned (instead of keeping all results until the end)
+    scanner.setFileScannedCallback(this::save);
 
     Iterable<InputFile> inputFiles = getInputFiles(context, squidConfig);
-    scanner.scanInputFiles(inputFiles);
+    if (context.config().getBoolean(SQUID_INCREMENTAL_KEY).orElse(Boolean.FALSE)) {
+      if (context.isCacheEnabled()) {
+        cache = CxxSquidCache.create(context, squidConfig, List.of(ERROR_RECOVERY_KEY, CPD_IGNORE_LITERALS_KEY,
+          CPD_IGNORE_IDENTIFIERS_KEY, FUNCTION_COMPLEXITY_THRESHOLD_KEY, FUNCTION_SIZE_THRESHOLD_KEY,
+          CxxPublicApiVisitor.API_FILE_SUFFIXES_KEY));
+        inputFiles = restoreFromCache(inputFiles);
+      } else {
+        LOG.info("Incremental analysis: analysis cache is disabled, all files are analyzed");
+      }
+    }
+
+    try {
+      scanner.scanInputFiles(inputFiles, getThreads(), () -> {
+        // each thread needs its own check instances
+        var worker = createChecks();
+        workerChecks.add(worker);
+        return CxxAstScanner.create(squidConfig, profiler, activeChecks(worker));
+      });
+    } finally {
+      cache = null;
+    }
 
-    Collection<SourceCode> squidSourceFiles = scanner.getIndex().search(new QueryByType(SourceFile.class));
-    save(squidSourceFiles);
+    if (profiler != null) {
+      writeProfile(profiler);
+    }
   }
 
   @Override
@@ -324,6 +416,54 @@ public class CxxSquidSensor implements ProjectSensor {
     return getClass().getSimpleName();
   }
 
+  private void writeProfile(CxxParseProfiler profiler) {
+    var reportFile = context.fileSystem().workDir().toPath().resolve(CxxParseProfiler.REPORT_FILE);
+    try {
+      Files.createDirectories(reportFile.getParent());
+      profiler.writeReport(reportFile);
+      LOG.info("Parser profile of {} files written to '{}'", profiler.getFiles().size(), reportFile);
+    } catch (IOException e) {
+      LOG.warn("Cannot write parser profile '{}'", reportFile, e);
+    }
+  }
+
+  private CxxChecks createChecks() {
+    return CxxChecks.createCxxCheck(checkFactory)
+      .addChecks(CheckList.REPOSITORY_KEY, CheckList.getChecks())
+      .addCustomChecks(customRulesDefinition);
+  }
+
+  /**
+   * Add visitor only if corresponding rule is active.
+   */
+  private SquidAstVisitor<Grammar>[] activeChecks(CxxChecks cxxChecks) {
+    var visitors = new ArrayList<SquidAstVisitor<Grammar>>();
+    for (var check : cxxChecks.all()) {
+      RuleKey key = cxxChecks.ruleKey(check);
+      if ((key != null) && (context.activeRules().find(key) != null)) {
+        visitors.add(check);
+      }
+    }
+    return visitors.toArray(SquidAstVisitor[]::new);
+  }
+
+  @CheckForNull
+  private RuleKey ruleKey(SquidAstVisitor<Grammar> check) {
+    RuleKey ruleKey = checks.ruleKey(check);
+    for (var i = 0; ruleKey == null && i < workerChecks.size(); i++) {
+      ruleKey = workerChecks.get(i).ruleKey(check);
+    }
+    return ruleKey;
+  }
+
+  private int getThreads() {
+    int threads = context.config().getInt(SQUID_THREADS_KEY).orElse(1);
+    if (threads <= 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+    return threads;
+  }
+
   private String[] stripValue(String key, String regex) {
     Optional<String> value = context.config().get(key);
     if (value.isPresent()) {
@@ -351,6 +491,8 @@ public class CxxSquidSensor implements ProjectSensor {
       context.config().getStringArray(CxxPublicApiVisitor.API_FILE_SUFFIXES_KEY));
     squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.JSON_COMPILATION_DATABASE,
       context.config().get(JSON_COMPILATION_DATABASE_KEY));
+    squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.PARSER_MEMO_WAYS,
+      context.config().get(SQUID_MEMO_WAYS_KEY));
 
     squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.DEFINES,
       stripValue(DEFINES_KEY, "\\R"));
@@ -359,7 +501,22 @@ public class CxxSquidSensor implements ProjectSensor {
     squidConfig.add(CxxSquidConfiguration.SONAR_PROJECT_PROPERTIES, CxxSquidConfiguration.INCLUDE_DIRECTORIES,
       context.config().getStringArray(INCLUDE_DIRECTORIES_KEY));
 
-    squidConfig.readJsonCompilationDb();
+    if (isAnalyzeOnlyContainedFiles()) {
+      // units of files which are not analyzed are not needed: skip them while reading the database
+      var projectFiles = new HashSet<Path>();
+      for (var inputFile : getProjectFiles(context)) {
+        projectFiles.add(Path.of(inputFile.uri()));
+      }
+      squidConfig.readJsonCompilationDb(file -> {
+        try {
+          return projectFiles.contains(file.toRealPath(LinkOption.NOFOLLOW_LINKS));
+        } catch (IOException | RuntimeException e) {
+          return false;
+        }
+      });
+    } else {
+      squidConfig.readJsonCompilationDb();
+    }
 
     if (context.config().hasKey(MsBuild.REPORT_PATH_KEY)) {
       List<File> logFiles = CxxUtils.getFiles(context, MsBuild.REPORT_PATH_KEY);
@@ -370,20 +527,28 @@ public class CxxSquidSensor implements ProjectSensor {
     return squidConfig;
   }
 
-  private static Iterable<InputFile> getInputFiles(SensorContext context, CxxSquidConfiguration squidConfig) {
-    Iterable<InputFile> inputFiles = context.fileSystem().inputFiles(
+  private static Iterable<InputFile> getProjectFiles(SensorContext context) {
+    return context.fileSystem().inputFiles(
       context.fileSystem().predicates().and(
         context.fileSystem().predicates().hasLanguage(CxxLanguage.KEY),
         context.fileSystem().predicates().hasType(InputFile.Type.MAIN)
       )
     );
+  }
+
+  private boolean isAnalyzeOnlyContainedFiles() {
+    return context.config().hasKey(JSON_COMPILATION_DATABASE_KEY)
+      && context.config().getBoolean(JSON_COMPILATION_DATABASE_ONLY_CONTAINED_FILES_KEY).orElse(Boolean.FALSE);
+  }
+
+  private Iterable<InputFile> getInputFiles(SensorContext context, CxxSquidConfiguration squidConfig) {
+    Iterable<InputFile> inputFiles = getProjectFiles(context);
 
-    if (context.config().hasKey(JSON_COMPILATION_DATABASE_KEY)
-      && context.config().getBoolean(JSON_COMPILATION_DATABASE_ONLY_CONTAINED_FILES_KEY).orElse(Boolean.FALSE)) {
+    if (isAnalyzeOnlyContainedFiles()) {
 
       // if the source of the configuration is JSON Compilation Database and analyzeOnlyContainedFiles=True,
       // then analyze only the files contained in the db.
-      var inputFilesInConfig = new ArrayList<Path>();
+      var inputFilesInConfig = new HashSet<Path>();
       for (var inputfile : squidConfig.getFiles()) {
         try {
           // resolution of symbolic links and case-sensitive paths: In Json DB the path/filenames are often lowercase
@@ -408,23 +573,68 @@ public class CxxSquidSensor implements ProjectSensor {
     return inputFiles;
   }
 
-  private void save(Collection<SourceCode> sourceCodeFiles) {
-    for (var sourceCodeFile : sourceCodeFiles) {
-      try {
-        var sourceFile = (SourceFile) sourceCodeFile;
-        InputFile inputFile = context.fileSystem().inputFile(
-          context.fileSystem().predicates().hasPath(sourceFile.getKey())
-        );
-        saveMeasures(inputFile, sourceFile);
-        saveViolations(inputFile, sourceFile);
-        saveFileLinesContext(inputFile, sourceFile);
-        saveCpdTokens(inputFile, sourceFile);
-        saveHighlighting(inputFile, sourceFile);
-      } catch (IllegalStateException e) {
-        var msg = "Cannot save all measures for file '" + sourceCodeFile.getKey() + "'";
-        CxxUtils.validateRecovery(msg, e, context.config());
+  /**
+   * Save the results of all files with a valid cache entry.
+   *
+   * @return files which have to be analyzed
+   */
+  private List<InputFile> restoreFromCache(Iterable<InputFile> inputFiles) {
+    var activeChecks = new HashMap<RuleKey, Object>();
+    for (var check : activeChecks(checks)) {
+      activeChecks.put(checks.ruleKey(check), check);
+    }
+
+    var result = new ArrayList<InputFile>();
+    for (var inputFile : inputFiles) {
+      var sourceFile = cache.restore(inputFile, activeChecks::get);
+      if (sourceFile != null) {
+        save(inputFile, sourceFile);
+      } else {
+        result.add(inputFile);
       }
     }
+    LOG.info("Incremental analysis: results of {} unchanged files reused, {} files to analyze",
+      cache.getReusedFiles(), result.size());
+    return result;
+  }
+
+  private void save(SourceFile sourceFile) {
+    InputFile inputFile = context.fileSystem().inputFile(
+      context.fileSystem().predicates().hasPath(sourceFile.getKey())
+    );
+    if (cache != null && inputFile != null) {
+      cache.put(inputFile, sourceFile, check -> ruleKey((SquidAstVisitor<Grammar>) check));
+    }
+    save(inputFile, sourceFile);
+  }
+
+  private void save(InputFile inputFile, SourceFile sourceFile) {
+    try {
+      saveMeasures(inputFile, sourceFile);
+      saveViolations(inputFile, sourceFile);
+      saveFileLinesContext(inputFile, sourceFile);
+      saveCpdTokens(inputFile, sourceFile);
+      saveHighlighting(inputFile, sourceFile);
+    } catch (IllegalStateException e) {
+      var msg = "Cannot save all measures for file '" + sourceFile.getKey() + "'";
+      CxxUtils.validateRecovery(msg, e, context.config());
+    } finally {
+      release(sourceFile);
+    }
+  }
+
+  /**
+   * Results of the file are saved: release the memory of the per-file data.
+   */
+  private static void release(SourceFile sourceFile) {
+    sourceFile.removeMeasure(CxxMetric.NCLOC_DATA);
+    sourceFile.removeMeasure(CxxMetric.EXECUTABLE_LINES_DATA);
+    sourceFile.removeMeasure(CxxMetric.CPD_TOKENS_DATA);
+    sourceFile.removeMeasure(CxxMetric.HIGHLIGTHING_DATA);
+    CxxFileVisitor.eraseIncludedFiles(sourceFile);
+    if (sourceFile.hasCheckMessages()) {
+      sourceFile.getCheckMessages().clear();
+    }
   }
 
   private void saveMeasures(InputFile inputFile, SourceFile sourceFile) {
@@ -468,7 +678,7 @@ public class CxxSquidSensor implements ProjectSensor {
           line = message.getLine();
         }
 
-        RuleKey ruleKey = checks.ruleKey((SquidAstVisitor<Grammar>) message.getCheck());
+        RuleKey ruleKey = ruleKey((SquidAstVisitor<Grammar>) message.getCheck());
         if (ruleKey != null) {
           var newIssue = context.newIssue().forRule(RuleKey.of(ruleKey.repository(), ruleKey.rule()));
           var location = newIssue.newLocation()
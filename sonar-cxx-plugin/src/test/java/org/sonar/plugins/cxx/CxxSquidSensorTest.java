@@ -19,18 +19,31 @@
  */
 package org.sonar.plugins.cxx;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
 import static org.assertj.core.api.Assertions.*;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.sensor.cache.ReadCache;
+import org.sonar.api.batch.sensor.cache.WriteCache;
 import org.sonar.api.batch.sensor.cpd.internal.TokensLine;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.batch.sensor.issue.internal.DefaultNoSonarFilter;
@@ -38,10 +51,18 @@ import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.api.measures.FileLinesContextFactory;
+import org.sonar.api.testfixtures.log.LogTesterJUnit5;
 import org.sonar.cxx.CxxMetrics;
+import org.sonar.cxx.parser.CxxParseProfiler;
 
 class CxxSquidSensorTest {
 
+  @TempDir
+  File tempDir;
+
+  @RegisterExtension
+  private final LogTesterJUnit5 logTester = new LogTesterJUnit5();
+
   private CxxSquidSensor sensor;
   private final MapSettings settings = new MapSettings();
 
@@ -229,6 +250,126 @@ class CxxSquidSensorTest {
     softly.assertAll();
   }
 
+  @Test
+  void testParallelScan() {
+    File baseDir = TestUtils.loadResource("/org/sonar/plugins/cxx/force-include-project");
+    var context = SensorContextTester.create(baseDir);
+    settings.setProperty(CxxSquidSensor.INCLUDE_DIRECTORIES_KEY, "include");
+    settings.setProperty(CxxSquidSensor.FORCE_INCLUDES_KEY, "force1.hh,subfolder/force2.hh");
+    settings.setProperty(CxxSquidSensor.SQUID_THREADS_KEY, 2);
+    context.setSettings(settings);
+
+    var inputFile1 = TestUtils.buildInputFile(baseDir, "src/src1.cc");
+    var inputFile2 = TestUtils.buildInputFile(baseDir, "src/scr2.cc");
+    context.fileSystem().add(inputFile1);
+    context.fileSystem().add(inputFile2);
+    sensor.execute(context);
+
+    var softly = new SoftAssertions();
+    for (var inputFile : List.of(inputFile1, inputFile2)) {
+      softly.assertThat(context.measure(inputFile.key(), CoreMetrics.NCLOC).value()).isEqualTo(1);
+      softly.assertThat(context.measure(inputFile.key(), CoreMetrics.STATEMENTS).value()).isEqualTo(2);
+      softly.assertThat(context.measure(inputFile.key(), CoreMetrics.FUNCTIONS).value()).isEqualTo(1);
+      softly.assertThat(context.measure(inputFile.key(), CoreMetrics.CLASSES).value()).isZero();
+    }
+    softly.assertAll();
+  }
+
+  @Test
+  void testParseProfiling() throws IOException {
+    File baseDir = TestUtils.loadResource("/org/sonar/plugins/cxx/force-include-project");
+    var workDir = new File(tempDir, "work");
+    var context = SensorContextTester.create(baseDir);
+    context.fileSystem().setWorkDir(workDir.toPath());
+    settings.setProperty(CxxSquidSensor.INCLUDE_DIRECTORIES_KEY, "include");
+    settings.setProperty(CxxSquidSensor.FORCE_INCLUDES_KEY, "force1.hh,subfolder/force2.hh");
+    settings.setProperty(CxxSquidSensor.SQUID_THREADS_KEY, 2);
+    settings.setProperty(CxxSquidSensor.SQUID_PROFILE_KEY, true);
+    context.setSettings(settings);
+
+    context.fileSystem().add(TestUtils.buildInputFile(baseDir, "src/src1.cc"));
+    context.fileSystem().add(TestUtils.buildInputFile(baseDir, "src/scr2.cc"));
+    sensor.execute(context);
+
+    var report = new ObjectMapper().readTree(new File(workDir, CxxParseProfiler.REPORT_FILE));
+    var softly = new SoftAssertions();
+    softly.assertThat(report.get("files").asInt()).isEqualTo(2);
+    softly.assertThat(report.get("tokens").asLong()).isPositive();
+    softly.assertThat(report.get("worstRules")).isNotEmpty();
+    softly.assertThat(report.get("worstRules").get(0).get("invocations").asLong()).isPositive();
+    softly.assertThat(report.get("worstFiles")).hasSize(2);
+    softly.assertThat(report.get("worstFiles").get(0).get("file").asText()).endsWith(".cc");
+    softly.assertThat(report.get("worstFiles").get(0).get("worstRules")).isNotEmpty();
+    softly.assertAll();
+  }
+
+  @Test
+  void testIncrementalAnalysis() throws IOException {
+    var baseDir = new File(tempDir, "project");
+    var header = new File(baseDir, "include/header.hh");
+    Files.createDirectories(header.toPath().getParent());
+    Files.createDirectories(new File(baseDir, "src").toPath());
+    Files.writeString(header.toPath(), "#define FUNCTIONS void f1() {}\n", StandardCharsets.UTF_8);
+    Files.writeString(new File(baseDir, "src/main.cc").toPath(), "#include \"header.hh\"\nFUNCTIONS\n",
+      StandardCharsets.UTF_8);
+    settings.setProperty(CxxSquidSensor.INCLUDE_DIRECTORIES_KEY, "include");
+    settings.setProperty(CxxSquidSensor.SQUID_INCREMENTAL_KEY, true);
+    var inputFile = TestUtils.buildInputFile(baseDir, "src/main.cc");
+
+    // 1. analysis: nothing to reuse
+    var context = executeIncremental(baseDir, new File(tempDir, "work1"), inputFile, new MapCache(null));
+    assertThat(context.measure(inputFile.key(), CoreMetrics.FUNCTIONS).value()).isEqualTo(1);
+    assertThat(logTester.logs()).contains("Incremental analysis: results of 0 unchanged files reused, 1 files to analyze");
+    assertThat(((MapCache) context.nextCache()).entries).containsOnlyKeys(CxxSquidCache.KEY_PREFIX + inputFile.key());
+
+    // 2. analysis with a new working directory: results of the unchanged file are reused
+    logTester.clear();
+    context = executeIncremental(baseDir, new File(tempDir, "work2"), inputFile, (MapCache) context.nextCache());
+    assertThat(context.measure(inputFile.key(), CoreMetrics.FUNCTIONS).value()).isEqualTo(1);
+    assertThat(context.measure(inputFile.key(), CoreMetrics.NCLOC).value()).isEqualTo(1);
+    assertThat(logTester.logs()).contains("Incremental analysis: results of 1 unchanged files reused, 0 files to analyze");
+    assertThat(((MapCache) context.nextCache()).entries).containsOnlyKeys(CxxSquidCache.KEY_PREFIX + inputFile.key());
+
+    // 3. analysis: changed include file invalidates the results
+    Files.writeString(header.toPath(), "#define FUNCTIONS void f1() {} void f2() {}\n", StandardCharsets.UTF_8);
+    logTester.clear();
+    context = executeIncremental(baseDir, new File(tempDir, "work3"), inputFile, (MapCache) context.nextCache());
+    assertThat(context.measure(inputFile.key(), CoreMetrics.FUNCTIONS).value()).isEqualTo(2);
+    assertThat(logTester.logs()).contains("Incremental analysis: results of 0 unchanged files reused, 1 files to analyze");
+  }
+
+  @Test
+  void testIncrementalAnalysisWithoutCache() {
+    File baseDir = TestUtils.loadResource("/org/sonar/plugins/cxx/codechunks-project");
+    var inputFile = TestUtils.buildInputFile(baseDir, "code_chunks.cc");
+    settings.setProperty(CxxSquidSensor.SQUID_INCREMENTAL_KEY, true);
+
+    var context = SensorContextTester.create(baseDir);
+    context.setSettings(settings);
+    context.setCacheEnabled(false);
+    context.fileSystem().add(inputFile);
+    sensor.execute(context);
+
+    assertThat(context.measure(inputFile.key(), CoreMetrics.FUNCTIONS).value()).isEqualTo(7);
+    assertThat(logTester.logs()).contains("Incremental analysis: analysis cache is disabled, all files are analyzed");
+  }
+
+  /**
+   * Execute an analysis with a fresh working directory, the cache of the next analysis is a MapCache.
+   */
+  private SensorContextTester executeIncremental(File baseDir, File workDir, InputFile inputFile,
+    MapCache previousCache) {
+    var context = SensorContextTester.create(baseDir);
+    context.fileSystem().setWorkDir(workDir.toPath());
+    context.setSettings(settings);
+    context.fileSystem().add(inputFile);
+    context.setCacheEnabled(true);
+    context.setPreviousCache(previousCache);
+    context.setNextCache(new MapCache(previousCache));
+    sensor.execute(context);
+    return context;
+  }
+
   @Test
   void testBehaviourOnCircularIncludes() {
     // especially: when two files, both belonging to the set of
@@ -244,4 +385,50 @@ class CxxSquidSensorTest {
     assertThat(context.measure(inputFile.key(), CoreMetrics.NCLOC).value()).isEqualTo(1);
   }
 
+  /**
+   * Analysis cache in memory.
+   */
+  private static final class MapCache implements ReadCache, WriteCache {
+
+    private final Map<String, byte[]> entries = new HashMap<>();
+    @Nullable
+    private final MapCache previous;
+
+    MapCache(@Nullable MapCache previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public InputStream read(String key) {
+      return new ByteArrayInputStream(entries.get(key));
+    }
+
+    @Override
+    public boolean contains(String key) {
+      return entries.containsKey(key);
+    }
+
+    @Override
+    public void write(String key, InputStream data) {
+      try {
+        write(key, data.readAllBytes());
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public void write(String key, byte[] data) {
+      assertThat(entries).doesNotContainKey(key);
+      entries.put(key, data);
+    }
+
+    @Override
+    public void copyFromPrevious(String key) {
+      assertThat(previous).isNotNull();
+      write(key, previous.entries.get(key));
+    }
+
+  }
+
 }